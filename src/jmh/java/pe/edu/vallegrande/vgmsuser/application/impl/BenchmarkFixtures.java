@@ -0,0 +1,80 @@
+package pe.edu.vallegrande.vgmsuser.application.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.slf4j.LoggerFactory;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Datos sintéticos compartidos por los benchmarks: usuarios con la forma real de los atributos de Keycloak
+ */
+public final class BenchmarkFixtures {
+
+    static final String[] STAFF_ROLES = {"teacher", "auxiliary", "secretary"};
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Silencia los logs INFO de los servicios para medir el pipeline y no el appender
+     */
+    public static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger("pe.edu.vallegrande.vgmsuser")).setLevel(Level.WARN);
+    }
+
+    static String institutionId(int index) {
+        return "inst-" + (index % 20);
+    }
+
+    public static Set<String> rolesFor(int index) {
+        return index % 25 == 0 ? Set.of("director") : Set.of(STAFF_ROLES[index % STAFF_ROLES.length]);
+    }
+
+    public static UserRepresentation userRepresentation(int index) {
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+        Map<String, List<String>> attributes = new HashMap<>();
+        attributes.put("documentType", List.of("DNI"));
+        attributes.put("documentNumber", List.of(String.format("%08d", index)));
+        attributes.put("phone", List.of("9" + String.format("%08d", index)));
+        attributes.put("status", List.of(index % 10 == 0 ? "I" : "A"));
+        attributes.put("passwordStatus", List.of("PERMANENT"));
+        attributes.put("passwordCreatedAt", List.of(now.minusDays(index % 90).toString()));
+        attributes.put("institutionId", List.of(institutionId(index)));
+        attributes.put("updatedAt", List.of(now.toString()));
+
+        UserRepresentation user = new UserRepresentation();
+        user.setId("kc-" + index);
+        user.setUsername("user" + index);
+        user.setEmail("user" + index + "@vallegrande.edu.pe");
+        user.setFirstName("Nombre" + index);
+        user.setLastName("Apellido" + index);
+        user.setEnabled(true);
+        user.setCreatedTimestamp(1_700_000_000_000L + index);
+        user.setAttributes(attributes);
+        return user;
+    }
+
+    static List<UserRepresentation> userRepresentations(int count) {
+        List<UserRepresentation> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(userRepresentation(i));
+        }
+        return users;
+    }
+
+    /**
+     * Usuario ya mapeado, como lo devuelve KeycloakServiceImpl
+     */
+    public static KeycloakUserDto keycloakUserDto(int index) {
+        return KeycloakServiceImpl.toKeycloakUserDto(userRepresentation(index), rolesFor(index));
+    }
+}
@@ -0,0 +1,176 @@
+package pe.edu.vallegrande.vgmsuser.application.impl;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envío de correos de EmailServiceImpl contra un SMTP local (LocalSmtpServer), con las plantillas reales.
+ * <ul>
+ *   <li>render* y transport* separan el coste de la plantilla del de armar y transmitir el MIME;
+ *   send* es el camino completo de un correo</li>
+ *   <li>*AtConcurrency lanza N envíos a la vez; el contador "messages" da mensajes por segundo</li>
+ *   <li>Heap por mensaje: gc.alloc.rate.norm de -prof gc (en *AtConcurrency dividir entre concurrency)</li>
+ * </ul>
+ * Con -prof jfr los eventos EmailRenderEvent/EmailSendEvent dan el mismo reparto por correo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class EmailDeliveryBenchmark {
+
+    private static final String FRONTEND_URL = "http://localhost:3000/school";
+    private static final String TO_EMAIL = "user42@vallegrande.edu.pe";
+    private static final String RESET_TOKEN = "eyJraWQiOiIyMDI1In0.c2lnbmF0dXJhLWRlLXBydWViYQ";
+
+    private LocalSmtpServer smtp;
+    private JavaMailSenderImpl mailSender;
+    private SpringTemplateEngine templateEngine;
+    private EmailServiceImpl service;
+    private MimeMessage renderedMessage;
+
+    @Setup
+    public void setUp() throws IOException, MessagingException {
+        BenchmarkFixtures.quietLogging();
+        smtp = new LocalSmtpServer();
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.getPort());
+        mailSender.setDefaultEncoding("UTF-8");
+        // EHLO fijo: el resultado no depende de cómo resuelve su hostname la máquina
+        mailSender.getJavaMailProperties().setProperty("mail.smtp.localhost", "localhost");
+
+        // Igual que la autoconfiguración de Spring Boot: templates/*.html con caché
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        service = new EmailServiceImpl(mailSender, templateEngine);
+        ReflectionTestUtils.setField(service, "fromEmail", "no-reply@vallegrande.edu.pe");
+        ReflectionTestUtils.setField(service, "frontendUrl", FRONTEND_URL);
+
+        renderedMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(renderedMessage, true, "UTF-8");
+        helper.setFrom("no-reply@vallegrande.edu.pe");
+        helper.setTo(TO_EMAIL);
+        helper.setSubject("Restablecer Contraseña");
+        helper.setText(renderPasswordReset(), true);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        smtp.close();
+    }
+
+    @Benchmark
+    public String renderTemporaryCredentials() {
+        Context context = new Context();
+        context.setVariable("fullName", "user42");
+        context.setVariable("username", TO_EMAIL);
+        context.setVariable("temporaryPassword", "Tmp#2025abc");
+        context.setVariable("resetUrl", FRONTEND_URL + "/reset-password?token=" + RESET_TOKEN);
+        context.setVariable("loginUrl", FRONTEND_URL + "/login");
+        return templateEngine.process("email/temporary-credentials", context);
+    }
+
+    @Benchmark
+    public String renderPasswordReset() {
+        Context context = new Context();
+        context.setVariable("fullName", "user42");
+        context.setVariable("token", RESET_TOKEN);
+        context.setVariable("resetUrl", FRONTEND_URL + "/reset-password?token=" + RESET_TOKEN);
+        return templateEngine.process("email/password-reset", context);
+    }
+
+    /**
+     * Solo la conexión SMTP y la transmisión de un MIME ya armado
+     */
+    @Benchmark
+    public void transportPasswordReset() {
+        mailSender.send(renderedMessage);
+    }
+
+    @Benchmark
+    public void sendTemporaryCredentials() {
+        service.sendTemporaryCredentialsEmail(TO_EMAIL, "user42", "Tmp#2025abc", RESET_TOKEN).block();
+    }
+
+    @Benchmark
+    public void sendPasswordReset() {
+        service.sendPasswordResetEmail(TO_EMAIL, "user42", RESET_TOKEN).block();
+    }
+
+    @Benchmark
+    public void temporaryCredentialsAtConcurrency(Load load, MessageCounter counter) {
+        Flux.range(0, load.concurrency)
+                .flatMap(i -> service.sendTemporaryCredentialsEmail(
+                        "user" + i + "@vallegrande.edu.pe", "user" + i, "Tmp#2025abc", RESET_TOKEN), load.concurrency)
+                .then()
+                .block();
+        counter.messages += load.concurrency;
+    }
+
+    @Benchmark
+    public void passwordResetAtConcurrency(Load load, MessageCounter counter) {
+        Flux.range(0, load.concurrency)
+                .flatMap(i -> service.sendPasswordResetEmail(
+                        "user" + i + "@vallegrande.edu.pe", "user" + i, RESET_TOKEN), load.concurrency)
+                .then()
+                .block();
+        counter.messages += load.concurrency;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Load {
+
+        /** Envíos simultáneos; cada uno usa su propia conexión SMTP, como en producción */
+        @Param({"1", "4", "16"})
+        public int concurrency;
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class MessageCounter {
+
+        public long messages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            messages = 0;
+        }
+    }
+}
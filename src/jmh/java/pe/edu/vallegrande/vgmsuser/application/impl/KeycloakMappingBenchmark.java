@@ -0,0 +1,66 @@
+package pe.edu.vallegrande.vgmsuser.application.impl;
+
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeo UserRepresentation -> KeycloakUserDto (lectura de atributos, enums y fechas)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class KeycloakMappingBenchmark {
+
+    @Param({"1", "500"})
+    public int users;
+
+    private List<UserRepresentation> representations;
+    private UserRepresentation single;
+    private UserRepresentation withoutAttributes;
+    private final Set<String> roles = Set.of("teacher");
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        representations = BenchmarkFixtures.userRepresentations(users);
+        single = representations.get(0);
+        withoutAttributes = BenchmarkFixtures.userRepresentation(1);
+        withoutAttributes.setAttributes(null);
+    }
+
+    @Benchmark
+    public KeycloakUserDto mapSingleUser() {
+        return KeycloakServiceImpl.toKeycloakUserDto(single, roles);
+    }
+
+    @Benchmark
+    public KeycloakUserDto mapUserWithoutAttributes() {
+        return KeycloakServiceImpl.toKeycloakUserDto(withoutAttributes, roles);
+    }
+
+    @Benchmark
+    public void mapAllUsers(Blackhole blackhole) {
+        for (UserRepresentation representation : representations) {
+            blackhole.consume(KeycloakServiceImpl.toKeycloakUserDto(representation, roles));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package pe.edu.vallegrande.vgmsuser.application.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor SMTP mínimo en loopback para los benchmarks de correo: acepta cualquier remitente y
+ * destinatario, descarta el contenido y solo cuenta mensajes y bytes recibidos.
+ * Sin AUTH ni STARTTLS: mide el coste de armar y transmitir el MIME, no el del proveedor
+ */
+final class LocalSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "local-smtp");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    LocalSmtpServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 200, InetAddress.getLoopbackAddress());
+        connections.execute(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    long getMessages() {
+        return messages.get();
+    }
+
+    long getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                // El socket se cerró en close()
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-localhost\r\n250-8BITMIME\r\n250 SIZE 52428800");
+                    case "HELO", "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        long size = 0;
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            size += line.length() + 2;
+                        }
+                        messages.incrementAndGet();
+                        bytes.addAndGet(size);
+                        reply(out, "250 OK queued");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // Conexión cortada por el cliente
+        }
+    }
+
+    private static void reply(OutputStream out, String response) throws IOException {
+        out.write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
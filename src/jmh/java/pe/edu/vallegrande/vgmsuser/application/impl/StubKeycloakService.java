@@ -0,0 +1,128 @@
+package pe.edu.vallegrande.vgmsuser.application.impl;
+
+import org.keycloak.representations.idm.UserRepresentation;
+import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
+import pe.edu.vallegrande.vgmsuser.domain.model.User;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IKeycloakService en memoria y síncrono: aísla el coste de los pipelines reactivos del de Keycloak
+ */
+final class StubKeycloakService implements IKeycloakService {
+
+    private final List<UserRepresentation> representations;
+    private final List<KeycloakUserDto> users;
+    private final Map<String, KeycloakUserDto> byId = new HashMap<>();
+
+    StubKeycloakService(int userCount) {
+        this.representations = BenchmarkFixtures.userRepresentations(userCount);
+        this.users = representations.stream()
+                .map(rep -> KeycloakServiceImpl.toKeycloakUserDto(rep,
+                        BenchmarkFixtures.rolesFor(Integer.parseInt(rep.getId().substring(3)))))
+                .toList();
+        users.forEach(user -> byId.put(user.getKeycloakId(), user));
+    }
+
+    @Override
+    public Mono<List<UserRepresentation>> findAllUsers() {
+        return Mono.just(representations);
+    }
+
+    @Override
+    public Mono<List<UserRepresentation>> searchUserByUsername(String username) {
+        return Mono.just(representations.stream().filter(rep -> rep.getUsername().equals(username)).toList());
+    }
+
+    @Override
+    public Mono<String> createUser(User userDTO) {
+        return Mono.just("User created successfully with ID: kc-new");
+    }
+
+    @Override
+    public Mono<String> deleteUser(String keycloakId) {
+        return Mono.just("User deleted successfully");
+    }
+
+    @Override
+    public Mono<Void> changePassword(String keycloakId, String newPassword) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> updateUser(String userId, User userDTO) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> enableUser(String keycloakId) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> disableUser(String keycloakId) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<KeycloakUserDto> getUserByKeycloakId(String keycloakId) {
+        return Mono.justOrEmpty(byId.get(keycloakId));
+    }
+
+    @Override
+    public Flux<KeycloakUserDto> getAllUsersWithAttributes() {
+        return Flux.fromIterable(users);
+    }
+
+    @Override
+    public Flux<KeycloakUserDto> searchUsersByAttribute(String attribute, String value) {
+        return getAllUsersWithAttributes()
+                .filter(user -> value.equals(switch (attribute) {
+                    case "institutionId" -> user.getInstitutionId();
+                    case "documentNumber" -> user.getDocumentNumber();
+                    case "status" -> user.getStatus() != null ? user.getStatus().name() : null;
+                    default -> null;
+                }));
+    }
+
+    @Override
+    public Flux<KeycloakUserDto> getUsersByRole(String roleName) {
+        return getAllUsersWithAttributes()
+                .filter(user -> user.getRoles() != null && user.getRoles().contains(roleName));
+    }
+
+    @Override
+    public Mono<Void> updateUserAttributes(String keycloakId, User user) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> updatePasswordResetToken(String keycloakId, String resetToken) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> updatePasswordStatus(String keycloakId, String passwordStatus, String passwordCreatedAt) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> updateUserStatus(String keycloakId, String status) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<KeycloakUserDto> getUserByUsername(String username) {
+        return Flux.fromIterable(users).filter(user -> user.getUsername().equals(username)).next();
+    }
+
+    @Override
+    public Mono<KeycloakUserDto> getUserByEmail(String email) {
+        return Flux.fromIterable(users).filter(user -> user.getEmail().equals(email)).next();
+    }
+}
@@ -0,0 +1,77 @@
+package pe.edu.vallegrande.vgmsuser.application.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQueryPlanner;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.PasswordResetTokens;
+import pe.edu.vallegrande.vgmsuser.infraestructure.uniqueness.UserUniquenessIndex;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelines reactivos de UserManagementServiceImpl sobre un IKeycloakService en memoria.
+ * Mide el coste propio de los filtros y operadores, sin red ni Keycloak
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class UserManagementPipelineBenchmark {
+
+    @Param({"100", "2000"})
+    public int users;
+
+    private UserManagementServiceImpl service;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        StubKeycloakService keycloakService = new StubKeycloakService(users);
+        service = new UserManagementServiceImpl(keycloakService, null, null, event -> { },
+                new UserQueryPlanner(keycloakService, 100, users),
+                new UserUniquenessIndex(keycloakService, Duration.ZERO, Duration.ZERO, Duration.ZERO),
+                new PasswordResetTokens(List.of(), Duration.ofHours(24), Duration.ofDays(7)),
+                new EmailDispatcher(2, 100, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10));
+    }
+
+    @Benchmark
+    public List<KeycloakUserDto> staffByInstitution() {
+        return service.getStaffByInstitution("inst-7").collectList().block();
+    }
+
+    @Benchmark
+    public List<KeycloakUserDto> staffByInstitutionAndRole() {
+        return service.getStaffByInstitutionAndRole("inst-7", "TEACHER").collectList().block();
+    }
+
+    @Benchmark
+    public List<KeycloakUserDto> usersByStatus() {
+        return service.getUsersByStatus(UserStatus.I).collectList().block();
+    }
+
+    @Benchmark
+    public KeycloakUserDto completeUserByKeycloakId() {
+        return service.getCompleteUserByKeycloakId("kc-42").block();
+    }
+
+    @Benchmark
+    public KeycloakUserDto activateUser() {
+        return service.activateUser("kc-42").block();
+    }
+}
@@ -0,0 +1,74 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pe.edu.vallegrande.vgmsuser.application.impl.BenchmarkFixtures;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de un listado de staff: mapa sin tipo frente al envoltorio tipado,
+ * con y sin Blackbird
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ResponseSerializationBenchmark {
+
+    @Param({"50", "500"})
+    private int users;
+
+    private ObjectMapper plainMapper;
+    private ObjectMapper blackbirdMapper;
+    private List<KeycloakUserDto> staff;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        plainMapper = Jackson2ObjectMapperBuilder.json().build();
+        blackbirdMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        staff = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            staff.add(BenchmarkFixtures.keycloakUserDto(i));
+        }
+    }
+
+    @Benchmark
+    public byte[] hashMapEnvelope() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Users retrieved successfully");
+        response.put("total_users", staff.size());
+        response.put("users", staff);
+        return plainMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] typedEnvelope() throws Exception {
+        return plainMapper.writeValueAsBytes(UserListResponse.of("Users retrieved successfully", staff));
+    }
+
+    @Benchmark
+    public byte[] typedEnvelopeBlackbird() throws Exception {
+        return blackbirdMapper.writeValueAsBytes(UserListResponse.of("Users retrieved successfully", staff));
+    }
+}
@@ -0,0 +1,69 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolución de identidad y reglas de acceso de IdentityWebFilter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class IdentityResolutionBenchmark {
+
+    private final IdentityWebFilter filter = new IdentityWebFilter();
+
+    private ServerHttpRequest adminRequest;
+    private ServerHttpRequest directorRequest;
+    private PathContainer adminPath;
+
+    @Setup
+    public void setUp() {
+        adminRequest = MockServerHttpRequest.get("/api/v1/users/admin")
+                .header("X-User-Id", "admin-1")
+                .header("X-User-Roles", "ADMIN")
+                .build();
+        directorRequest = MockServerHttpRequest.get("/api/v1/users/director/staff")
+                .header("X-User-Id", "director-1")
+                .header("X-User-Roles", "director, teacher")
+                .header("X-Institution-Id", "inst-7")
+                .build();
+        adminPath = adminRequest.getPath().pathWithinApplication();
+    }
+
+    @Benchmark
+    public boolean resolveAdminIdentity() {
+        AccessRule rule = IdentityWebFilter.ruleFor(adminPath);
+        return rule.allows(RequestIdentity.from(adminRequest.getHeaders()));
+    }
+
+    @Benchmark
+    public RequestIdentity resolveDirectorIdentity() {
+        return RequestIdentity.from(directorRequest.getHeaders());
+    }
+
+    @Benchmark
+    public Object filterDirectorRequest() {
+        MockServerWebExchange exchange = MockServerWebExchange.from((MockServerHttpRequest) directorRequest);
+        filter.filter(exchange, ignored -> Mono.empty()).block();
+        return exchange.getAttribute(RequestIdentity.ATTRIBUTE);
+    }
+}
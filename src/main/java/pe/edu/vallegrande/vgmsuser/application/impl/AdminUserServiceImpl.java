@@ -2,7 +2,10 @@ package pe.edu.vallegrande.vgmsuser.application.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQuery;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQueryPlanner;
 import pe.edu.vallegrande.vgmsuser.application.service.IAdminUserService;
 import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
 import pe.edu.vallegrande.vgmsuser.application.service.IEmailService;
@@ -12,10 +15,18 @@ import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailPriority;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.PasswordResetTokens;
+import pe.edu.vallegrande.vgmsuser.infraestructure.uniqueness.UserUniquenessIndex;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -27,6 +38,11 @@ public class AdminUserServiceImpl implements IAdminUserService {
     private final IKeycloakService keycloakService;
     private final IEmailService emailService;
     private final InstitutionValidationClient institutionValidationClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserQueryPlanner queryPlanner;
+    private final UserUniquenessIndex uniquenessIndex;
+    private final PasswordResetTokens resetTokens;
+    private final EmailDispatcher emailDispatcher;
 
     @Override
     public Mono<KeycloakUserDto> createAdminUser(User user) {
@@ -85,30 +101,38 @@ public class AdminUserServiceImpl implements IAdminUserService {
         String temporaryPassword = user.getDocumentNumber();
         user.setPassword(temporaryPassword);
         
-        return keycloakService.createUser(user)
-                .flatMap(keycloakUserId -> {
-                    log.info("Admin/Director user created in Keycloak with ID: {}", keycloakUserId);
-                    
-                    // Generar token de reseteo y guardarlo en Keycloak
-                    String resetToken = java.util.UUID.randomUUID().toString();
+        // Sin lugar para el correo de credenciales no se crea: el usuario quedaría sin poder entrar
+        return Mono.defer(() -> {
+            EmailDispatcher.Slot credentialsEmail = emailDispatcher.reserve(EmailPriority.BULK);
+            if (credentialsEmail == null) {
+                return Mono.error(new RuntimeException("Cola de correos llena: no se creó el usuario, intente nuevamente en unos minutos"));
+            }
+            return uniquenessIndex.createReserving(user, () -> keycloakService.createUser(user)
+                    .flatMap(keycloakUserId -> {
+                        log.info("Admin/Director user created in Keycloak with ID: {}", keycloakUserId);
                     
-                    return keycloakService.updatePasswordResetToken(keycloakUserId, resetToken)
-                            .then(Mono.defer(() -> {
-                                // Enviar email en background - no bloquea la creación si falla
-                                emailService.sendTemporaryCredentialsEmail(
-                                        user.getEmail(), 
-                                        buildFullName(user.getFirstname(), user.getLastname(), user.getUsername()), 
-                                        temporaryPassword, 
-                                        resetToken)
-                                        .doOnSuccess(v -> log.info("Email enviado exitosamente a: {}", user.getEmail()))
-                                        .doOnError(error -> log.error("Error enviando email (no crítico): {}", error.getMessage()))
-                                        .onErrorResume(error -> Mono.empty()) // Ignorar error de email
-                                        .subscribe(); // Ejecutar en background
+                        // Token de reseteo firmado para el correo de bienvenida (no se guarda en Keycloak)
+                        return keycloakService.getUserByKeycloakId(keycloakUserId)
+                                .map(created -> {
+                                    String resetToken = resetTokens.issueForNewUser(created);
                                 
-                                // Retornar el usuario creado
-                                return keycloakService.getUserByKeycloakId(keycloakUserId);
-                            }));
-                })
+                                    // Enviar email en background - no bloquea la creación si falla
+                                    credentialsEmail.dispatch(user.getInstitutionId(),
+                                            "temporary-credentials", user.getEmail(),
+                                            () -> emailService.sendTemporaryCredentialsEmail(
+                                                    user.getEmail(), 
+                                                    buildFullName(user.getFirstname(), user.getLastname(), user.getUsername()), 
+                                                    temporaryPassword, 
+                                                    resetToken));
+                                
+                                    // Retornar el usuario creado
+                                    return created;
+                                });
+                    })
+                    .doOnSuccess(created -> publishChange(UserChangeEvent.Type.CREATED, null, created)))
+                    // Si el alta falló el lugar reservado vuelve a la cola
+                    .doFinally(signal -> credentialsEmail.release());
+        })
                 .doOnError(error -> log.error("Error creating admin/director user: {}", error.getMessage()));
     }
     
@@ -116,8 +140,7 @@ public class AdminUserServiceImpl implements IAdminUserService {
     public Flux<KeycloakUserDto> getAllDirectors() {
         log.info("Getting all directors");
         
-        return keycloakService.getAllUsersWithAttributes()
-                .filter(user -> user.getRoles() != null && user.getRoles().contains("director"))
+        return queryPlanner.execute(UserQuery.anyRole(Role.director.bit()))
                 .doOnError(error -> log.error("Error getting all directors: {}", error.getMessage()));
     }
     
@@ -125,9 +148,7 @@ public class AdminUserServiceImpl implements IAdminUserService {
     public Flux<KeycloakUserDto> getDirectorsByInstitution(String institutionId) {
         log.info("Getting directors for institution: {}", institutionId);
         
-        return keycloakService.getAllUsersWithAttributes()
-                .filter(user -> user.getRoles() != null && user.getRoles().contains("director"))
-                .filter(user -> institutionId.equals(user.getInstitutionId()))
+        return queryPlanner.execute(UserQuery.and(UserQuery.anyRole(Role.director.bit()), UserQuery.institution(institutionId)))
                 .doOnError(error -> log.error("Error getting directors by institution: {}", error.getMessage()));
     }
 
@@ -189,12 +210,12 @@ public class AdminUserServiceImpl implements IAdminUserService {
                                     log.info("Institution validated successfully: {} - {}", user.getInstitutionId(), validationResponse.getName());
                                     
                                     // Proceder con la actualización
-                                    return performUpdate(keycloakId, user);
+                                    return performUpdate(keycloakId, user, existingUser);
                                 });
                     } else {
                         // Si no se proporciona institutionId o viene vacío, actualizar sin validación
                         log.info("No institutionId provided or empty, proceeding with update");
-                        return performUpdate(keycloakId, user);
+                        return performUpdate(keycloakId, user, existingUser);
                     }
                 })
                 .doOnError(error -> log.error("Error updating admin/director user: {}", error.getMessage()));
@@ -203,10 +224,11 @@ public class AdminUserServiceImpl implements IAdminUserService {
     /**
      * Método auxiliar para realizar la actualización en Keycloak
      */
-    private Mono<KeycloakUserDto> performUpdate(String keycloakId, User user) {
+    private Mono<KeycloakUserDto> performUpdate(String keycloakId, User user, KeycloakUserDto existingUser) {
         return keycloakService.updateUser(keycloakId, user)
                 .then(keycloakService.updateUserAttributes(keycloakId, user))
-                .then(keycloakService.getUserByKeycloakId(keycloakId));
+                .then(keycloakService.getUserByKeycloakId(keycloakId))
+                .doOnSuccess(updated -> publishChange(UserChangeEvent.Type.UPDATED, existingUser, updated));
     }
 
     @Override
@@ -218,6 +240,8 @@ public class AdminUserServiceImpl implements IAdminUserService {
                 .flatMap(user -> {
                     // Eliminar solo de Keycloak
                     return keycloakService.deleteUser(keycloakId)
+                            .doOnSuccess(result -> eventPublisher.publishEvent(
+                                    new UserChangeEvent(UserChangeEvent.Type.DELETED, keycloakId, user, null)))
                             .thenReturn("Usuario admin/director eliminado exitosamente");
                 })
                 .doOnError(error -> log.error("Error deleting admin/director user: {}", error.getMessage()));
@@ -227,8 +251,7 @@ public class AdminUserServiceImpl implements IAdminUserService {
     public Flux<KeycloakUserDto> getAllAdminUsers() {
         log.info("Getting all admin/director users");
         
-        return keycloakService.getAllUsersWithAttributes()
-                .filter(this::isAdminOrDirectorUser)
+        return queryPlanner.execute(UserQuery.anyRole(Role.ADMIN_OR_DIRECTOR_MASK))
                 .doOnError(error -> log.error("Error getting all admin/director users: {}", error.getMessage()));
     }
 
@@ -238,6 +261,7 @@ public class AdminUserServiceImpl implements IAdminUserService {
         
         return keycloakService.updateUserStatus(keycloakId, status.name())
                 .then(keycloakService.getUserByKeycloakId(keycloakId))
+                .doOnSuccess(user -> publishChange(UserChangeEvent.Type.UPDATED, null, user))
                 .doOnError(error -> log.error("Error changing admin/director user status: {}", error.getMessage()));
     }
 
@@ -245,8 +269,7 @@ public class AdminUserServiceImpl implements IAdminUserService {
     public Flux<KeycloakUserDto> getAdminUsersByStatus(UserStatus status) {
         log.info("Getting admin/director users by status: {}", status);
         
-        return keycloakService.getAllUsersWithAttributes()
-                .filter(user -> isAdminOrDirectorUser(user) && user.getStatus() == status)
+        return queryPlanner.execute(UserQuery.and(UserQuery.anyRole(Role.ADMIN_OR_DIRECTOR_MASK), UserQuery.status(status)))
                 .doOnError(error -> log.error("Error getting admin/director users by status: {}", error.getMessage()));
     }
 
@@ -260,7 +283,8 @@ public class AdminUserServiceImpl implements IAdminUserService {
                     // Activar en Keycloak (enabled = true) y actualizar status a ACTIVE
                     return keycloakService.enableUser(keycloakId)
                             .then(keycloakService.updateUserStatus(keycloakId, UserStatus.A.name()))
-                            .then(keycloakService.getUserByKeycloakId(keycloakId));
+                            .then(keycloakService.getUserByKeycloakId(keycloakId))
+                            .doOnSuccess(user -> publishChange(UserChangeEvent.Type.ACTIVATED, existingUser, user));
                 })
                 .doOnSuccess(user -> log.info("Admin/Director user activated successfully: {}", keycloakId))
                 .doOnError(error -> log.error("Error activating admin/director user: {}", error.getMessage()));
@@ -276,7 +300,8 @@ public class AdminUserServiceImpl implements IAdminUserService {
                     // Desactivar en Keycloak (enabled = false) y actualizar status a INACTIVE
                     return keycloakService.disableUser(keycloakId)
                             .then(keycloakService.updateUserStatus(keycloakId, UserStatus.I.name()))
-                            .then(keycloakService.getUserByKeycloakId(keycloakId));
+                            .then(keycloakService.getUserByKeycloakId(keycloakId))
+                            .doOnSuccess(user -> publishChange(UserChangeEvent.Type.DEACTIVATED, existingUser, user));
                 })
                 .doOnSuccess(user -> log.info("Admin/Director user deactivated successfully: {}", keycloakId))
                 .doOnError(error -> log.error("Error deactivating admin/director user: {}", error.getMessage()));
@@ -286,57 +311,52 @@ public class AdminUserServiceImpl implements IAdminUserService {
     public Flux<Map<String, Object>> getDirectorsWithStaff() {
         log.info("Getting all directors with their staff");
         
-        // Obtener todos los directores
+        // Una sola pasada por el staff (teacher, auxiliary, secretary) agrupada por institución;
+        // se comparte entre todos los directores en vez de listar el staff de cada uno
+        Mono<Map<String, Collection<KeycloakUserDto>>> staffByInstitution = queryPlanner.execute(UserQuery.anyRole(Role.STAFF_MASK))
+                .filter(user -> user.getInstitutionId() != null && !user.getInstitutionId().isEmpty())
+                .collectMultimap(KeycloakUserDto::getInstitutionId)
+                .cache();
+
         return getAllDirectors()
                 .flatMap(director -> {
                     String institutionId = director.getInstitutionId();
                     
                     if (institutionId == null || institutionId.isEmpty()) {
-                        // Si el director no tiene institución asignada, devolver solo el director sin staff
+                        // Si el director no tiene institución asignada, se emite de inmediato sin staff
                         log.warn("Director {} doesn't have an institution assigned", director.getKeycloakId());
-                        Map<String, Object> directorData = new java.util.HashMap<>();
-                        directorData.put("director", director);
-                        directorData.put("staff", java.util.Collections.emptyList());
-                        directorData.put("total_staff", 0);
-                        return Mono.just(directorData);
+                        return Mono.just(directorWithStaff(director, List.of()));
                     }
                     
-                    // Obtener el staff de este director (usuarios con la misma institutionId y roles teacher, auxiliary, secretary)
-                    return keycloakService.getAllUsersWithAttributes()
-                            .filter(user -> {
-                                // Filtrar usuarios que pertenezcan a la misma institución
-                                boolean sameInstitution = institutionId.equals(user.getInstitutionId());
-                                
-                                // Filtrar solo roles teacher, auxiliary, secretary
-                                boolean isStaff = user.getRoles() != null && user.getRoles().stream()
-                                        .anyMatch(role -> role.equalsIgnoreCase("teacher") || 
-                                                         role.equalsIgnoreCase("auxiliary") || 
-                                                         role.equalsIgnoreCase("secretary"));
-                                
-                                return sameInstitution && isStaff;
-                            })
-                            .collectList()
-                            .map(staffList -> {
-                                Map<String, Object> directorData = new java.util.HashMap<>();
-                                directorData.put("director", director);
-                                directorData.put("staff", staffList);
-                                directorData.put("total_staff", staffList.size());
-                                return directorData;
-                            });
+                    return staffByInstitution.map(staff -> directorWithStaff(director,
+                            List.copyOf(staff.getOrDefault(institutionId, List.of()))));
                 })
                 .doOnComplete(() -> log.info("Successfully retrieved all directors with their staff"))
                 .doOnError(error -> log.error("Error getting directors with staff: {}", error.getMessage()));
     }
 
+    private Map<String, Object> directorWithStaff(KeycloakUserDto director, List<KeycloakUserDto> staff) {
+        Map<String, Object> directorData = new HashMap<>();
+        directorData.put("director", director);
+        directorData.put("staff", staff);
+        directorData.put("total_staff", staff.size());
+        return directorData;
+    }
+
+    /**
+     * Publica el cambio para invalidar cachés; un Mono vacío no publica nada
+     */
+    private void publishChange(UserChangeEvent.Type type, KeycloakUserDto previous, KeycloakUserDto current) {
+        if (current != null) {
+            eventPublisher.publishEvent(new UserChangeEvent(type, current.getKeycloakId(), previous, current));
+        }
+    }
+
     /**
      * Verifica si un usuario es admin o director basándose en sus roles
      */
     private boolean isAdminOrDirectorUser(KeycloakUserDto user) {
-        if (user.getRoles() == null || user.getRoles().isEmpty()) {
-            return false;
-        }
-        return user.getRoles().stream()
-                .anyMatch(role -> role.equals("admin") || role.equals("director"));
+        return user.hasAnyRole(Role.ADMIN_OR_DIRECTOR_MASK);
     }
 
     /**
@@ -2,12 +2,17 @@ package pe.edu.vallegrande.vgmsuser.application.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import pe.edu.vallegrande.vgmsuser.application.service.IAuthService;
 import pe.edu.vallegrande.vgmsuser.application.service.IEmailService;
 import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
 import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailPriority;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.PasswordResetTokens;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
@@ -20,22 +25,26 @@ public class AuthServiceImpl implements IAuthService {
 
     private final IKeycloakService keycloakService;
     private final IEmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PasswordResetTokens resetTokens;
+    private final EmailDispatcher emailDispatcher;
 
     @Override
     public Mono<String> generatePasswordResetToken(String keycloakId) {
         log.info("Generating password reset token for keycloakId: {}", keycloakId);
         
-        String resetToken = UUID.randomUUID().toString();
-        
         return keycloakService.getUserByKeycloakId(keycloakId)
                 .switchIfEmpty(Mono.error(new RuntimeException("Usuario no encontrado")))
                 .flatMap(keycloakUser -> {
-                    // Actualizar passwordResetToken en atributos de Keycloak
-                    return keycloakService.updatePasswordResetToken(keycloakId, resetToken)
-                            .then(emailService.sendPasswordResetEmail(
-                                    keycloakUser.getEmail(), 
-                                    keycloakUser.getUsername(), 
-                                    resetToken))
+                    // Token firmado: no se guarda nada en Keycloak
+                    String resetToken = resetTokens.issue(keycloakUser);
+                    // Prioridad RESET: no espera detrás de los correos de bienvenida de una carga masiva
+                    return emailDispatcher.send(EmailPriority.RESET, keycloakUser.getInstitutionId(),
+                                    "password-reset", keycloakUser.getEmail(),
+                                    () -> emailService.sendPasswordResetEmail(
+                                            keycloakUser.getEmail(), 
+                                            keycloakUser.getUsername(), 
+                                            resetToken))
                             .thenReturn(resetToken);
                 })
                 .doOnError(error -> log.error("Error generating reset token: {}", error.getMessage()));
@@ -43,29 +52,52 @@ public class AuthServiceImpl implements IAuthService {
 
     @Override
     public Mono<String> resetPassword(String token, String newPassword) {
-        log.info("Resetting password with token: {} (length: {})", token, token != null ? token.length() : 0);
+        log.info("Resetting password with token (length: {})", token != null ? token.length() : 0);
+        
+        if (isLegacyToken(token)) {
+            return resetPasswordWithStoredToken(token, newPassword);
+        }
         
+        // Firma y expiración se validan en memoria; solo un token auténtico llega a Keycloak
+        return Mono.fromCallable(() -> resetTokens.verify(token))
+                .flatMap(claims -> keycloakService.getUserByKeycloakId(claims.keycloakId())
+                        .filter(keycloakUser -> resetTokens.isCurrent(claims, keycloakUser)))
+                .switchIfEmpty(Mono.error(new RuntimeException("Token inválido o expirado")))
+                .doOnNext(user -> log.info("Valid reset token for user: {}", user.getUsername()))
+                .flatMap(keycloakUser -> changePasswordAndNotify(keycloakUser, newPassword)
+                        .thenReturn("Contraseña cambiada exitosamente"))
+                .doOnError(error -> log.error("Error resetting password: {}", error.getMessage()));
+    }
+
+    /**
+     * Solo un UUID bien formado puede ser un token antiguo: cualquier otra entrada se valida como token
+     * firmado y no dispara el recorrido de usuarios de este endpoint público
+     */
+    private static boolean isLegacyToken(String token) {
+        if (token == null || token.length() != 36) {
+            return false;
+        }
+        try {
+            return UUID.fromString(token).toString().equalsIgnoreCase(token);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tokens UUID guardados como atributo, emitidos antes de los tokens firmados; se aceptan hasta que
+     * se usen o se cambie la contraseña.
+     * Eliminar después del 2026-12-31 (con margen sobre los 7 días de los enlaces de bienvenida), junto
+     * con isLegacyToken y el atributo passwordResetToken
+     */
+    private Mono<String> resetPasswordWithStoredToken(String token, String newPassword) {
         return keycloakService.getAllUsersWithAttributes()
                 .filter(user -> token.equals(user.getPasswordResetToken()))
                 .next()
-                .doOnNext(user -> log.info("Found user for token: {} - User: {}", token, user.getUsername()))
+                .doOnNext(user -> log.info("Found user for stored token - User: {}", user.getUsername()))
                 .switchIfEmpty(Mono.error(new RuntimeException("Token inválido o expirado")))
-                .flatMap(keycloakUser -> {
-                    // Cambiar contraseña en Keycloak
-                    return keycloakService.changePassword(keycloakUser.getKeycloakId(), newPassword)
-                            .then(Mono.defer(() -> {
-                                // Actualizar estado de contraseña en Keycloak
-                                return keycloakService.updatePasswordStatus(
-                                        keycloakUser.getKeycloakId(), 
-                                        PasswordStatus.PERMANENT.name(), 
-                                        LocalDateTime.now().toString())
-                                        .then(keycloakService.updatePasswordResetToken(keycloakUser.getKeycloakId(), null))
-                                        .then(emailService.sendPasswordChangeConfirmationEmail(
-                                                keycloakUser.getEmail(), 
-                                                keycloakUser.getUsername()))
-                                        .thenReturn("Contraseña cambiada exitosamente");
-                            }));
-                })
+                .flatMap(keycloakUser -> changePasswordAndNotify(keycloakUser, newPassword)
+                        .thenReturn("Contraseña cambiada exitosamente"))
                 .doOnError(error -> log.error("Error resetting password: {}", error.getMessage()));
     }
 
@@ -81,20 +113,8 @@ public class AuthServiceImpl implements IAuthService {
                         return Mono.error(new RuntimeException("La contraseña ya ha sido cambiada"));
                     }
                     
-                    // Cambiar contraseña en Keycloak
-                    return keycloakService.changePassword(keycloakId, newPassword)
-                            .then(Mono.defer(() -> {
-                                // Actualizar estado de contraseña en Keycloak
-                                return keycloakService.updatePasswordStatus(
-                                        keycloakId, 
-                                        PasswordStatus.PERMANENT.name(), 
-                                        LocalDateTime.now().toString())
-                                        .then(keycloakService.updatePasswordResetToken(keycloakId, null))
-                                        .then(emailService.sendPasswordChangeConfirmationEmail(
-                                                keycloakUser.getEmail(), 
-                                                keycloakUser.getUsername()))
-                                        .thenReturn("Contraseña cambiada exitosamente. Tu cuenta está ahora activa.");
-                            }));
+                    return changePasswordAndNotify(keycloakUser, newPassword)
+                            .thenReturn("Contraseña cambiada exitosamente. Tu cuenta está ahora activa.");
                 })
                 .doOnError(error -> log.error("Error forcing password change: {}", error.getMessage()));
     }
@@ -113,20 +133,20 @@ public class AuthServiceImpl implements IAuthService {
     public Mono<String> generatePasswordResetTokenByEmail(String emailOrUsername) {
         log.info("Generating password reset token for email/username: {}", emailOrUsername);
         
-        String resetToken = UUID.randomUUID().toString();
-        
         return keycloakService.getAllUsersWithAttributes()
                 .filter(user -> emailOrUsername.equalsIgnoreCase(user.getEmail()) || 
                                emailOrUsername.equalsIgnoreCase(user.getUsername()))
                 .next()
                 .doOnNext(user -> log.info("Found user for email/username: {} - User: {}", emailOrUsername, user.getUsername()))
                 .flatMap(keycloakUser -> {
-                    // Actualizar passwordResetToken en atributos de Keycloak
-                    return keycloakService.updatePasswordResetToken(keycloakUser.getKeycloakId(), resetToken)
-                            .then(emailService.sendPasswordResetEmail(
-                                    keycloakUser.getEmail(), 
-                                    keycloakUser.getUsername(), 
-                                    resetToken))
+                    String resetToken = resetTokens.issue(keycloakUser);
+                    // Prioridad RESET: no espera detrás de los correos de bienvenida de una carga masiva
+                    return emailDispatcher.send(EmailPriority.RESET, keycloakUser.getInstitutionId(),
+                                    "password-reset", keycloakUser.getEmail(),
+                                    () -> emailService.sendPasswordResetEmail(
+                                            keycloakUser.getEmail(), 
+                                            keycloakUser.getUsername(), 
+                                            resetToken))
                             .thenReturn(resetToken);
                 })
                 .switchIfEmpty(Mono.defer(() -> {
@@ -136,4 +156,38 @@ public class AuthServiceImpl implements IAuthService {
                 }))
                 .doOnError(error -> log.error("Error generating reset token by email: {}", error.getMessage()));
     }
+
+    /**
+     * Cambia la contraseña y la marca como permanente; el nuevo passwordCreatedAt invalida los tokens
+     * firmados emitidos antes. El atributo de token heredado se limpia solo si existe.
+     * La confirmación por correo se encola: la respuesta no espera al SMTP y un fallo de envío no
+     * afecta al cambio ya hecho
+     */
+    private Mono<Void> changePasswordAndNotify(KeycloakUserDto keycloakUser, String newPassword) {
+        String keycloakId = keycloakUser.getKeycloakId();
+        return keycloakService.changePassword(keycloakId, newPassword)
+                .then(Mono.defer(() -> keycloakService.updatePasswordStatus(
+                        keycloakId, 
+                        PasswordStatus.PERMANENT.name(), 
+                        LocalDateTime.now().toString())))
+                .then(Mono.defer(() -> keycloakUser.getPasswordResetToken() != null
+                        ? keycloakService.updatePasswordResetToken(keycloakId, null)
+                        : Mono.<Void>empty()))
+                .doOnSuccess(v -> {
+                    publishPasswordChange(keycloakUser);
+                    emailDispatcher.dispatch(EmailPriority.CONFIRMATION, keycloakUser.getInstitutionId(),
+                            "password-change-confirmation", keycloakUser.getEmail(),
+                            () -> emailService.sendPasswordChangeConfirmationEmail(
+                                    keycloakUser.getEmail(), 
+                                    keycloakUser.getUsername()));
+                });
+    }
+
+    /**
+     * El estado de contraseña y el token de reseteo forman parte del usuario expuesto en listados y perfil
+     */
+    private void publishPasswordChange(KeycloakUserDto keycloakUser) {
+        eventPublisher.publishEvent(new UserChangeEvent(
+                UserChangeEvent.Type.PASSWORD_CHANGED, keycloakUser.getKeycloakId(), keycloakUser, null));
+    }
 }
@@ -9,6 +9,8 @@ import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 import pe.edu.vallegrande.vgmsuser.application.service.IEmailService;
+import pe.edu.vallegrande.vgmsuser.infraestructure.jfr.EmailRenderEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.jfr.EmailSendEvent;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
@@ -17,6 +19,8 @@ import jakarta.mail.internet.MimeMessage;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+import static pe.edu.vallegrande.vgmsuser.infraestructure.trace.DownstreamTracing.traced;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -36,7 +40,7 @@ public class EmailServiceImpl implements IEmailService {
 
     @Override
     public Mono<Void> sendTemporaryCredentialsEmail(String toEmail, String username, String temporaryPassword, String resetToken) {
-        return Mono.fromRunnable(() -> {
+        return traced("email.sendTemporaryCredentialsEmail", Mono.fromRunnable(() -> {
             try {
                 MimeMessage mimeMessage = mailSender.createMimeMessage();
                 MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
@@ -55,22 +59,22 @@ public class EmailServiceImpl implements IEmailService {
                 context.setVariable("loginUrl", frontendUrl + "/login");
                 
                 // Procesar la plantilla
-                String htmlContent = templateEngine.process("email/temporary-credentials", context);
+                String htmlContent = render("email/temporary-credentials", context);
                 helper.setText(htmlContent, true);
                 
-                mailSender.send(mimeMessage);
+                send(mimeMessage, "email/temporary-credentials");
                 log.info("Email de credenciales temporales enviado a: {}", toEmail);
                 
             } catch (MessagingException | RuntimeException e) {
                 log.error("Error enviando email a {}: {}", toEmail, e.getMessage());
                 throw new RuntimeException("Error enviando email: " + e.getMessage());
             }
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(Schedulers.boundedElastic()).then());
     }
 
     @Override
     public Mono<Void> sendPasswordChangeConfirmationEmail(String toEmail, String username) {
-        return Mono.fromRunnable(() -> {
+        return traced("email.sendPasswordChangeConfirmationEmail", Mono.fromRunnable(() -> {
             try {
                 MimeMessage mimeMessage = mailSender.createMimeMessage();
                 MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
@@ -86,22 +90,22 @@ public class EmailServiceImpl implements IEmailService {
                 context.setVariable("loginUrl", frontendUrl + "/login");
                 
                 // Procesar la plantilla
-                String htmlContent = templateEngine.process("email/password-change-confirmation", context);
+                String htmlContent = render("email/password-change-confirmation", context);
                 helper.setText(htmlContent, true);
                 
-                mailSender.send(mimeMessage);
+                send(mimeMessage, "email/password-change-confirmation");
                 log.info("Email de confirmación de cambio de contraseña enviado a: {}", toEmail);
                 
             } catch (MessagingException | RuntimeException e) {
                 log.error("Error enviando email de confirmación a {}: {}", toEmail, e.getMessage());
                 throw new RuntimeException("Error enviando email: " + e.getMessage());
             }
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(Schedulers.boundedElastic()).then());
     }
 
     @Override
     public Mono<Void> sendPasswordResetEmail(String toEmail, String username, String resetToken) {
-        return Mono.fromRunnable(() -> {
+        return traced("email.sendPasswordResetEmail", Mono.fromRunnable(() -> {
             try {
                 MimeMessage mimeMessage = mailSender.createMimeMessage();
                 MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
@@ -119,16 +123,52 @@ public class EmailServiceImpl implements IEmailService {
                 context.setVariable("resetUrl", resetUrl);
                 
                 // Procesar la plantilla
-                String htmlContent = templateEngine.process("email/password-reset", context);
+                String htmlContent = render("email/password-reset", context);
                 helper.setText(htmlContent, true);
                 
-                mailSender.send(mimeMessage);
+                send(mimeMessage, "email/password-reset");
                 log.info("Email de restablecimiento de contraseña enviado a: {}", toEmail);
                 
             } catch (MessagingException | RuntimeException e) {
                 log.error("Error enviando email de restablecimiento a {}: {}", toEmail, e.getMessage());
                 throw new RuntimeException("Error enviando email: " + e.getMessage());
             }
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(Schedulers.boundedElastic()).then());
+    }
+
+    /**
+     * Procesa la plantilla registrando el evento JFR de renderizado (solo si está habilitado)
+     */
+    private String render(String template, Context context) {
+        if (!EmailRenderEvent.TYPE.isEnabled()) {
+            return templateEngine.process(template, context);
+        }
+        EmailRenderEvent event = new EmailRenderEvent(template);
+        event.begin();
+        String htmlContent = templateEngine.process(template, context);
+        event.end();
+        if (event.shouldCommit()) {
+            event.setHtmlLength(htmlContent != null ? htmlContent.length() : 0);
+            event.commit();
+        }
+        return htmlContent;
+    }
+
+    /**
+     * Envía el mensaje por SMTP registrando el evento JFR de envío (solo si está habilitado)
+     */
+    private void send(MimeMessage mimeMessage, String template) {
+        if (!EmailSendEvent.TYPE.isEnabled()) {
+            mailSender.send(mimeMessage);
+            return;
+        }
+        EmailSendEvent event = new EmailSendEvent(template);
+        event.begin();
+        try {
+            mailSender.send(mimeMessage);
+            event.setSuccess(true);
+        } finally {
+            event.commit();
+        }
     }
 }
@@ -14,9 +14,11 @@ import org.keycloak.representations.idm.CredentialRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
 import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
 import pe.edu.vallegrande.vgmsuser.domain.model.User;
@@ -24,6 +26,7 @@ import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.DocumentType;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.infraestructure.jfr.KeycloakCallEvent;
 import pe.edu.vallegrande.vgmsuser.infraestructure.util.KeycloakProvider;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -35,12 +38,20 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static pe.edu.vallegrande.vgmsuser.infraestructure.trace.DownstreamTracing.traced;
+
 @Slf4j
 @Service
 public class KeycloakServiceImpl implements IKeycloakService {
 
     private final KeycloakProvider keycloakProvider;
 
+    /**
+     * Tamaño de página de las búsquedas por atributo y por rol (Keycloak devuelve 100 si no se indica max)
+     */
+    @Value("${app.keycloak.search-page-size:100}")
+    private int searchPageSize = 100;
+
     @Autowired
     public KeycloakServiceImpl(KeycloakProvider keycloakProvider) {
         this.keycloakProvider = keycloakProvider;
@@ -48,26 +59,23 @@ public class KeycloakServiceImpl implements IKeycloakService {
 
     @Override
     public Mono<List<UserRepresentation>> findAllUsers() {
-        return Mono.fromCallable(() -> keycloakProvider.getRealmResource().users().list())
-                .subscribeOn(Schedulers.boundedElastic());
+        return traced("keycloak.findAllUsers", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(null), Mono.fromCallable(() -> keycloakProvider.getRealmResource().users().list())
+                .subscribeOn(Schedulers.boundedElastic()));
     }
 
     @Override
     public Mono<List<UserRepresentation>> searchUserByUsername(String username) {
-        return Mono.fromCallable(() -> keycloakProvider.getRealmResource().users().searchByUsername(username, true))
-                .subscribeOn(Schedulers.boundedElastic());
+        return traced("keycloak.searchUserByUsername", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(username), Mono.fromCallable(() -> keycloakProvider.getRealmResource().users().searchByUsername(username, true))
+                .subscribeOn(Schedulers.boundedElastic()));
     }
 
     @Override
     public Mono<String> createUser(User userDTO) {
-        return Mono.fromCallable(() -> {
+        return traced("keycloak.createUser", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(userDTO.getUsername()), Mono.fromCallable(() -> {
             UsersResource usersResource = keycloakProvider.getUserResource();
 
-            // Check if the user already exists
-            List<UserRepresentation> existingUsers = usersResource.searchByUsername(userDTO.getUsername(), true);
-            if (!existingUsers.isEmpty()) {
-                return "El usuario ya existe: " + userDTO.getUsername();
-            }
+            // Sin búsqueda previa: los duplicados se rechazan en UserUniquenessIndex y, si se cuela alguno,
+            // Keycloak responde 409 por username o email
 
             // Create user representation
             UserRepresentation userRepresentation = new UserRepresentation();
@@ -161,22 +169,22 @@ public class KeycloakServiceImpl implements IKeycloakService {
                         (errorMessage.isEmpty() ? "" : " - " + errorMessage);
             }
 
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(Schedulers.boundedElastic()));
     }
 
     // eliminado físico por ahora puse eso
     @Override
     public Mono<String> deleteUser(String userId) {
-        return Mono.fromCallable(() -> {
+        return traced("keycloak.deleteUser", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(userId), Mono.fromCallable(() -> {
             keycloakProvider.getUserResource().get(userId).remove();
             return "Usuario eliminado exitosamente";
         })
-        .subscribeOn(Schedulers.boundedElastic());
+        .subscribeOn(Schedulers.boundedElastic()));
     }
 
     @Override
     public Mono<Void> updateUser(String userId, User userDTO) {
-        return Mono.fromRunnable(() -> {
+        return traced("keycloak.updateUser", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(userId), Mono.fromRunnable(() -> {
             UserRepresentation userRepresentation = new UserRepresentation();
             userRepresentation.setFirstName(userDTO.getFirstname());
             userRepresentation.setLastName(userDTO.getLastname());
@@ -222,14 +230,14 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 }
             }
 
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(Schedulers.boundedElastic()).then());
     }
 
     @Override
     public Mono<Void> changePassword(String keycloakId, String newPassword) {
         log.info("Changing password for user with keycloakId: {}", keycloakId);
         
-        return Mono.fromRunnable(() -> {
+        return traced("keycloak.changePassword", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(keycloakId), Mono.fromRunnable(() -> {
             try {
                 UserResource userResource = keycloakProvider.getUserResource().get(keycloakId);
 
@@ -248,14 +256,14 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error changing password for keycloakId {}: {}", keycloakId, e.getMessage());
                 throw new RuntimeException("Error changing password: " + e.getMessage());
             }
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(Schedulers.boundedElastic()).then());
     }
 
     @Override
     public Mono<Void> enableUser(String keycloakId) {
         log.info("Enabling user with keycloakId: {}", keycloakId);
         
-        return Mono.fromRunnable(() -> {
+        return traced("keycloak.enableUser", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(keycloakId), Mono.fromRunnable(() -> {
             try {
                 // Obtener el usuario usando el provider
                 UserResource userResource = keycloakProvider.getUserResource().get(keycloakId);
@@ -273,14 +281,14 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error enabling user with keycloakId {}: {}", keycloakId, e.getMessage());
                 throw new RuntimeException("Error enabling user in Keycloak: " + e.getMessage());
             }
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(Schedulers.boundedElastic()).then());
     }
 
     @Override
     public Mono<Void> disableUser(String keycloakId) {
         log.info("Disabling user with keycloakId: {}", keycloakId);
         
-        return Mono.fromRunnable(() -> {
+        return traced("keycloak.disableUser", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(keycloakId), Mono.fromRunnable(() -> {
             try {
                 // Obtener el usuario usando el provider
                 UserResource userResource = keycloakProvider.getUserResource().get(keycloakId);
@@ -298,14 +306,14 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error disabling user with keycloakId {}: {}", keycloakId, e.getMessage());
                 throw new RuntimeException("Error disabling user in Keycloak: " + e.getMessage());
             }
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(Schedulers.boundedElastic()).then());
     }
 
     @Override
     public Mono<KeycloakUserDto> getUserByKeycloakId(String keycloakId) {
         log.info("Getting user by keycloakId: {}", keycloakId);
         
-        return Mono.fromCallable(() -> {
+        return traced("keycloak.getUserByKeycloakId", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(keycloakId), Mono.fromCallable(() -> {
             try {
                 UserResource userResource = keycloakProvider.getUserResource().get(keycloakId);
                 UserRepresentation userRep = userResource.toRepresentation();
@@ -316,14 +324,14 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error getting user with keycloakId {}: {}", keycloakId, e.getMessage());
                 throw new RuntimeException("Error getting user from Keycloak: " + e.getMessage());
             }
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(Schedulers.boundedElastic()));
     }
 
     @Override
     public Flux<KeycloakUserDto> getAllUsersWithAttributes() {
         log.info("Getting all users with attributes from Keycloak");
         
-        return Mono.fromCallable(() -> {
+        return traced("keycloak.getAllUsersWithAttributes", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(null), Mono.fromCallable(() -> {
             // Obtener lista de usuarios
             List<UserRepresentation> users = keycloakProvider.getUserResource().list();
             
@@ -343,14 +351,68 @@ public class KeycloakServiceImpl implements IKeycloakService {
         })
         .flatMapMany(Flux::fromIterable)
         .map(this::mapToKeycloakUserDto)
-        .subscribeOn(Schedulers.boundedElastic());
+        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    @Override
+    public Flux<KeycloakUserDto> searchUsersByAttribute(String attribute, String value) {
+        log.info("Searching users by attribute {}={}", attribute, value);
+
+        String query = attribute + ":" + (value.chars().anyMatch(Character::isWhitespace) ? "\"" + value + "\"" : value);
+        int pageSize = Math.max(1, searchPageSize);
+
+        // briefRepresentation = false ya trae los atributos: solo se piden los roles de cada coincidencia
+        return traced("keycloak.searchUsersByAttribute", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(null), searchPage(query, 0, pageSize)
+                .expand(page -> page.users().size() < pageSize ? Mono.empty() : searchPage(query, page.first() + pageSize, pageSize))
+                .flatMapIterable(UserPage::users)
+                .map(this::mapToKeycloakUserDto)
+                .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private Mono<UserPage> searchPage(String query, int first, int pageSize) {
+        return Mono.fromCallable(() -> new UserPage(first,
+                keycloakProvider.getUserResource().searchByAttributes(first, pageSize, null, false, query)));
+    }
+
+    @Override
+    public Flux<KeycloakUserDto> getUsersByRole(String roleName) {
+        log.info("Getting members of realm role: {}", roleName);
+
+        int pageSize = Math.max(1, searchPageSize);
+
+        // Los miembros llegan en representación breve (sin atributos): se recarga cada uno, como en getAllUsersWithAttributes
+        return traced("keycloak.getUsersByRole", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(null), memberPage(roleName, 0, pageSize)
+                .expand(page -> page.users().size() < pageSize ? Mono.empty() : memberPage(roleName, page.first() + pageSize, pageSize))
+                .flatMapIterable(UserPage::users)
+                .map(member -> {
+                    try {
+                        return keycloakProvider.getUserResource().get(member.getId()).toRepresentation();
+                    } catch (Exception e) {
+                        log.warn("Error reloading user {}: {}", member.getUsername(), e.getMessage());
+                        return member;
+                    }
+                })
+                .map(this::mapToKeycloakUserDto)
+                .onErrorResume(NotFoundException.class, e -> {
+                    log.warn("Realm role {} not found", roleName);
+                    return Flux.empty();
+                })
+                .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private Mono<UserPage> memberPage(String roleName, int first, int pageSize) {
+        return Mono.fromCallable(() -> new UserPage(first,
+                keycloakProvider.getRealmResource().roles().get(roleName).getUserMembers(first, pageSize)));
+    }
+
+    private record UserPage(int first, List<UserRepresentation> users) {
     }
 
     @Override
     public Mono<Void> updateUserAttributes(String keycloakId, User user) {
         log.info("Updating user attributes for keycloakId: {}", keycloakId);
         
-        return Mono.fromRunnable(() -> {
+        return traced("keycloak.updateUserAttributes", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(keycloakId), Mono.fromRunnable(() -> {
             try {
                 UserResource userResource = keycloakProvider.getUserResource().get(keycloakId);
                 UserRepresentation userRep = userResource.toRepresentation();
@@ -421,15 +483,13 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error updating user attributes for keycloakId {}: {}", keycloakId, e.getMessage());
                 throw new RuntimeException("Error updating user attributes in Keycloak: " + e.getMessage());
             }
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(Schedulers.boundedElastic()).then());
     }
 
     /**
      * Mapea un UserRepresentation de Keycloak a KeycloakUserDto
      */
     private KeycloakUserDto mapToKeycloakUserDto(UserRepresentation userRep) {
-        Map<String, java.util.List<String>> attributes = userRep.getAttributes();
-        
         // Obtener roles del usuario
         Set<String> roles = null;
         try {
@@ -442,6 +502,15 @@ public class KeycloakServiceImpl implements IKeycloakService {
             log.warn("Could not fetch roles for user {}: {}", userRep.getId(), e.getMessage());
         }
         
+        return toKeycloakUserDto(userRep, roles);
+    }
+
+    /**
+     * Conversión pura (sin llamadas a Keycloak) de la representación y sus roles ya resueltos
+     */
+    static KeycloakUserDto toKeycloakUserDto(UserRepresentation userRep, Set<String> roles) {
+        Map<String, java.util.List<String>> attributes = userRep.getAttributes();
+
         return KeycloakUserDto.builder()
                 .keycloakId(userRep.getId())
                 .username(userRep.getUsername())
@@ -465,7 +534,7 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 .build();
     }
 
-    private String getStringAttribute(Map<String, java.util.List<String>> attributes, String key) {
+    private static String getStringAttribute(Map<String, java.util.List<String>> attributes, String key) {
         if (attributes == null || !attributes.containsKey(key)) {
             return null;
         }
@@ -478,7 +547,7 @@ public class KeycloakServiceImpl implements IKeycloakService {
         return (value != null && !value.isEmpty()) ? value : null;
     }
 
-    private <E extends Enum<E>> E getEnumAttribute(Map<String, java.util.List<String>> attributes, String key, Class<E> enumClass) {
+    private static <E extends Enum<E>> E getEnumAttribute(Map<String, java.util.List<String>> attributes, String key, Class<E> enumClass) {
         String value = getStringAttribute(attributes, key);
         if (value == null || value.isEmpty()) {
             return null;
@@ -491,7 +560,7 @@ public class KeycloakServiceImpl implements IKeycloakService {
         }
     }
 
-    private LocalDateTime getDateTimeAttribute(Map<String, java.util.List<String>> attributes, String key) {
+    private static LocalDateTime getDateTimeAttribute(Map<String, java.util.List<String>> attributes, String key) {
         String value = getStringAttribute(attributes, key);
         if (value == null || value.isEmpty()) {
             return null;
@@ -506,7 +575,7 @@ public class KeycloakServiceImpl implements IKeycloakService {
 
     @Override
     public Mono<Void> updatePasswordResetToken(String keycloakId, String resetToken) {
-        return Mono.fromRunnable(() -> {
+        return traced("keycloak.updatePasswordResetToken", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(keycloakId), Mono.fromRunnable(() -> {
             try {
                 UserResource userResource = keycloakProvider.getUserResource()
                         .get(keycloakId);
@@ -533,12 +602,12 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error updating password reset token: {}", e.getMessage());
                 throw new RuntimeException("Error al actualizar token de reseteo: " + e.getMessage());
             }
-        });
+        }));
     }
 
     @Override
     public Mono<Void> updatePasswordStatus(String keycloakId, String passwordStatus, String passwordCreatedAt) {
-        return Mono.fromRunnable(() -> {
+        return traced("keycloak.updatePasswordStatus", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(keycloakId), Mono.fromRunnable(() -> {
             try {
                 UserResource userResource = keycloakProvider.getUserResource()
                         .get(keycloakId);
@@ -568,12 +637,12 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error updating password status: {}", e.getMessage());
                 throw new RuntimeException("Error al actualizar estado de contraseña: " + e.getMessage());
             }
-        });
+        }));
     }
 
     @Override
     public Mono<Void> updateUserStatus(String keycloakId, String status) {
-        return Mono.fromRunnable(() -> {
+        return traced("keycloak.updateUserStatus", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(keycloakId), Mono.fromRunnable(() -> {
             try {
                 UserResource userResource = keycloakProvider.getUserResource()
                         .get(keycloakId);
@@ -598,12 +667,12 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error updating user status: {}", e.getMessage());
                 throw new RuntimeException("Error al actualizar estado de usuario: " + e.getMessage());
             }
-        });
+        }));
     }
 
     @Override
     public Mono<KeycloakUserDto> getUserByUsername(String username) {
-        return Mono.fromCallable(() -> {
+        return traced("keycloak.getUserByUsername", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(username), Mono.fromCallable(() -> {
             try {
                 java.util.List<UserRepresentation> users = keycloakProvider.getUserResource()
                         .search(username, true); // Búsqueda exacta
@@ -619,12 +688,12 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error getting user by username {}: {}", username, e.getMessage());
                 throw new RuntimeException("Error al obtener usuario por username: " + e.getMessage());
             }
-        });
+        }));
     }
 
     @Override
     public Mono<KeycloakUserDto> getUserByEmail(String email) {
-        return Mono.fromCallable(() -> {
+        return traced("keycloak.getUserByEmail", KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent(null), Mono.fromCallable(() -> {
             try {
                 log.info("Searching user by email: {}", email);
                 
@@ -645,7 +714,7 @@ public class KeycloakServiceImpl implements IKeycloakService {
                 log.error("Error getting user by email {}: {}", email, e.getMessage());
                 throw new RuntimeException("Error al obtener usuario por email: " + e.getMessage());
             }
-        });
+        }));
     }
 
 }
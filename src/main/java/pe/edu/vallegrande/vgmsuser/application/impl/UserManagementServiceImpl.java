@@ -4,21 +4,31 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.keycloak.admin.client.resource.UserResource;
 import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQuery;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQueryPlanner;
 import pe.edu.vallegrande.vgmsuser.application.service.IEmailService;
 import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
 import pe.edu.vallegrande.vgmsuser.application.service.IUserManagementService;
 import pe.edu.vallegrande.vgmsuser.domain.model.User;
 import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.UserAvailability;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailPriority;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.PasswordResetTokens;
+import pe.edu.vallegrande.vgmsuser.infraestructure.uniqueness.UserUniquenessIndex;
 import pe.edu.vallegrande.vgmsuser.infraestructure.util.KeycloakProvider;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -30,6 +40,11 @@ public class UserManagementServiceImpl implements IUserManagementService {
     private final IKeycloakService keycloakService;
     private final IEmailService emailService;
     private final KeycloakProvider keycloakProvider;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserQueryPlanner queryPlanner;
+    private final UserUniquenessIndex uniquenessIndex;
+    private final PasswordResetTokens resetTokens;
+    private final EmailDispatcher emailDispatcher;
 
     @Override
     public Mono<KeycloakUserDto> createCompleteUser(User user) {
@@ -59,51 +74,56 @@ public class UserManagementServiceImpl implements IUserManagementService {
         user.setPassword(temporaryPassword);
         log.info("Setting temporary password for user: {}", user.getUsername());
         
-        return keycloakService.createUser(user)
-                .flatMap(keycloakResponse -> {
-                    log.info("Keycloak response received: {}", keycloakResponse);
+        // Username, email y DNI quedan reservados hasta que el alta se publique (o falle)
+        // Sin lugar para el correo de credenciales no se crea: el usuario quedaría sin poder entrar
+        return Mono.defer(() -> {
+            EmailDispatcher.Slot credentialsEmail = emailDispatcher.reserve(EmailPriority.BULK);
+            if (credentialsEmail == null) {
+                return Mono.error(new RuntimeException("Cola de correos llena: no se creó el usuario, intente nuevamente en unos minutos"));
+            }
+            return uniquenessIndex.createReserving(user, () -> keycloakService.createUser(user)
+                    .flatMap(keycloakResponse -> {
+                        log.info("Keycloak response received: {}", keycloakResponse);
                     
-                    // Extraer el ID de Keycloak de la respuesta
-                    String keycloakId = extractKeycloakIdFromResponse(keycloakResponse);
-                    log.info("Extracted Keycloak ID: {}", keycloakId);
+                        // Extraer el ID de Keycloak de la respuesta
+                        String keycloakId = extractKeycloakIdFromResponse(keycloakResponse);
+                        log.info("Extracted Keycloak ID: {}", keycloakId);
                     
-                    if (keycloakId != null && !keycloakResponse.contains("Error")) {
-                        // Generar token de reseteo y guardarlo en atributos de Keycloak
-                        String resetToken = java.util.UUID.randomUUID().toString();
-                        log.info("Generated reset token for user: {} - Token: {}", user.getUsername(), resetToken);
-                        
-                        // Actualizar el atributo passwordResetToken en Keycloak
-                        return keycloakService.getUserByKeycloakId(keycloakId)
-                                .flatMap(keycloakUser -> {
-                                    // Actualizar atributos incluyendo el reset token
-                                    return keycloakService.updatePasswordResetToken(keycloakId, resetToken)
-                                            .then(Mono.defer(() -> {
-                                                // Enviar correo con credenciales temporales
-                                                log.info("Preparing to send temporary credentials email to: {}", user.getEmail());
-                                                String fullName = buildFullName(user.getFirstname(), user.getLastname());
-                                                
-                                                // Enviar email en background - no bloquea la creación si falla
-                                                emailService.sendTemporaryCredentialsEmail(
+                        if (keycloakId != null && !keycloakResponse.contains("Error")) {
+                            // Token de reseteo firmado para el correo de bienvenida (no se guarda en Keycloak)
+                            return keycloakService.getUserByKeycloakId(keycloakId)
+                                    .map(keycloakUser -> {
+                                        String resetToken = resetTokens.issueForNewUser(keycloakUser);
+                                    
+                                        // Enviar correo con credenciales temporales
+                                        log.info("Preparing to send temporary credentials email to: {}", user.getEmail());
+                                        String fullName = buildFullName(user.getFirstname(), user.getLastname());
+                                    
+                                        // Enviar email en background - no bloquea la creación si falla
+                                        credentialsEmail.dispatch(user.getInstitutionId(),
+                                                "temporary-credentials", user.getEmail(),
+                                                () -> emailService.sendTemporaryCredentialsEmail(
                                                         user.getEmail(),
                                                         fullName,
                                                         temporaryPassword,
                                                         resetToken
-                                                )
-                                                .doOnSuccess(emailResult -> log.info("Email enviado exitosamente a: {}", user.getEmail()))
-                                                .doOnError(emailError -> log.error("Error enviando email (no crítico): {}", emailError.getMessage()))
-                                                .onErrorResume(error -> Mono.empty()) // Ignorar error de email
-                                                .subscribe(); // Ejecutar en background
-                                                
-                                                // Retornar el usuario creado
-                                                return keycloakService.getUserByKeycloakId(keycloakId);
-                                            }));
-                                });
-                    } else {
-                        log.error("Failed to extract Keycloak ID or error in response: {}", keycloakResponse);
-                        return Mono.error(new RuntimeException("Error creating user in Keycloak: " + keycloakResponse));
-                    }
-                })
-                .doOnSuccess(result -> log.info("Complete user creation finished"))
+                                                ));
+                                    
+                                        // Retornar el usuario creado
+                                        return keycloakUser;
+                                    });
+                        } else {
+                            log.error("Failed to extract Keycloak ID or error in response: {}", keycloakResponse);
+                            return Mono.error(new RuntimeException("Error creating user in Keycloak: " + keycloakResponse));
+                        }
+                    })
+                    .doOnSuccess(result -> {
+                        log.info("Complete user creation finished");
+                        publishChange(UserChangeEvent.Type.CREATED, result);
+                    }))
+                    // Si el alta falló el lugar reservado vuelve a la cola
+                    .doFinally(signal -> credentialsEmail.release());
+        })
                 .doOnError(error -> log.error("Error creating complete user: {}", error.getMessage()));
     }
     
@@ -111,9 +131,7 @@ public class UserManagementServiceImpl implements IUserManagementService {
     public Flux<KeycloakUserDto> getStaffByInstitution(String institutionId) {
         log.info("Getting staff for institution: {}", institutionId);
         
-        return keycloakService.getAllUsersWithAttributes()
-                .filter(user -> institutionId.equals(user.getInstitutionId()))
-                .filter(this::isStaffUser)
+        return queryPlanner.execute(UserQuery.and(UserQuery.institution(institutionId), UserQuery.anyRole(Role.STAFF_MASK)))
                 .doOnError(error -> log.error("Error getting staff by institution: {}", error.getMessage()));
     }
     
@@ -121,23 +139,10 @@ public class UserManagementServiceImpl implements IUserManagementService {
     public Flux<KeycloakUserDto> getStaffByInstitutionAndRole(String institutionId, String role) {
         log.info("Getting staff by role: {} for institution: {}", role, institutionId);
         
-        return keycloakService.getAllUsersWithAttributes()
-                .filter(user -> institutionId.equals(user.getInstitutionId()))
-                .filter(user -> user.getRoles() != null && user.getRoles().contains(role.toLowerCase()))
+        return queryPlanner.execute(UserQuery.and(UserQuery.institution(institutionId), UserQuery.role(role)))
                 .doOnError(error -> log.error("Error getting staff by institution and role: {}", error.getMessage()));
     }
     
-    /**
-     * Verifica si un usuario es staff (teacher, auxiliary, secretary)
-     */
-    private boolean isStaffUser(KeycloakUserDto user) {
-        if (user.getRoles() == null || user.getRoles().isEmpty()) {
-            return false;
-        }
-        return user.getRoles().stream()
-                .anyMatch(role -> role.equals("teacher") || role.equals("auxiliary") || role.equals("secretary"));
-    }
-    
     /**
      * Actualiza el token de reseteo de contraseña en los atributos de Keycloak
      */
@@ -201,7 +206,10 @@ public class UserManagementServiceImpl implements IUserManagementService {
         // Actualizar directamente en Keycloak (atributos + datos básicos)
         return keycloakService.updateUserAttributes(keycloakId, user)
                 .then(keycloakService.getUserByKeycloakId(keycloakId))
-                .doOnSuccess(result -> log.info("Complete user update finished"))
+                .doOnSuccess(result -> {
+                    log.info("Complete user update finished");
+                    publishChange(UserChangeEvent.Type.UPDATED, result);
+                })
                 .doOnError(error -> log.error("Error updating complete user: {}", error.getMessage()));
     }
 
@@ -209,9 +217,17 @@ public class UserManagementServiceImpl implements IUserManagementService {
     public Mono<String> deleteCompleteUser(String keycloakId) {
         log.info("Deleting complete user with keycloakId: {}", keycloakId);
         
-    // Eliminar solo de Keycloak
-        return keycloakService.deleteUser(keycloakId)
-                .doOnSuccess(result -> log.info("Complete user deletion finished: {}", result))
+        // Leer el estado previo (institución, roles) para el evento; si falla se publica sin él
+        return keycloakService.getUserByKeycloakId(keycloakId)
+                .map(Optional::of)
+                .onErrorResume(error -> Mono.empty())
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(previous -> keycloakService.deleteUser(keycloakId)
+                        .doOnSuccess(result -> {
+                            log.info("Complete user deletion finished: {}", result);
+                            eventPublisher.publishEvent(new UserChangeEvent(
+                                    UserChangeEvent.Type.DELETED, keycloakId, previous.orElse(null), null));
+                        }))
                 .doOnError(error -> log.error("Error deleting complete user: {}", error.getMessage()));
     }
 
@@ -226,14 +242,43 @@ public class UserManagementServiceImpl implements IUserManagementService {
         log.info("Changing user status to {} for keycloakId: {}", status, keycloakId);
         
         return keycloakService.updateUserStatus(keycloakId, status.name())
-                .then(keycloakService.getUserByKeycloakId(keycloakId));
+                .then(keycloakService.getUserByKeycloakId(keycloakId))
+                .doOnSuccess(user -> publishChange(UserChangeEvent.Type.UPDATED, user));
     }
 
     @Override
     public Flux<KeycloakUserDto> getUsersByStatus(UserStatus status) {
         log.debug("Getting users by status: {} from Keycloak", status);
-        return keycloakService.getAllUsersWithAttributes()
-                .filter(user -> user.getStatus() == status);
+        return queryPlanner.execute(UserQuery.status(status));
+    }
+
+    @Override
+    public Mono<UserAvailability> checkAvailability(String username, String email) {
+        String requestedUsername = username == null || username.isBlank() ? null : username.trim();
+        String requestedEmail = email == null || email.isBlank() ? null : email.trim();
+
+        if (uniquenessIndex.isLoaded()) {
+            // Respuesta local: no llega ninguna consulta a Keycloak mientras se escribe
+            return Mono.just(new UserAvailability(
+                    requestedUsername, requestedUsername == null ? null : !uniquenessIndex.isUsernameTaken(requestedUsername),
+                    requestedEmail, requestedEmail == null ? null : !uniquenessIndex.isEmailTaken(requestedEmail),
+                    false));
+        }
+
+        // Hasta la primera carga del índice se consulta Keycloak con búsqueda exacta
+        log.debug("Uniqueness index not loaded, checking availability in Keycloak");
+        return Mono.fromCallable(() -> {
+            try {
+                Boolean usernameAvailable = requestedUsername == null ? null
+                        : keycloakProvider.getUserResource().search(requestedUsername, true).isEmpty();
+                Boolean emailAvailable = requestedEmail == null ? null
+                        : keycloakProvider.getUserResource().searchByEmail(requestedEmail, true).isEmpty();
+                return new UserAvailability(requestedUsername, usernameAvailable, requestedEmail, emailAvailable, true);
+            } catch (Exception e) {
+                log.error("Error checking availability: {}", e.getMessage());
+                throw new RuntimeException("Error al verificar disponibilidad: " + e.getMessage());
+            }
+        }).subscribeOn(reactor.core.scheduler.Schedulers.boundedElastic());
     }
 
     @Override
@@ -243,7 +288,10 @@ public class UserManagementServiceImpl implements IUserManagementService {
         return keycloakService.enableUser(keycloakId)
                 .then(keycloakService.updateUserStatus(keycloakId, UserStatus.A.name()))
                 .then(keycloakService.getUserByKeycloakId(keycloakId))
-                .doOnSuccess(user -> log.info("User activated successfully: {}", keycloakId))
+                .doOnSuccess(user -> {
+                    log.info("User activated successfully: {}", keycloakId);
+                    publishChange(UserChangeEvent.Type.ACTIVATED, user);
+                })
                 .doOnError(error -> log.error("Error activating user: {}", error.getMessage()));
     }
 
@@ -254,10 +302,22 @@ public class UserManagementServiceImpl implements IUserManagementService {
         return keycloakService.disableUser(keycloakId)
                 .then(keycloakService.updateUserStatus(keycloakId, UserStatus.I.name()))
                 .then(keycloakService.getUserByKeycloakId(keycloakId))
-                .doOnSuccess(user -> log.info("User deactivated successfully: {}", keycloakId))
+                .doOnSuccess(user -> {
+                    log.info("User deactivated successfully: {}", keycloakId);
+                    publishChange(UserChangeEvent.Type.DEACTIVATED, user);
+                })
                 .doOnError(error -> log.error("Error deactivating user: {}", error.getMessage()));
     }
 
+    /**
+     * Publica el cambio para invalidar cachés; un Mono vacío no publica nada
+     */
+    private void publishChange(UserChangeEvent.Type type, KeycloakUserDto user) {
+        if (user != null) {
+            eventPublisher.publishEvent(new UserChangeEvent(type, user.getKeycloakId(), null, user));
+        }
+    }
+
     private String extractKeycloakIdFromResponse(String response) {
         if (response == null || response.trim().isEmpty()) {
             return null;
@@ -0,0 +1,13 @@
+package pe.edu.vallegrande.vgmsuser.application.query;
+
+/**
+ * Forma de obtener los candidatos de un listado desde Keycloak
+ */
+public enum AccessPath {
+    /** Búsqueda paginada por atributo (q=clave:valor) */
+    ATTRIBUTE_SEARCH,
+    /** Páginas de miembros de uno o varios roles del realm */
+    ROLE_MEMBERS,
+    /** Recorrido de todos los usuarios del realm */
+    FULL_SCAN
+}
@@ -0,0 +1,33 @@
+package pe.edu.vallegrande.vgmsuser.application.query;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Plan elegido para un listado junto con las alternativas evaluadas (vista explain).
+ * El costo se expresa en llamadas estimadas a Keycloak
+ */
+@Value
+public class QueryPlan {
+
+    String query;
+    Candidate chosen;
+    List<Candidate> candidates;
+    String residual;
+
+    @Value
+    public static class Candidate {
+        AccessPath path;
+        /** Término que usa el camino de acceso (atributo o roles) */
+        String driver;
+        long estimatedRows;
+        long estimatedCost;
+        /** True si la estimación viene de una ejecución anterior y no de los valores por defecto */
+        boolean observed;
+
+        @JsonIgnore
+        UserQuery term;
+    }
+}
@@ -0,0 +1,129 @@
+package pe.edu.vallegrande.vgmsuser.application.query;
+
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Predicado de un listado de usuarios: una conjunción de condiciones sobre institución, rol y estado.
+ * El planificador elige por cuál de ellas empezar; el predicado completo se vuelve a aplicar en memoria
+ */
+public sealed interface UserQuery
+        permits UserQuery.Institution, UserQuery.AnyRole, UserQuery.RoleName, UserQuery.Status, UserQuery.And {
+
+    boolean matches(KeycloakUserDto user);
+
+    /**
+     * Condiciones de la conjunción; una hoja es una conjunción de un solo término
+     */
+    default List<UserQuery> terms() {
+        return List.of(this);
+    }
+
+    static UserQuery institution(String institutionId) {
+        return new Institution(institutionId);
+    }
+
+    static UserQuery anyRole(int mask) {
+        return new AnyRole(mask);
+    }
+
+    /**
+     * Rol por nombre sin distinguir mayúsculas: máscara de bits si es un rol conocido
+     */
+    static UserQuery role(String name) {
+        Role known = Role.fromName(name);
+        return known != null ? new AnyRole(known.bit()) : new RoleName(name.trim().toLowerCase());
+    }
+
+    static UserQuery status(UserStatus status) {
+        return new Status(status);
+    }
+
+    /**
+     * Conjunción aplanada; sin términos acepta a todos los usuarios
+     */
+    static UserQuery and(UserQuery... queries) {
+        List<UserQuery> terms = new ArrayList<>();
+        Arrays.stream(queries).forEach(query -> terms.addAll(query.terms()));
+        return terms.size() == 1 ? terms.get(0) : new And(List.copyOf(terms));
+    }
+
+    record Institution(String institutionId) implements UserQuery {
+        @Override
+        public boolean matches(KeycloakUserDto user) {
+            return institutionId.equals(user.getInstitutionId());
+        }
+
+        @Override
+        public String toString() {
+            return "institutionId = " + institutionId;
+        }
+    }
+
+    record AnyRole(int mask) implements UserQuery {
+        @Override
+        public boolean matches(KeycloakUserDto user) {
+            return user.hasAnyRole(mask);
+        }
+
+        public List<String> roleNames() {
+            return Arrays.stream(Role.values())
+                    .filter(role -> Role.hasAny(mask, role.bit()))
+                    .map(Role::name)
+                    .toList();
+        }
+
+        @Override
+        public String toString() {
+            List<String> names = roleNames();
+            return names.size() == 1 ? "role = " + names.get(0) : "role in (" + String.join(", ", names) + ")";
+        }
+    }
+
+    record RoleName(String name) implements UserQuery {
+        @Override
+        public boolean matches(KeycloakUserDto user) {
+            return user.getRoles() != null && user.getRoles().contains(name);
+        }
+
+        @Override
+        public String toString() {
+            return "role = " + name;
+        }
+    }
+
+    record Status(UserStatus status) implements UserQuery {
+        @Override
+        public boolean matches(KeycloakUserDto user) {
+            return user.getStatus() == status;
+        }
+
+        @Override
+        public String toString() {
+            return "status = " + status.name();
+        }
+    }
+
+    record And(List<UserQuery> terms) implements UserQuery {
+        @Override
+        public boolean matches(KeycloakUserDto user) {
+            for (UserQuery term : terms) {
+                if (!term.matches(user)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return terms.isEmpty() ? "true" : terms.stream().map(UserQuery::toString).collect(Collectors.joining(" AND "));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package pe.edu.vallegrande.vgmsuser.application.query;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Planificador de listados de usuarios sobre {@link IKeycloakService}.
+ * Para cada término indexable de la consulta estima cuántos usuarios devolvería su camino de acceso
+ * (búsqueda por atributo o miembros de rol) y cuántas llamadas a Keycloak costaría; compara con el
+ * recorrido completo y ejecuta el más barato. Los conteos observados en cada ejecución reemplazan
+ * a las estimaciones por defecto, así el plan se adapta a medida que crecen los datos
+ */
+@Slf4j
+@Component
+public class UserQueryPlanner {
+
+    private static final String REALM_KEY = "realm";
+    private static final double DEFAULT_INSTITUTION_FRACTION = 0.05;
+    private static final double DEFAULT_STATUS_FRACTION = 0.5;
+    private static final Map<String, Double> DEFAULT_ROLE_FRACTIONS = Map.of(
+            Role.admin.name(), 0.01,
+            Role.director.name(), 0.05,
+            Role.teacher.name(), 0.5,
+            Role.auxiliary.name(), 0.2,
+            Role.secretary.name(), 0.2);
+    private static final double DEFAULT_UNKNOWN_ROLE_FRACTION = 0.1;
+
+    private final IKeycloakService keycloakService;
+    private final int pageSize;
+    private final long defaultRealmSize;
+    private final Map<String, Long> observedRows = new ConcurrentHashMap<>();
+
+    public UserQueryPlanner(
+            IKeycloakService keycloakService,
+            @Value("${app.keycloak.search-page-size:100}") int pageSize,
+            @Value("${app.query.default-realm-size:1000}") long defaultRealmSize) {
+        this.keycloakService = keycloakService;
+        this.pageSize = Math.max(1, pageSize);
+        this.defaultRealmSize = Math.max(1, defaultRealmSize);
+    }
+
+    /**
+     * Ejecuta la consulta por el camino más barato; el predicado completo se aplica sobre los candidatos
+     */
+    public Flux<KeycloakUserDto> execute(UserQuery query) {
+        QueryPlan plan = explain(query);
+        QueryPlan.Candidate chosen = plan.getChosen();
+        log.debug("Query plan for [{}]: {} on {} (~{} rows, ~{} calls)", plan.getQuery(), chosen.getPath(),
+                chosen.getDriver(), chosen.getEstimatedRows(), chosen.getEstimatedCost());
+
+        return access(chosen).filter(query::matches);
+    }
+
+    /**
+     * Plan que se ejecutaría para la consulta, con todas las alternativas y sus costos
+     */
+    public QueryPlan explain(UserQuery query) {
+        List<QueryPlan.Candidate> candidates = new ArrayList<>();
+        for (UserQuery term : query.terms()) {
+            if (term instanceof UserQuery.Institution institution) {
+                candidates.add(attributeCandidate(term, IKeycloakService.INSTITUTION_ATTRIBUTE,
+                        institution.institutionId(), DEFAULT_INSTITUTION_FRACTION));
+            } else if (term instanceof UserQuery.Status status) {
+                candidates.add(attributeCandidate(term, IKeycloakService.STATUS_ATTRIBUTE, status.status().name(), DEFAULT_STATUS_FRACTION));
+            } else if (term instanceof UserQuery.AnyRole anyRole) {
+                candidates.add(roleCandidate(term, anyRole.roleNames()));
+            } else if (term instanceof UserQuery.RoleName roleName) {
+                candidates.add(roleCandidate(term, List.of(roleName.name())));
+            }
+        }
+        long realmSize = estimate(REALM_KEY, 1.0);
+        candidates.add(new QueryPlan.Candidate(AccessPath.FULL_SCAN, "*", realmSize, 1 + 2 * realmSize,
+                observedRows.containsKey(REALM_KEY), null));
+
+        // Con el mismo costo se conserva el orden de la consulta (el recorrido completo queda último)
+        QueryPlan.Candidate chosen = candidates.stream()
+                .min(Comparator.comparingLong(QueryPlan.Candidate::getEstimatedCost))
+                .orElseThrow();
+        String residual = query.terms().stream()
+                .filter(term -> term != chosen.getTerm())
+                .map(UserQuery::toString)
+                .reduce((left, right) -> left + " AND " + right)
+                .orElse("true");
+        return new QueryPlan(query.toString(), chosen, List.copyOf(candidates), residual);
+    }
+
+    /**
+     * Búsqueda por atributo: una página por cada pageSize coincidencias más una llamada de roles por coincidencia
+     */
+    private QueryPlan.Candidate attributeCandidate(UserQuery term, String attribute, String value, double defaultFraction) {
+        String key = attributeKey(attribute, value);
+        long rows = estimate(key, defaultFraction);
+        return new QueryPlan.Candidate(AccessPath.ATTRIBUTE_SEARCH, attribute + ":" + value, rows,
+                pages(rows) + rows, observedRows.containsKey(key), term);
+    }
+
+    /**
+     * Miembros de rol: por cada rol sus páginas más la recarga y los roles de cada miembro
+     */
+    private QueryPlan.Candidate roleCandidate(UserQuery term, List<String> roles) {
+        long rows = 0;
+        long cost = 0;
+        boolean observed = true;
+        for (String role : roles) {
+            String key = roleKey(role);
+            long members = estimate(key, DEFAULT_ROLE_FRACTIONS.getOrDefault(role, DEFAULT_UNKNOWN_ROLE_FRACTION));
+            rows += members;
+            cost += pages(members) + 2 * members;
+            observed &= observedRows.containsKey(key);
+        }
+        return new QueryPlan.Candidate(AccessPath.ROLE_MEMBERS, String.join(",", roles), rows, cost, observed, term);
+    }
+
+    private Flux<KeycloakUserDto> access(QueryPlan.Candidate chosen) {
+        return switch (chosen.getPath()) {
+            case ATTRIBUTE_SEARCH -> {
+                String[] attribute = chosen.getDriver().split(":", 2);
+                yield counted(keycloakService.searchUsersByAttribute(attribute[0], attribute[1]),
+                        attributeKey(attribute[0], attribute[1]));
+            }
+            case ROLE_MEMBERS -> Flux.fromArray(chosen.getDriver().split(","))
+                    .concatMap(role -> counted(keycloakService.getUsersByRole(role), roleKey(role)))
+                    .distinct(KeycloakUserDto::getKeycloakId);
+            case FULL_SCAN -> analyzed(keycloakService.getAllUsersWithAttributes());
+        };
+    }
+
+    /**
+     * Registra cuántos usuarios devolvió el camino de acceso; solo si terminó, un listado cancelado no es un conteo
+     */
+    private Flux<KeycloakUserDto> counted(Flux<KeycloakUserDto> source, String key) {
+        return Flux.defer(() -> {
+            AtomicLong rows = new AtomicLong();
+            return source
+                    .doOnNext(user -> rows.incrementAndGet())
+                    .doOnComplete(() -> observedRows.put(key, rows.get()));
+        });
+    }
+
+    /**
+     * Un recorrido completo ve todo el realm: actualiza a la vez el tamaño del realm y los conteos
+     * por institución, rol y estado
+     */
+    private Flux<KeycloakUserDto> analyzed(Flux<KeycloakUserDto> source) {
+        return Flux.defer(() -> {
+            Map<String, Long> counts = new HashMap<>();
+            return source
+                    .doOnNext(user -> {
+                        counts.merge(REALM_KEY, 1L, Long::sum);
+                        if (user.getInstitutionId() != null) {
+                            counts.merge(attributeKey(IKeycloakService.INSTITUTION_ATTRIBUTE, user.getInstitutionId()), 1L, Long::sum);
+                        }
+                        if (user.getStatus() != null) {
+                            counts.merge(attributeKey(IKeycloakService.STATUS_ATTRIBUTE, user.getStatus().name()), 1L, Long::sum);
+                        }
+                        if (user.getRoles() != null) {
+                            user.getRoles().forEach(role -> counts.merge(roleKey(role), 1L, Long::sum));
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        // Lo que no apareció en el recorrido ya no tiene usuarios
+                        observedRows.replaceAll((key, rows) -> 0L);
+                        observedRows.put(REALM_KEY, 0L);
+                        observedRows.putAll(counts);
+                    });
+        });
+    }
+
+    private long estimate(String key, double defaultFraction) {
+        Long observed = observedRows.get(key);
+        if (observed != null) {
+            return observed;
+        }
+        long realmSize = observedRows.getOrDefault(REALM_KEY, defaultRealmSize);
+        return Math.max(1, Math.round(realmSize * defaultFraction));
+    }
+
+    /**
+     * Páginas necesarias para leer n filas; la última página incompleta (o vacía) marca el final
+     */
+    private long pages(long rows) {
+        return rows / pageSize + 1;
+    }
+
+    private static String attributeKey(String attribute, String value) {
+        return attribute + ":" + value;
+    }
+
+    private static String roleKey(String role) {
+        return "role:" + role;
+    }
+}
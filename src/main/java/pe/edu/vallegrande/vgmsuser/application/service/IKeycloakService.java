@@ -10,6 +10,17 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface IKeycloakService {
+
+    /**
+     * Atributo de Keycloak con la institución del usuario
+     */
+    String INSTITUTION_ATTRIBUTE = "institutionId";
+
+    /**
+     * Atributo de Keycloak con el estado del usuario (ver UserStatus)
+     */
+    String STATUS_ATTRIBUTE = "status";
+
     Mono<List<UserRepresentation>> findAllUsers();
     Mono<List<UserRepresentation>> searchUserByUsername(String username);
     Mono<String> createUser(User userDTO);
@@ -43,6 +54,17 @@ public interface IKeycloakService {
      * Obtener todos los usuarios de Keycloak con sus atributos
      */
     Flux<KeycloakUserDto> getAllUsersWithAttributes();
+
+    /**
+     * Buscar usuarios por un atributo (q=atributo:valor), paginando en Keycloak.
+     * Solo se cargan los roles de los usuarios que coinciden
+     */
+    Flux<KeycloakUserDto> searchUsersByAttribute(String attribute, String value);
+
+    /**
+     * Obtener los miembros de un rol de realm, paginando en Keycloak (vacío si el rol no existe)
+     */
+    Flux<KeycloakUserDto> getUsersByRole(String roleName);
     
     /**
      * Actualizar atributos personalizados del usuario en Keycloak
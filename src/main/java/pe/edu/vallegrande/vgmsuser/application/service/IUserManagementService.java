@@ -2,6 +2,7 @@ package pe.edu.vallegrande.vgmsuser.application.service;
 
 import pe.edu.vallegrande.vgmsuser.domain.model.User;
 import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.UserAvailability;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -78,4 +79,10 @@ public interface IUserManagementService {
      * Buscar usuarios por estado
      */
     Flux<KeycloakUserDto> getUsersByStatus(UserStatus status);
+    
+    /**
+     * GET /users/director/availability, /users/admin/availability
+     * Disponibilidad de username y email para un alta (null los que no se consultan)
+     */
+    Mono<UserAvailability> checkAvailability(String username, String email);
 }
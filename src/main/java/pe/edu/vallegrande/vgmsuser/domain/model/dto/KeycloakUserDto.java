@@ -1,11 +1,15 @@
 package pe.edu.vallegrande.vgmsuser.domain.model.dto;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.DocumentType;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
 
 import java.time.LocalDateTime;
@@ -16,9 +20,7 @@ import java.util.Set;
  * con todos sus atributos personalizados
  */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
-@Builder
 public class KeycloakUserDto {
     
     private String keycloakId;
@@ -38,4 +40,46 @@ public class KeycloakUserDto {
     private boolean enabled;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    /**
+     * Roles conocidos como máscara de bits (ver {@link Role#bit()}); se calcula al asignar roles
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int roleMask;
+
+    @Builder
+    public KeycloakUserDto(String keycloakId, String username, String email, String firstname, String lastname,
+                           DocumentType documentType, String documentNumber, String phone, UserStatus status,
+                           PasswordStatus passwordStatus, LocalDateTime passwordCreatedAt, String passwordResetToken,
+                           String institutionId, Set<String> roles, boolean enabled, LocalDateTime createdAt,
+                           LocalDateTime updatedAt) {
+        this.keycloakId = keycloakId;
+        this.username = username;
+        this.email = email;
+        this.firstname = firstname;
+        this.lastname = lastname;
+        this.documentType = documentType;
+        this.documentNumber = documentNumber;
+        this.phone = phone;
+        this.status = status;
+        this.passwordStatus = passwordStatus;
+        this.passwordCreatedAt = passwordCreatedAt;
+        this.passwordResetToken = passwordResetToken;
+        this.institutionId = institutionId;
+        this.enabled = enabled;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        setRoles(roles);
+    }
+
+    public void setRoles(Set<String> roles) {
+        this.roles = roles;
+        this.roleMask = Role.maskOf(roles);
+    }
+
+    public boolean hasAnyRole(int mask) {
+        return Role.hasAny(roleMask, mask);
+    }
 }
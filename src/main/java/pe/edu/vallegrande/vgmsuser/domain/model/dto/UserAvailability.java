@@ -0,0 +1,17 @@
+package pe.edu.vallegrande.vgmsuser.domain.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Disponibilidad de un username y un email para un alta; null si no se consultó.
+ * exact es false cuando la respuesta salió del índice local de unicidad y no de Keycloak
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserAvailability(
+        String username,
+        @JsonProperty("username_available") Boolean usernameAvailable,
+        String email,
+        @JsonProperty("email_available") Boolean emailAvailable,
+        boolean exact) {
+}
@@ -1,9 +1,61 @@
 package pe.edu.vallegrande.vgmsuser.domain.model.enums;
 
+import java.util.Collection;
+
+/**
+ * Roles del sistema. En memoria un conjunto de roles se representa como máscara de bits
+ * (un bit por rol) para que las verificaciones de rol sean una sola operación
+ */
 public enum Role {
     admin,
     director,
     teacher,
     auxiliary,
-    secretary
+    secretary;
+
+    public static final int STAFF_MASK = teacher.bit() | auxiliary.bit() | secretary.bit();
+    public static final int ADMIN_OR_DIRECTOR_MASK = admin.bit() | director.bit();
+
+    private static final Role[] VALUES = values();
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Búsqueda sin distinguir mayúsculas; devuelve null si el nombre no es un rol conocido
+     */
+    public static Role fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String trimmed = name.trim();
+        for (Role role : VALUES) {
+            if (role.name().equalsIgnoreCase(trimmed)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Máscara de los roles conocidos de la colección; los nombres desconocidos se ignoran
+     */
+    public static int maskOf(Collection<String> names) {
+        if (names == null) {
+            return 0;
+        }
+        int mask = 0;
+        for (String name : names) {
+            Role role = fromName(name);
+            if (role != null) {
+                mask |= role.bit();
+            }
+        }
+        return mask;
+    }
+
+    public static boolean hasAny(int mask, int required) {
+        return (mask & required) != 0;
+    }
 }
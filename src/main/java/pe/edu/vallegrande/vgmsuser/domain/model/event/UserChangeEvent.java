@@ -0,0 +1,34 @@
+package pe.edu.vallegrande.vgmsuser.domain.model.event;
+
+import lombok.Value;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+/**
+ * Evento publicado por los servicios de usuarios después de cada mutación confirmada en Keycloak.
+ * Los listeners se ejecutan en el hilo que completó la operación, por lo que deben ser rápidos
+ */
+@Value
+public class UserChangeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        ACTIVATED,
+        DEACTIVATED,
+        PASSWORD_CHANGED,
+        DELETED
+    }
+
+    Type type;
+    String keycloakId;
+
+    /**
+     * Estado anterior al cambio, si el servicio lo tenía a mano (puede ser null)
+     */
+    KeycloakUserDto previous;
+
+    /**
+     * Estado posterior al cambio (null en DELETED o si el servicio no volvió a leer el usuario)
+     */
+    KeycloakUserDto current;
+}
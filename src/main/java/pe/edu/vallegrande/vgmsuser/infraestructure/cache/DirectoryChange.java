@@ -0,0 +1,24 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.cache;
+
+import lombok.Value;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+/**
+ * Cambio de un usuario dentro del registro de una institución
+ */
+@Value
+public class DirectoryChange {
+
+    long version;
+    String keycloakId;
+
+    /**
+     * El usuario ya no pertenece al personal de la institución (eliminado, trasladado o sin rol de staff)
+     */
+    boolean removed;
+
+    /**
+     * Estado posterior al cambio; null si el evento no lo traía y hay que volver a leerlo
+     */
+    KeycloakUserDto user;
+}
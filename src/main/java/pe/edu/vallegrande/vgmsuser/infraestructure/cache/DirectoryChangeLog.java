@@ -0,0 +1,121 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro acotado de cambios del personal por institución, para que los paneles de director
+ * pidan solo lo que cambió desde su última versión (GET /director/staff/changes).
+ * Cada institución guarda como máximo app.cache.directory.change-log-size cambios; si el cliente
+ * pide una versión anterior al más antiguo que se conserva se le indica recargar el listado completo.
+ * Asignar la versión y anotar el cambio se hace bajo el mismo lock, así una consulta nunca ve una
+ * versión sin su cambio. Las mutaciones son poco frecuentes y las consultas solo recorren su institución
+ */
+@Component
+public class DirectoryChangeLog {
+
+    private final DirectoryVersionTracker versions;
+    private final int maxChangesPerInstitution;
+
+    private final Map<String, InstitutionLog> logs = new ConcurrentHashMap<>();
+
+    /**
+     * Versión a partir de la cual todas las instituciones tienen su registro completo. Avanza cuando
+     * llega un cambio sin institución conocida (por ejemplo, la eliminación de un usuario que ya no se podía leer)
+     */
+    private long globalHorizon;
+
+    public DirectoryChangeLog(
+            DirectoryVersionTracker versions,
+            @Value("${app.cache.directory.change-log-size:500}") int maxChangesPerInstitution) {
+        this.versions = versions;
+        this.maxChangesPerInstitution = Math.max(1, maxChangesPerInstitution);
+    }
+
+    @EventListener
+    public synchronized void onUserChange(UserChangeEvent event) {
+        long version = versions.record(event);
+
+        KeycloakUserDto previous = event.getPrevious();
+        KeycloakUserDto current = event.getCurrent();
+        String previousInstitution = previous != null ? previous.getInstitutionId() : null;
+        String currentInstitution = current != null ? current.getInstitutionId() : null;
+
+        if (previousInstitution == null && currentInstitution == null) {
+            globalHorizon = version;
+            return;
+        }
+        if (!isStaff(previous) && !isStaff(current)) {
+            // Directores y administradores no aparecen en el listado de personal
+            return;
+        }
+
+        boolean deleted = event.getType() == UserChangeEvent.Type.DELETED;
+        if (currentInstitution != null) {
+            boolean removed = deleted || !isStaff(current);
+            append(currentInstitution, new DirectoryChange(version, event.getKeycloakId(), removed, removed ? null : current));
+        }
+        if (previousInstitution != null && !previousInstitution.equals(currentInstitution)) {
+            // Traslado (o eliminación): deja de estar en la institución anterior; si no hay estado
+            // posterior hay que volver a leerlo, salvo que se haya eliminado
+            boolean removed = deleted || current != null;
+            append(previousInstitution, new DirectoryChange(version, event.getKeycloakId(), removed, null));
+        }
+    }
+
+    /**
+     * Cambios de la institución posteriores a since, o fullResync si since es -1 o ya no está cubierta
+     */
+    public synchronized DirectoryChanges changesSince(String institutionId, long since) {
+        long version = Math.max(since, versions.institutionVersion(institutionId));
+        InstitutionLog log = logs.get(institutionId);
+        long horizon = Math.max(globalHorizon, log != null ? log.horizon : 0);
+        if (since < horizon) {
+            return DirectoryChanges.fullResync(version);
+        }
+        if (log == null) {
+            return new DirectoryChanges(version, false, List.of());
+        }
+
+        Map<String, DirectoryChange> latest = new LinkedHashMap<>();
+        for (DirectoryChange change : log.entries) {
+            if (change.getVersion() > since) {
+                latest.remove(change.getKeycloakId());
+                latest.put(change.getKeycloakId(), change);
+            }
+        }
+        return new DirectoryChanges(version, false, new ArrayList<>(latest.values()));
+    }
+
+    private void append(String institutionId, DirectoryChange change) {
+        InstitutionLog log = logs.computeIfAbsent(institutionId, id -> new InstitutionLog());
+        log.entries.addLast(change);
+        if (log.entries.size() > maxChangesPerInstitution) {
+            log.horizon = log.entries.removeFirst().getVersion();
+        }
+    }
+
+    private static boolean isStaff(KeycloakUserDto user) {
+        return user != null && user.hasAnyRole(Role.STAFF_MASK);
+    }
+
+    private static final class InstitutionLog {
+        private final ArrayDeque<DirectoryChange> entries = new ArrayDeque<>();
+
+        /**
+         * Versión del cambio más reciente descartado: los cursores anteriores necesitan recarga completa
+         */
+        private long horizon;
+    }
+}
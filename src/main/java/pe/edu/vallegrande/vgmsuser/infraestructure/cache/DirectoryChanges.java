@@ -0,0 +1,21 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.cache;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Cambios de una institución desde una versión, con un solo cambio (el último) por usuario.
+ * Si fullResync es true el registro ya no cubre esa versión y el cliente debe recargar el listado
+ */
+@Value
+public class DirectoryChanges {
+
+    long version;
+    boolean fullResync;
+    List<DirectoryChange> changes;
+
+    static DirectoryChanges fullResync(long version) {
+        return new DirectoryChanges(version, true, List.of());
+    }
+}
@@ -0,0 +1,129 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versiones del directorio de usuarios por institución, por usuario y para el listado de directores.
+ * Todas salen de una misma secuencia monótona que avanza con cada UserChangeEvent
+ * (registrado por DirectoryChangeLog, que guarda además el cambio con su versión).
+ * Los ETag incluyen la época de arranque (no se repiten tras reiniciar) y un periodo de
+ * validez máximo, que acota la antigüedad de los cambios hechos directamente en Keycloak
+ */
+@Component
+public class DirectoryVersionTracker {
+
+    private final String bootEpoch = Long.toString(System.currentTimeMillis(), 36);
+    private final long etagMaxAgeMillis;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong directorsVersion = new AtomicLong();
+    private final Map<String, AtomicLong> institutionVersions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> userVersions = new ConcurrentHashMap<>();
+
+    public DirectoryVersionTracker(@Value("${app.cache.directory.etag-max-age:5m}") Duration etagMaxAge) {
+        this.etagMaxAgeMillis = Math.max(1, etagMaxAge.toMillis());
+    }
+
+    /**
+     * Registra el cambio y devuelve la versión asignada
+     */
+    public long record(UserChangeEvent event) {
+        long version = sequence.incrementAndGet();
+        bump(userVersions, event.getKeycloakId(), version);
+
+        KeycloakUserDto previous = event.getPrevious();
+        KeycloakUserDto current = event.getCurrent();
+        if (previous != null && previous.getInstitutionId() != null) {
+            bump(institutionVersions, previous.getInstitutionId(), version);
+        }
+        if (current != null && current.getInstitutionId() != null) {
+            bump(institutionVersions, current.getInstitutionId(), version);
+        }
+        // Sin estado conocido no se sabe si era director: se invalida el listado por seguridad
+        boolean unknown = previous == null && current == null;
+        if (unknown || isDirector(previous) || isDirector(current)) {
+            directorsVersion.accumulateAndGet(version, Math::max);
+        }
+        return version;
+    }
+
+    public long currentVersion() {
+        return sequence.get();
+    }
+
+    public long institutionVersion(String institutionId) {
+        AtomicLong version = institutionVersions.get(institutionId);
+        return version != null ? version.get() : 0;
+    }
+
+    public long userVersion(String keycloakId) {
+        AtomicLong version = userVersions.get(keycloakId);
+        return version != null ? version.get() : 0;
+    }
+
+    public long directorsVersion() {
+        return directorsVersion.get();
+    }
+
+    public String institutionEtag(String institutionId) {
+        return etag("i:" + institutionId, institutionVersion(institutionId));
+    }
+
+    public String userEtag(String keycloakId) {
+        return etag("u:" + keycloakId, userVersion(keycloakId));
+    }
+
+    public String directorsEtag() {
+        return etag("d", directorsVersion());
+    }
+
+    /**
+     * Cursor opaco para /director/staff/changes: la versión con la época de arranque
+     */
+    public String cursor(long version) {
+        return bootEpoch + "." + version;
+    }
+
+    /**
+     * Devuelve la versión del cursor, o -1 si no es de este arranque o no se puede leer
+     */
+    public long parseCursor(String cursor) {
+        if (cursor == null) {
+            return -1;
+        }
+        int separator = cursor.lastIndexOf('.');
+        if (separator <= 0 || !bootEpoch.equals(cursor.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            long version = Long.parseLong(cursor.substring(separator + 1));
+            return version >= 0 && version <= sequence.get() ? version : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String etag(String scope, long version) {
+        long period = System.currentTimeMillis() / etagMaxAgeMillis;
+        return "\"" + bootEpoch + "-" + Long.toString(period, 36) + "-" + scope + "-" + version + "\"";
+    }
+
+    private static void bump(Map<String, AtomicLong> versions, String key, long version) {
+        if (key != null) {
+            versions.computeIfAbsent(key, k -> new AtomicLong()).accumulateAndGet(version, Math::max);
+        }
+    }
+
+    private static boolean isDirector(KeycloakUserDto user) {
+        return user != null && user.hasAnyRole(Role.director.bit());
+    }
+}
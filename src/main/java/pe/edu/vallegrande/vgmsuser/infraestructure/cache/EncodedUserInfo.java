@@ -0,0 +1,18 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.cache;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * UserInfoResponse ya serializado a JSON junto con su ETag
+ */
+@Value
+public class EncodedUserInfo {
+    String keycloakId;
+    String email;
+    List<String> roles;
+    byte[] json;
+    String etag;
+    long expiresAtNanos;
+}
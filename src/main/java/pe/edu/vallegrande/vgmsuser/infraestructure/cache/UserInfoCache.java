@@ -0,0 +1,157 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.UserInfoResponse;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de las respuestas de /user-role y /user-role-by-id ya codificadas en JSON.
+ * UserChangeEvent es un evento local: invalida solo en la réplica que hizo el cambio. Las demás réplicas
+ * y los cambios hechos fuera de este servicio (por ejemplo desde la consola de Keycloak) se ven al
+ * vencer el TTL, que por eso es corto: hasAccess, roles y estado deciden el acceso en el gateway
+ */
+@Slf4j
+@Component
+public class UserInfoCache {
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final Map<String, EncodedUserInfo> byId = new ConcurrentHashMap<>();
+    private final Map<String, EncodedUserInfo> byEmail = new ConcurrentHashMap<>();
+
+    /**
+     * Se incrementa en cada invalidación; una carga iniciada antes de una invalidación no se guarda
+     */
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserInfoCache(
+            ObjectMapper objectMapper,
+            @Value("${app.cache.user-info.enabled:true}") boolean enabled,
+            @Value("${app.cache.user-info.max-entries:10000}") int maxEntries,
+            @Value("${app.cache.user-info.ttl:30s}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Mono<EncodedUserInfo> getByEmail(String email, Supplier<Mono<UserInfoResponse>> loader) {
+        return get(byEmail, emailKey(email), loader);
+    }
+
+    public Mono<EncodedUserInfo> getById(String keycloakId, Supplier<Mono<UserInfoResponse>> loader) {
+        return get(byId, keycloakId, loader);
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        invalidate(event.getKeycloakId());
+        if (event.getPrevious() != null && event.getPrevious().getEmail() != null) {
+            byEmail.remove(emailKey(event.getPrevious().getEmail()));
+        }
+        if (event.getCurrent() != null && event.getCurrent().getEmail() != null) {
+            byEmail.remove(emailKey(event.getCurrent().getEmail()));
+        }
+    }
+
+    public void invalidate(String keycloakId) {
+        generation.incrementAndGet();
+        EncodedUserInfo removed = byId.remove(keycloakId);
+        if (removed != null && removed.getEmail() != null) {
+            byEmail.remove(emailKey(removed.getEmail()));
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private Mono<EncodedUserInfo> get(Map<String, EncodedUserInfo> index, String key,
+                                      Supplier<Mono<UserInfoResponse>> loader) {
+        if (!enabled) {
+            return loader.get().map(response -> encode(response, 0));
+        }
+        EncodedUserInfo cached = index.get(key);
+        if (cached != null && System.nanoTime() - cached.getExpiresAtNanos() < 0) {
+            hits.incrementAndGet();
+            return Mono.just(cached);
+        }
+        misses.incrementAndGet();
+        long startGeneration = generation.get();
+        return loader.get()
+                .map(response -> encode(response, System.nanoTime() + ttlNanos))
+                .doOnNext(encoded -> store(encoded, startGeneration));
+    }
+
+    private void store(EncodedUserInfo encoded, long startGeneration) {
+        if (byId.size() >= maxEntries) {
+            evictSome();
+        }
+        String emailKey = encoded.getEmail() != null ? emailKey(encoded.getEmail()) : null;
+        byId.put(encoded.getKeycloakId(), encoded);
+        if (emailKey != null) {
+            byEmail.put(emailKey, encoded);
+        }
+        // Si hubo una invalidación durante la carga el valor puede ser anterior al cambio: se retira solo
+        // esta entrada, sin tocar generation, para no descartar las demás cargas en curso
+        if (generation.get() != startGeneration) {
+            byId.remove(encoded.getKeycloakId(), encoded);
+            if (emailKey != null) {
+                byEmail.remove(emailKey, encoded);
+            }
+        }
+    }
+
+    /**
+     * Libera una décima parte de la capacidad; el orden de ConcurrentHashMap es arbitrario
+     */
+    private void evictSome() {
+        int toRemove = Math.max(1, maxEntries / 10);
+        Iterator<EncodedUserInfo> iterator = byId.values().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            EncodedUserInfo entry = iterator.next();
+            iterator.remove();
+            if (entry.getEmail() != null) {
+                byEmail.remove(emailKey(entry.getEmail()));
+            }
+        }
+    }
+
+    private EncodedUserInfo encode(UserInfoResponse response, long expiresAtNanos) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return new EncodedUserInfo(response.getId(), response.getEmail(), response.getRoles(), json, etag, expiresAtNanos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar UserInfoResponse: " + e.getMessage(), e);
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -5,8 +5,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import pe.edu.vallegrande.vgmsuser.infraestructure.jfr.InstitutionCallEvent;
 import reactor.core.publisher.Mono;
 
+import static pe.edu.vallegrande.vgmsuser.infraestructure.trace.DownstreamTracing.traced;
+
 /**
  * Cliente para consumir el microservicio de validación de instituciones
  */
@@ -32,11 +35,11 @@ public class InstitutionValidationClient {
         String url = institutionServiceBaseUrl + "/validate-institutions/" + institutionId;
         log.debug("Making request to: {}", url);
         
-        return webClientBuilder.build()
-                .get()
-                .uri(url)
-                .retrieve()
-                .bodyToMono(InstitutionValidationResponse.class)
+        return traced("institution.validateInstitution", InstitutionCallEvent.TYPE, () -> new InstitutionCallEvent(institutionId), webClientBuilder.build()
+                        .get()
+                        .uri(url)
+                        .retrieve()
+                        .bodyToMono(InstitutionValidationResponse.class))
                 .doOnSuccess(response -> {
                     if (response != null) {
                         log.info("Institution validation response - ID: {}, Exists: {}, Active: {}, Name: {}", 
@@ -0,0 +1,22 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de Jackson para las respuestas REST
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Blackbird reemplaza la reflexión de getters/constructores por accesos generados
+     * con LambdaMetafactory. Spring Boot registra el módulo en el ObjectMapper automáticamente
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,66 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.UserAvailability;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.DocumentType;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.AvailabilityResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.ErrorResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.MessageResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.StaffChangesResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.UserListResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.UserResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.UserStatisticsResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.stats.UserStatistics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serializa una vez cada envoltorio de respuesta al arrancar para que Jackson resuelva y
+ * cachee sus serializadores (y Blackbird genere sus accesos) antes de la primera petición
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseSerializerWarmup {
+
+    private final ObjectMapper objectMapper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        KeycloakUserDto sample = KeycloakUserDto.builder()
+                .keycloakId("warmup")
+                .username("warmup")
+                .documentType(DocumentType.DNI)
+                .status(UserStatus.A)
+                .passwordStatus(PasswordStatus.PERMANENT)
+                .roles(Set.of("teacher"))
+                .createdAt(LocalDateTime.now())
+                .build();
+        try {
+            objectMapper.writeValueAsBytes(new UserResponse("warmup", sample));
+            objectMapper.writeValueAsBytes(UserListResponse.of("warmup", List.of(sample)));
+            objectMapper.writeValueAsBytes(new MessageResponse("warmup"));
+            objectMapper.writeValueAsBytes(new ErrorResponse("warmup"));
+            objectMapper.writeValueAsBytes(new StaffChangesResponse("warmup", "0", false, List.of(sample), List.of("warmup")));
+            objectMapper.writeValueAsBytes(new UserStatisticsResponse("warmup",
+                    new UserStatistics("warmup", 0, Map.of(), Map.of(), Map.of(), Map.of(), null)));
+            objectMapper.writeValueAsBytes(new AvailabilityResponse("warmup",
+                    new UserAvailability("warmup", true, "warmup", true, false)));
+            log.debug("Response serializers resolved");
+        } catch (JsonProcessingException e) {
+            log.warn("Could not warm up response serializers: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR base para llamadas a servicios externos.
+ * La duración del evento cubre desde la suscripción hasta la señal terminal.
+ */
+@Category({"VG MS User", "Downstream"})
+@StackTrace(false)
+public abstract class DownstreamCallEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    protected String operation;
+
+    @Label("Success")
+    protected boolean success;
+
+    @Label("Error")
+    protected String error;
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,34 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Procesamiento de una plantilla Thymeleaf de email
+ */
+@Name("pe.edu.vallegrande.vgmsuser.EmailRender")
+@Label("Email Render")
+@Category({"VG MS User", "Email"})
+@StackTrace(false)
+public class EmailRenderEvent extends jdk.jfr.Event {
+
+    /** Para consultar isEnabled() sin crear el evento */
+    public static final EventType TYPE = EventType.getEventType(EmailRenderEvent.class);
+
+    @Label("Template")
+    protected String template;
+
+    @Label("HTML Length")
+    protected int htmlLength;
+
+    public EmailRenderEvent(String template) {
+        this.template = template;
+    }
+
+    public void setHtmlLength(int htmlLength) {
+        this.htmlLength = htmlLength;
+    }
+}
@@ -0,0 +1,34 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Envío SMTP de un email ya renderizado
+ */
+@Name("pe.edu.vallegrande.vgmsuser.EmailSend")
+@Label("Email Send")
+@Category({"VG MS User", "Email"})
+@StackTrace(false)
+public class EmailSendEvent extends jdk.jfr.Event {
+
+    /** Para consultar isEnabled() sin crear el evento */
+    public static final EventType TYPE = EventType.getEventType(EmailSendEvent.class);
+
+    @Label("Template")
+    protected String template;
+
+    @Label("Success")
+    protected boolean success;
+
+    public EmailSendEvent(String template) {
+        this.template = template;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+}
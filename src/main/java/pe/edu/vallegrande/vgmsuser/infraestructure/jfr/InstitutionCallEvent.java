@@ -0,0 +1,25 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Llamada al microservicio de instituciones
+ */
+@Name("pe.edu.vallegrande.vgmsuser.InstitutionCall")
+@Label("Institution Service Call")
+@Description("Llamada al microservicio de validación de instituciones")
+public class InstitutionCallEvent extends DownstreamCallEvent {
+
+    /** Para consultar isEnabled() sin crear el evento */
+    public static final EventType TYPE = EventType.getEventType(InstitutionCallEvent.class);
+
+    @Label("Institution Id")
+    protected String institutionId;
+
+    public InstitutionCallEvent(String institutionId) {
+        this.institutionId = institutionId;
+    }
+}
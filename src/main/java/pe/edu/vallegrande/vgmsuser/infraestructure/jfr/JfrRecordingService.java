@@ -0,0 +1,116 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Administra una única grabación JFR bajo demanda, acotada en duración y tamaño.
+ * Solo está disponible si app.diagnostics.jfr.enabled = true
+ */
+@Slf4j
+@Component
+public class JfrRecordingService {
+
+    private final boolean enabled;
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private final String settings;
+
+    private Recording recording;
+    private Instant startedAt;
+
+    public JfrRecordingService(
+            @Value("${app.diagnostics.jfr.enabled:false}") boolean enabled,
+            @Value("${app.diagnostics.jfr.max-duration:10m}") Duration maxDuration,
+            @Value("${app.diagnostics.jfr.max-size:100MB}") DataSize maxSize,
+            @Value("${app.diagnostics.jfr.settings:profile}") String settings) {
+        this.enabled = enabled;
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+        this.settings = settings;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Inicia la grabación. La duración solicitada se limita a max-duration
+     */
+    public synchronized Instant start(Duration requestedDuration) {
+        checkEnabled();
+        if (recording != null) {
+            throw new IllegalStateException("Ya existe una grabación JFR iniciada el " + startedAt);
+        }
+
+        Duration duration = requestedDuration == null || requestedDuration.compareTo(maxDuration) > 0
+                ? maxDuration : requestedDuration;
+        try {
+            Recording newRecording = new Recording(Configuration.getConfiguration(settings));
+            newRecording.setName("vg-ms-user-on-demand");
+            newRecording.setToDisk(true);
+            newRecording.setMaxSize(maxSize.toBytes());
+            newRecording.setDuration(duration);
+            newRecording.enable(KeycloakCallEvent.class);
+            newRecording.enable(InstitutionCallEvent.class);
+            newRecording.enable(EmailRenderEvent.class);
+            newRecording.enable(EmailSendEvent.class);
+            newRecording.start();
+
+            recording = newRecording;
+            startedAt = Instant.now();
+            log.info("JFR recording started (duration {}, max size {})", duration, maxSize);
+            return startedAt;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("No se pudo cargar la configuración JFR '" + settings + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Detiene la grabación (si no terminó ya por duración) y la vuelca a un archivo temporal.
+     * El llamador es responsable de eliminar el archivo.
+     */
+    public synchronized Path stop() {
+        checkEnabled();
+        if (recording == null) {
+            throw new IllegalStateException("No hay una grabación JFR activa");
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            Path file = Files.createTempFile("vg-ms-user-", ".jfr");
+            recording.dump(file);
+            log.info("JFR recording dumped to {} ({} bytes)", file, Files.size(file));
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo volcar la grabación JFR: " + e.getMessage());
+        } finally {
+            recording.close();
+            recording = null;
+            startedAt = null;
+        }
+    }
+
+    public synchronized String getState() {
+        return recording != null ? recording.getState().name() : "NONE";
+    }
+
+    private void checkEnabled() {
+        if (!enabled) {
+            throw new IllegalStateException("Las grabaciones JFR bajo demanda están deshabilitadas");
+        }
+    }
+}
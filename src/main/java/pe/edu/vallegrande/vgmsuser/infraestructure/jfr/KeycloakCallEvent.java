@@ -0,0 +1,26 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Llamada a la API de administración de Keycloak
+ */
+@Name("pe.edu.vallegrande.vgmsuser.KeycloakCall")
+@Label("Keycloak Admin Call")
+@Description("Llamada a la API de administración de Keycloak")
+public class KeycloakCallEvent extends DownstreamCallEvent {
+
+    /** Para consultar isEnabled() sin crear el evento */
+    public static final EventType TYPE = EventType.getEventType(KeycloakCallEvent.class);
+
+    @Label("User Id")
+    @Description("keycloakId o username según la operación; nunca el email")
+    protected String userId;
+
+    public KeycloakCallEvent(String userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,406 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.mail;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Planificador de envío de correos delante de IEmailService, fuera del camino de la petición.
+ * <ul>
+ *   <li>Prioridades: siempre sale primero lo pendiente de RESET, luego CONFIRMATION y al final BULK</li>
+ *   <li>Dentro de cada prioridad las instituciones se atienden por turnos, un correo cada una, así la
+ *   carga masiva de una institución no retrasa a las demás</li>
+ *   <li>Cubo de tokens de la cuenta SMTP: rate-per-minute envíos sostenidos con ráfagas de hasta burst
+ *   (0 sin límite), para no llegar al límite del proveedor</li>
+ *   <li>Como máximo max-concurrency envíos a la vez y hasta max-pending en cola por prioridad: una carga
+ *   masiva que llena BULK no deja sin lugar a RESET ni a CONFIRMATION</li>
+ *   <li>Cada envío tiene send-timeout y se reintenta hasta max-attempts veces con backoff exponencial;
+ *   cada reintento vuelve a la cola y toma su token como un envío más</li>
+ * </ul>
+ * Los correos encolados viven en memoria: al apagar se pierden los que no salieron (se registra cuántos
+ * y quien esperaba el resultado con send() recibe el error)
+ */
+@Slf4j
+@Component
+public class EmailDispatcher implements DisposableBean {
+
+    private static final String NO_INSTITUTION = "";
+
+    private final int maxConcurrency;
+    private final int maxPending;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration sendTimeout;
+    private final double tokensPerNano;
+    private final double burst;
+
+    /** Por prioridad, colas por institución en orden de turno */
+    private final Map<EmailPriority, LinkedHashMap<String, Deque<EmailTask>>> queues = new EnumMap<>(EmailPriority.class);
+    /** Lugares ocupados por prioridad frente a max-pending: en cola, esperando reintento o reservados */
+    private final int[] admitted = new int[EmailPriority.values().length];
+    /** Envíos fallidos esperando su backoff antes de volver a la cola */
+    private final Set<EmailTask> retrying = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int pendingCount;
+    private int running;
+    private double tokens;
+    private long refilledAt;
+    private boolean wakeupScheduled;
+    private boolean stopped;
+
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    public EmailDispatcher(
+            @Value("${app.mail.dispatch.max-concurrency:2}") int maxConcurrency,
+            @Value("${app.mail.dispatch.max-pending:1000}") int maxPending,
+            @Value("${app.mail.dispatch.max-attempts:3}") int maxAttempts,
+            @Value("${app.mail.dispatch.backoff:2s}") Duration backoff,
+            @Value("${app.mail.dispatch.send-timeout:30s}") Duration sendTimeout,
+            @Value("${app.mail.dispatch.rate-per-minute:60}") int ratePerMinute,
+            @Value("${app.mail.dispatch.burst:10}") int burst) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxPending = Math.max(1, maxPending);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.sendTimeout = sendTimeout;
+        this.tokensPerNano = Math.max(0, ratePerMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.refilledAt = System.nanoTime();
+        for (EmailPriority priority : EmailPriority.values()) {
+            queues.put(priority, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Encola el envío y retorna de inmediato; un fallo solo se registra.
+     * kind y recipient se usan en los registros, institutionId (puede ser null) para el turno
+     */
+    public void dispatch(EmailPriority priority, String institutionId, String kind, String recipient,
+                         Supplier<Mono<Void>> send) {
+        enqueue(new EmailTask(priority, institutionId, kind, recipient, send, null, 1));
+    }
+
+    /**
+     * Reserva un lugar en la cola de la prioridad, o null si está llena. Para quien debe saber antes de
+     * crear algo si su correo tendrá lugar (las credenciales de un usuario nuevo); el lugar se usa con
+     * Slot.dispatch o se devuelve con Slot.release
+     */
+    public Slot reserve(EmailPriority priority) {
+        synchronized (this) {
+            if (stopped || admitted[priority.ordinal()] >= maxPending) {
+                dropped.incrementAndGet();
+                log.error("Email queue full for {} ({}), refusing reservation", priority, maxPending);
+                return null;
+            }
+            admitted[priority.ordinal()]++;
+        }
+        return new Slot(priority);
+    }
+
+    /**
+     * Encola el envío y completa cuando sale (o con el error del último intento), para quien necesita
+     * informar el resultado del envío
+     */
+    public Mono<Void> send(EmailPriority priority, String institutionId, String kind, String recipient,
+                           Supplier<Mono<Void>> send) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> done = Sinks.empty();
+            if (!enqueue(new EmailTask(priority, institutionId, kind, recipient, send, done, 1))) {
+                return Mono.error(new RuntimeException(isStopped()
+                        ? "Error enviando email: servicio detenido"
+                        : "Error enviando email: cola de correos llena"));
+            }
+            return done.asMono();
+        });
+    }
+
+    /**
+     * Contadores para diagnóstico
+     */
+    public synchronized Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("pending", (long) pendingCount);
+        for (EmailPriority priority : EmailPriority.values()) {
+            long count = queues.get(priority).values().stream().mapToLong(Deque::size).sum();
+            stats.put("pending_" + priority.name().toLowerCase(Locale.ROOT), count);
+        }
+        stats.put("retrying", (long) retrying.size());
+        stats.put("in_flight", (long) running);
+        stats.put("sent", sent.get());
+        stats.put("failed", failed.get());
+        stats.put("dropped", dropped.get());
+        stats.put("throttled", throttled.get());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        List<EmailTask> lost = new ArrayList<>();
+        synchronized (this) {
+            stopped = true;
+            queues.values().forEach(byInstitution -> byInstitution.values().forEach(lost::addAll));
+            lost.addAll(retrying);
+            queues.values().forEach(Map::clear);
+            retrying.clear();
+            Arrays.fill(admitted, 0);
+            pendingCount = 0;
+        }
+        if (!lost.isEmpty()) {
+            log.warn("Shutting down with {} queued email(s) not sent", lost.size());
+        }
+        RuntimeException error = new RuntimeException("Error enviando email: servicio detenido");
+        for (EmailTask task : lost) {
+            if (task.done() != null) {
+                task.done().tryEmitError(error);
+            }
+        }
+    }
+
+    private synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    private boolean enqueue(EmailTask task) {
+        synchronized (this) {
+            if (stopped || admitted[task.priority().ordinal()] >= maxPending) {
+                dropped.incrementAndGet();
+                log.error("Email queue full for {} ({}), dropping {} email to {}", task.priority(), maxPending, task.kind(), task.recipient());
+                return false;
+            }
+            admitted[task.priority().ordinal()]++;
+            addToQueue(task);
+        }
+        drain();
+        return true;
+    }
+
+    /**
+     * Pone en cola un envío que ya tiene su lugar contado en admitted
+     */
+    private void addToQueue(EmailTask task) {
+        String institution = task.institutionId() != null ? task.institutionId() : NO_INSTITUTION;
+        queues.get(task.priority()).computeIfAbsent(institution, key -> new ArrayDeque<>()).addLast(task);
+        pendingCount++;
+    }
+
+    /**
+     * Arranca envíos mientras haya cupo y tokens. Un envío que termina dentro de subscribe() (por ejemplo,
+     * uno que falla al instante) no vuelve a entrar: lo retoma la vuelta en curso
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            EmailTask task;
+            while ((task = next()) != null) {
+                deliver(task)
+                        .doFinally(signal -> {
+                            synchronized (this) {
+                                running--;
+                            }
+                            drain();
+                        })
+                        .subscribe();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Siguiente correo a enviar, o null si no hay, no hay cupo o no hay token (en ese caso se agenda
+     * un nuevo intento para cuando lo haya)
+     */
+    private synchronized EmailTask next() {
+        if (pendingCount == 0 || running >= maxConcurrency) {
+            return null;
+        }
+        long waitNanos = takeToken();
+        if (waitNanos > 0) {
+            throttled.incrementAndGet();
+            scheduleWakeup(waitNanos);
+            return null;
+        }
+        for (EmailPriority priority : EmailPriority.values()) {
+            LinkedHashMap<String, Deque<EmailTask>> byInstitution = queues.get(priority);
+            Iterator<Map.Entry<String, Deque<EmailTask>>> turn = byInstitution.entrySet().iterator();
+            if (!turn.hasNext()) {
+                continue;
+            }
+            Map.Entry<String, Deque<EmailTask>> first = turn.next();
+            Deque<EmailTask> queue = first.getValue();
+            EmailTask task = queue.pollFirst();
+            // La institución atendida pasa al final del turno
+            turn.remove();
+            if (!queue.isEmpty()) {
+                byInstitution.put(first.getKey(), queue);
+            }
+            pendingCount--;
+            admitted[priority.ordinal()]--;
+            running++;
+            return task;
+        }
+        return null;
+    }
+
+    /**
+     * Toma un token del cubo; si no hay devuelve cuánto falta para el próximo
+     */
+    private long takeToken() {
+        if (tokensPerNano == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+
+    private void scheduleWakeup(long delayNanos) {
+        if (wakeupScheduled) {
+            return;
+        }
+        wakeupScheduled = true;
+        Schedulers.parallel().schedule(() -> {
+            synchronized (this) {
+                wakeupScheduled = false;
+            }
+            drain();
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Un intento de envío; si falla y quedan intentos, el correo vuelve a la cola tras el backoff
+     */
+    private Mono<Void> deliver(EmailTask task) {
+        return Mono.defer(task.send())
+                .timeout(sendTimeout)
+                .doOnSuccess(v -> {
+                    sent.incrementAndGet();
+                    if (task.done() != null) {
+                        task.done().tryEmitEmpty();
+                    }
+                })
+                .onErrorResume(error -> {
+                    if (task.attempt() < maxAttempts && scheduleRetry(task.nextAttempt())) {
+                        log.warn("Attempt {} of {} email to {} failed, retrying: {}", task.attempt(), task.kind(), task.recipient(), error.getMessage());
+                        return Mono.empty();
+                    }
+                    failed.incrementAndGet();
+                    log.error("Could not send {} email to {} after {} attempt(s): {}",
+                            task.kind(), task.recipient(), task.attempt(), error.getMessage());
+                    if (task.done() != null) {
+                        task.done().tryEmitError(error);
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Espera el backoff exponencial del intento y devuelve el correo a la cola; false si el servicio se detuvo
+     */
+    private boolean scheduleRetry(EmailTask retry) {
+        synchronized (this) {
+            if (stopped) {
+                return false;
+            }
+            retrying.add(retry);
+            admitted[retry.priority().ordinal()]++;
+        }
+        Duration delay = backoff.multipliedBy(1L << Math.min(retry.attempt() - 2, 16));
+        Schedulers.parallel().schedule(() -> {
+            synchronized (this) {
+                if (!retrying.remove(retry)) {
+                    return;
+                }
+                addToQueue(retry);
+            }
+            drain();
+        }, delay.toNanos(), TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    /**
+     * Lugar reservado con reserve(): se usa una sola vez, con dispatch o con release
+     */
+    public final class Slot {
+
+        private final EmailPriority priority;
+        private final AtomicBoolean used = new AtomicBoolean();
+
+        private Slot(EmailPriority priority) {
+            this.priority = priority;
+        }
+
+        /**
+         * Encola el envío en el lugar reservado; como dispatch, no espera a que salga
+         */
+        public void dispatch(String institutionId, String kind, String recipient, Supplier<Mono<Void>> send) {
+            if (!used.compareAndSet(false, true)) {
+                return;
+            }
+            synchronized (EmailDispatcher.this) {
+                if (stopped) {
+                    log.warn("Dispatcher stopped, {} email to {} not sent", kind, recipient);
+                    return;
+                }
+                addToQueue(new EmailTask(priority, institutionId, kind, recipient, send, null, 1));
+            }
+            drain();
+        }
+
+        /**
+         * Devuelve el lugar si no se usó; sin efecto después de dispatch
+         */
+        public void release() {
+            if (used.compareAndSet(false, true)) {
+                synchronized (EmailDispatcher.this) {
+                    if (!stopped) {
+                        admitted[priority.ordinal()]--;
+                    }
+                }
+            }
+        }
+    }
+
+    private record EmailTask(EmailPriority priority, String institutionId, String kind, String recipient,
+                             Supplier<Mono<Void>> send, Sinks.Empty<Void> done, int attempt) {
+
+        EmailTask nextAttempt() {
+            return new EmailTask(priority, institutionId, kind, recipient, send, done, attempt + 1);
+        }
+    }
+}
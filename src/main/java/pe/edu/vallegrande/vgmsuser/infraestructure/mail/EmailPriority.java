@@ -0,0 +1,13 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.mail;
+
+/**
+ * Clase de prioridad de un correo; el orden de declaración es el orden de salida
+ */
+public enum EmailPriority {
+    /** Restablecimiento de contraseña: el usuario está esperando el enlace */
+    RESET,
+    /** Confirmaciones y avisos de cambios que el usuario acaba de hacer */
+    CONFIRMATION,
+    /** Credenciales de bienvenida de las altas, que llegan en masa al cargar una institución */
+    BULK
+}
@@ -4,16 +4,22 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import pe.edu.vallegrande.vgmsuser.application.service.IAdminUserService;
 import pe.edu.vallegrande.vgmsuser.domain.model.User;
-import pe.edu.vallegrande.vgmsuser.infraestructure.util.HeaderValidator;
+import pe.edu.vallegrande.vgmsuser.infraestructure.cache.DirectoryVersionTracker;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.ApiResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.ErrorResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.MessageResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.UserListResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.UserResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.UserStatisticsResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.RequestIdentity;
+import pe.edu.vallegrande.vgmsuser.infraestructure.stats.UserStatisticsCounters;
 import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
-import java.util.HashMap;
-import java.util.Map;
 
 @Slf4j
 @RestController
@@ -22,6 +28,8 @@ import java.util.Map;
 public class AdminUserRest {
 
     private final IAdminUserService adminUserService;
+    private final DirectoryVersionTracker directoryVersions;
+    private final UserStatisticsCounters statisticsCounters;
 
     // 🔴 ADMIN ENDPOINTS - Headers HTTP v5.0
 
@@ -31,36 +39,20 @@ public class AdminUserRest {
      * Crear usuarios ADMIN y DIRECTOR únicamente (puede asignar institución a directores)
      */
     @PostMapping("/admin/create")
-    public Mono<ResponseEntity<Map<String, Object>>> createAdminUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> createAdminUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @Valid @RequestBody User user) {
         
         log.info("🔴 ADMIN - Creating admin/director user with username: {}", user.getUsername());
         
-        try {
-            // Validar headers
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateAdminRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return adminUserService.createAdminUser(user)
-                    .flatMap(createdUser -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User created successfully");
-                        response.put("user", createdUser);
-                        return Mono.just(ResponseEntity.status(HttpStatus.CREATED).body(response));
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error creating admin/director user: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return adminUserService.createAdminUser(user)
+                .<ResponseEntity<ApiResponse>>flatMap(createdUser -> Mono.just(ResponseEntity.status(HttpStatus.CREATED).body(new UserResponse("User created successfully", createdUser))))
+                .onErrorResume(error -> {
+                    log.error("Error creating admin/director user: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().body(new ErrorResponse(error.getMessage())));
+                });
     }
 
     /**
@@ -69,233 +61,175 @@ public class AdminUserRest {
      * Listar todos los usuarios ADMIN del sistema
      */
     @GetMapping("/admin")
-    public Mono<ResponseEntity<Map<String, Object>>> getAllAdminUsers(ServerHttpRequest request) {
+    public Mono<ResponseEntity<ApiResponse>> getAllAdminUsers(@RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity) {
         
         log.info("🔴 ADMIN - Getting all admin users");
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateAdminRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return adminUserService.getAllAdminUsers()
-                    .collectList()
-                    .map(users -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "Users retrieved successfully");
-                        response.put("total_users", users.size());
-                        response.put("users", users);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error getting all admin users: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return adminUserService.getAllAdminUsers()
+                .collectList()
+                .<ResponseEntity<ApiResponse>>map(users -> ResponseEntity.ok(UserListResponse.of("Users retrieved successfully", users)))
+                .onErrorResume(error -> {
+                    log.error("Error getting all admin users: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(error.getMessage())));
+                });
     }
 
     /**
      * GET /users/admin/directors
      * Headers: X-User-Id (REQUIRED), X-User-Roles (REQUIRED - ADMIN), X-Institution-Id (OPTIONAL)
      * Listar todos los usuarios DIRECTORES de todas las instituciones
+     * ETag por versión del listado de directores; con If-None-Match vigente responde 304
      */
     @GetMapping("/admin/directors")
-    public Mono<ResponseEntity<Map<String, Object>>> getAllDirectors(ServerHttpRequest request) {
+    public Mono<ResponseEntity<ApiResponse>> getAllDirectors(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            ServerWebExchange exchange) {
         
         log.info("🔴 ADMIN - Getting all directors");
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateAdminRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return adminUserService.getAllDirectors()
-                    .collectList()
-                    .map(directors -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "Directors retrieved successfully");
-                        response.put("total_users", directors.size());
-                        response.put("users", directors);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error getting all directors: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        String etag = directoryVersions.directorsEtag();
+        return ConditionalGet.notModified(exchange, etag)
+                .switchIfEmpty(Mono.defer(() -> adminUserService.getAllDirectors()
+                        .collectList()
+                        .map(directors -> ConditionalGet.ok(etag, UserListResponse.of("Directors retrieved successfully", directors)))))
+                .onErrorResume(error -> {
+                    log.error("Error getting all directors: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(error.getMessage())));
+                });
     }
 
     @GetMapping("/admin/directors/{institution_id}")
-    public Mono<ResponseEntity<Map<String, Object>>> getDirectorsByInstitution(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> getDirectorsByInstitution(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable("institution_id") String targetInstitutionId) {
         
         log.info("🔴 ADMIN - Getting directors for institution: {}", targetInstitutionId);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateAdminRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return adminUserService.getDirectorsByInstitution(targetInstitutionId)
-                    .collectList()
-                    .map(directors -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "Directors retrieved successfully");
-                        response.put("total_users", directors.size());
-                        response.put("users", directors);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error getting directors by institution: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return adminUserService.getDirectorsByInstitution(targetInstitutionId)
+                .collectList()
+                .<ResponseEntity<ApiResponse>>map(directors -> ResponseEntity.ok(UserListResponse.of("Directors retrieved successfully", directors)))
+                .onErrorResume(error -> {
+                    log.error("Error getting directors by institution: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(error.getMessage())));
+                });
+    }
+
+    /**
+     * GET /users/admin/statistics
+     * Headers: X-User-Id, X-User-Roles (ADMIN)
+     * Conteos por estado, rol, estado de contraseña e institución, desde contadores en memoria
+     */
+    @GetMapping("/admin/statistics")
+    public Mono<ResponseEntity<ApiResponse>> getStatistics(@RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity) {
+        
+        log.info("🔴 ADMIN - Getting user statistics");
+        
+        if (!statisticsCounters.isReady()) {
+            return Mono.just(statisticsNotReady());
+        }
+        return Mono.just(ResponseEntity.ok(new UserStatisticsResponse("Statistics retrieved successfully", statisticsCounters.global())));
+    }
+
+    /**
+     * GET /users/admin/statistics/{institution_id}
+     * Headers: X-User-Id, X-User-Roles (ADMIN)
+     * Conteos de una institución (docentes, pendientes, contraseñas temporales...)
+     */
+    @GetMapping("/admin/statistics/{institution_id}")
+    public Mono<ResponseEntity<ApiResponse>> getInstitutionStatistics(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            @PathVariable("institution_id") String targetInstitutionId) {
+        
+        log.info("🔴 ADMIN - Getting user statistics for institution: {}", targetInstitutionId);
+        
+        if (!statisticsCounters.isReady()) {
+            return Mono.just(statisticsNotReady());
         }
+        return Mono.just(ResponseEntity.ok(new UserStatisticsResponse("Statistics retrieved successfully",
+                statisticsCounters.institution(targetInstitutionId))));
+    }
+
+    /**
+     * Antes de la primera reconciliación los contadores estarían en cero como si fueran reales
+     */
+    private static ResponseEntity<ApiResponse> statisticsNotReady() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "30")
+                .body(new ErrorResponse("Estadísticas aún no disponibles: la primera reconciliación con Keycloak no ha terminado"));
     }
 
     @PutMapping("/admin/update/{user_id}")
-    public Mono<ResponseEntity<Map<String, Object>>> updateAdminUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> updateAdminUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable("user_id") String keycloakId,
             @Valid @RequestBody User user) {
         
         log.info("🔴 ADMIN - Updating user with keycloakId: {}", keycloakId);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateAdminRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return adminUserService.updateAdminUser(keycloakId, user)
-                    .map(updatedUser -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User updated successfully");
-                        response.put("user", updatedUser);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error updating admin user: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return adminUserService.updateAdminUser(keycloakId, user)
+                .<ResponseEntity<ApiResponse>>map(updatedUser -> ResponseEntity.ok(new UserResponse("User updated successfully", updatedUser)))
+                .onErrorResume(error -> {
+                    log.error("Error updating admin user: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().body(new ErrorResponse(error.getMessage())));
+                });
     }
 
     @DeleteMapping("/admin/delete/{user_id}")
-    public Mono<ResponseEntity<Map<String, Object>>> deleteAdminUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> deleteAdminUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable("user_id") String keycloakId) {
         
         log.info("🔴 ADMIN - Deleting (physical) admin/director user with keycloakId: {}", keycloakId);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateAdminRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return adminUserService.deleteAdminUser(keycloakId)
-                    .map(message -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", message);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(e -> {
-                        log.error("Error deleting user: {}", e.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", e.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return adminUserService.deleteAdminUser(keycloakId)
+                .<ResponseEntity<ApiResponse>>map(message -> ResponseEntity.ok(new MessageResponse(message)))
+                .onErrorResume(e -> {
+                    log.error("Error deleting user: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(e.getMessage())));
+                });
     }
 
     @PatchMapping("/admin/deactivate/{user_id}")
-    public Mono<ResponseEntity<Map<String, Object>>> deactivateAdminUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> deactivateAdminUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable("user_id") String keycloakId) {
         
         log.info("🔴 ADMIN - Deactivating admin/director user with keycloakId: {}", keycloakId);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateAdminRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return adminUserService.deactivateAdminUser(keycloakId)
-                    .map(deactivatedUser -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User deactivated successfully");
-                        response.put("user", deactivatedUser);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(e -> {
-                        log.error("Error deactivating user: {}", e.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", e.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return adminUserService.deactivateAdminUser(keycloakId)
+                .<ResponseEntity<ApiResponse>>map(deactivatedUser -> ResponseEntity.ok(new UserResponse("User deactivated successfully", deactivatedUser)))
+                .onErrorResume(e -> {
+                    log.error("Error deactivating user: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(e.getMessage())));
+                });
     }
 
     @PatchMapping("/admin/activate/{user_id}")
-    public Mono<ResponseEntity<Map<String, Object>>> activateAdminUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> activateAdminUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable("user_id") String keycloakId) {
         
         log.info("🔴 ADMIN - Activating admin/director user with keycloakId: {}", keycloakId);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateAdminRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return adminUserService.activateAdminUser(keycloakId)
-                    .map(activatedUser -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User activated successfully");
-                        response.put("user", activatedUser);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(e -> {
-                        log.error("Error activating user: {}", e.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", e.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return adminUserService.activateAdminUser(keycloakId)
+                .<ResponseEntity<ApiResponse>>map(activatedUser -> ResponseEntity.ok(new UserResponse("User activated successfully", activatedUser)))
+                .onErrorResume(e -> {
+                    log.error("Error activating user: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(e.getMessage())));
+                });
     }
 }
@@ -0,0 +1,37 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ServerWebExchange;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.ApiResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * GET condicional con ETag de versión: si el cliente ya tiene la versión actual se responde 304
+ * antes de consultar Keycloak o serializar nada
+ */
+final class ConditionalGet {
+
+    /**
+     * Las respuestas dependen del usuario que llama: solo caché privada y siempre revalidando
+     */
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Devuelve el 304 si If-None-Match coincide con el ETag; vacío si hay que generar la respuesta
+     */
+    static Mono<ResponseEntity<ApiResponse>> notModified(ServerWebExchange exchange, String etag) {
+        if (exchange.checkNotModified(etag)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build());
+        }
+        return Mono.empty();
+    }
+
+    static ResponseEntity<ApiResponse> ok(String etag, ApiResponse body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body);
+    }
+}
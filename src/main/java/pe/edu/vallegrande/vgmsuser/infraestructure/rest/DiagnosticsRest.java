@@ -0,0 +1,172 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pe.edu.vallegrande.vgmsuser.application.query.QueryPlan;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQuery;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQueryPlanner;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.infraestructure.jfr.JfrRecordingService;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.RequestIdentity;
+import pe.edu.vallegrande.vgmsuser.infraestructure.trace.SlowRequestTrace;
+import pe.edu.vallegrande.vgmsuser.infraestructure.trace.SlowRequestTracer;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoints de diagnóstico para administradores
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/users/admin/diagnostics")
+@RequiredArgsConstructor
+public class DiagnosticsRest {
+
+    private final SlowRequestTracer slowRequestTracer;
+    private final JfrRecordingService jfrRecordingService;
+    private final UserQueryPlanner queryPlanner;
+    private final EmailDispatcher emailDispatcher;
+
+    /**
+     * GET /users/admin/diagnostics/slow-requests
+     * Headers: X-User-Id, X-User-Roles (ADMIN)
+     * Últimas peticiones lentas con el desglose de llamadas a Keycloak, email e instituciones
+     */
+    @GetMapping("/slow-requests")
+    public Mono<ResponseEntity<Map<String, Object>>> getSlowRequests(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        log.info("🔴 ADMIN - Getting slow request traces (limit {})", limit);
+
+        List<SlowRequestTrace> traces = slowRequestTracer.latest(limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("threshold_ms", slowRequestTracer.getThresholdMillis());
+        response.put("capacity", slowRequestTracer.getCapacity());
+        response.put("total_recorded", slowRequestTracer.getTotalRecorded());
+        response.put("traces", traces);
+        return Mono.just(ResponseEntity.ok(response));
+    }
+
+    /**
+     * GET /users/admin/diagnostics/query-plan
+     * Headers: X-User-Id, X-User-Roles (ADMIN)
+     * Plan que usaría un listado con esos filtros (explain), sin ejecutarlo
+     */
+    @GetMapping("/query-plan")
+    public Mono<ResponseEntity<QueryPlan>> explainQuery(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            @RequestParam(name = "institution_id", required = false) String institutionId,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) UserStatus status) {
+
+        List<UserQuery> terms = new ArrayList<>();
+        if (institutionId != null && !institutionId.isBlank()) {
+            terms.add(UserQuery.institution(institutionId));
+        }
+        if (role != null && !role.isBlank()) {
+            terms.add(UserQuery.role(role));
+        }
+        if (status != null) {
+            terms.add(UserQuery.status(status));
+        }
+        return Mono.just(ResponseEntity.ok(queryPlanner.explain(UserQuery.and(terms.toArray(UserQuery[]::new)))));
+    }
+
+    /**
+     * GET /users/admin/diagnostics/email-dispatch
+     * Headers: X-User-Id, X-User-Roles (ADMIN)
+     * Correos en cola, en envío, enviados, fallidos y descartados desde el arranque
+     */
+    @GetMapping("/email-dispatch")
+    public Mono<ResponseEntity<Map<String, Long>>> getEmailDispatchStats(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity) {
+
+        return Mono.just(ResponseEntity.ok(emailDispatcher.getStats()));
+    }
+
+    /**
+     * POST /users/admin/diagnostics/jfr/start
+     * Headers: X-User-Id, X-User-Roles (ADMIN)
+     * Inicia una grabación JFR acotada (requiere app.diagnostics.jfr.enabled)
+     */
+    @PostMapping("/jfr/start")
+    public Mono<ResponseEntity<Map<String, Object>>> startJfrRecording(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            @RequestParam(name = "duration_seconds", required = false) Long durationSeconds) {
+
+        log.info("🔴 ADMIN - Starting JFR recording");
+
+        return Mono.fromCallable(() -> jfrRecordingService.start(
+                        durationSeconds != null ? Duration.ofSeconds(durationSeconds) : null))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(startedAt -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("message", "JFR recording started");
+                    response.put("started_at", startedAt);
+                    response.put("state", jfrRecordingService.getState());
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(error -> {
+                    log.error("Error starting JFR recording: {}", error.getMessage());
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("error", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse));
+                });
+    }
+
+    /**
+     * POST /users/admin/diagnostics/jfr/stop
+     * Headers: X-User-Id, X-User-Roles (ADMIN)
+     * Detiene la grabación y descarga el archivo .jfr
+     */
+    @PostMapping("/jfr/stop")
+    public Mono<ResponseEntity<?>> stopJfrRecording(@RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity) {
+
+        log.info("🔴 ADMIN - Stopping JFR recording");
+
+        return Mono.fromCallable(jfrRecordingService::stop)
+                .subscribeOn(Schedulers.boundedElastic())
+                .<ResponseEntity<?>>map(file -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename("vg-ms-user-" + Instant.now().getEpochSecond() + ".jfr")
+                                .build()
+                                .toString())
+                        .body(DataBufferUtils.read(file, DefaultDataBufferFactory.sharedInstance, 64 * 1024)
+                                .doFinally(signal -> deleteQuietly(file))))
+                .onErrorResume(error -> {
+                    log.error("Error stopping JFR recording: {}", error.getMessage());
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("error", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse));
+                });
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete JFR file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -4,16 +4,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import pe.edu.vallegrande.vgmsuser.application.service.IUserManagementService;
 import pe.edu.vallegrande.vgmsuser.domain.model.User;
-import pe.edu.vallegrande.vgmsuser.infraestructure.util.HeaderValidator;
+import pe.edu.vallegrande.vgmsuser.infraestructure.cache.DirectoryVersionTracker;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.ApiResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.ErrorResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.UserResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.RequestIdentity;
 import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
-import java.util.HashMap;
-import java.util.Map;
 
 @Slf4j
 @RestController
@@ -22,77 +24,52 @@ import java.util.Map;
 public class ProfileRest {
 
     private final IUserManagementService userManagementService;
+    private final DirectoryVersionTracker directoryVersions;
 
     // 🟢 PERSONAL ENDPOINTS - TEACHER, AUXILIARY, SECRETARY, DIRECTOR
 
+    /**
+     * GET /users/personal/profile
+     * ETag por versión del usuario; con If-None-Match vigente responde 304
+     */
     @GetMapping("/personal/profile")
-    public Mono<ResponseEntity<Map<String, Object>>> getPersonalProfile(ServerHttpRequest request) {
+    public Mono<ResponseEntity<ApiResponse>> getPersonalProfile(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            ServerWebExchange exchange) {
         
         log.info("🟢 PERSONAL - Getting personal profile");
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validatePersonalRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return userManagementService.getCompleteUserByKeycloakId(headers.getUserId())
-                    .map(user -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User retrieved successfully");
-                        response.put("user", user);
-                        return ResponseEntity.ok(response);
-                    })
-                    .switchIfEmpty(Mono.fromSupplier(() -> {
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", "User not found");
-                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
-                    }))
-                    .onErrorResume(error -> {
-                        log.error("Error getting personal profile: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        String etag = directoryVersions.userEtag(identity.getUserId());
+        return ConditionalGet.notModified(exchange, etag)
+                .switchIfEmpty(Mono.defer(() -> userManagementService.getCompleteUserByKeycloakId(identity.getUserId())
+                        .map(user -> ConditionalGet.ok(etag, new UserResponse("User retrieved successfully", user)))
+                        .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse("User not found"))))))
+                .onErrorResume(error -> {
+                    log.error("Error getting personal profile: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(error.getMessage())));
+                });
     }
 
     @PutMapping("/personal/update")
-    public Mono<ResponseEntity<Map<String, Object>>> updatePersonalProfile(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> updatePersonalProfile(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @Valid @RequestBody User user) {
         
         log.info("🟢 PERSONAL - Updating personal profile");
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validatePersonalRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            // NO permitir cambiar roles o instituciones
-            user.setRoles(null); // Ignorar roles en el request
-            user.setInstitutionId(null); // Ignorar institutionId en el request
-            
-            return userManagementService.updateCompleteUser(headers.getUserId(), user)
-                    .map(updatedUser -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User updated successfully");
-                        response.put("user", updatedUser);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error updating personal profile: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        // NO permitir cambiar roles o instituciones
+        user.setRoles(null); // Ignorar roles en el request
+        user.setInstitutionId(null); // Ignorar institutionId en el request
+        
+        return userManagementService.updateCompleteUser(identity.getUserId(), user)
+                .<ResponseEntity<ApiResponse>>map(updatedUser -> ResponseEntity.ok(new UserResponse("User updated successfully", updatedUser)))
+                .onErrorResume(error -> {
+                    log.error("Error updating personal profile: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().body(new ErrorResponse(error.getMessage())));
+                });
     }
 }
@@ -0,0 +1,38 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import pe.edu.vallegrande.vgmsuser.infraestructure.stream.UserChangeFeed;
+import reactor.core.publisher.Flux;
+
+/**
+ * Feed SSE de cambios de usuarios para comunicación entre microservicios.
+ * NO requiere headers de autenticación (uso interno), igual que /user-role
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class UserChangeStreamRest {
+
+    private final UserChangeFeed userChangeFeed;
+
+    /**
+     * GET /user-changes/stream
+     * Eventos "user-change" con id, institutionId, roles, status, hasAccess y version.
+     * Para reanudar se envía el último id recibido en Last-Event-ID (o en last_event_id)
+     */
+    @GetMapping(value = "/user-changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamUserChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "last_event_id", required = false) String lastEventIdParam) {
+
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        log.info("🔗 MICROSERVICE - Subscribing to user changes (last event id: {})", lastEventId);
+
+        return userChangeFeed.subscribe(lastEventId);
+    }
+}
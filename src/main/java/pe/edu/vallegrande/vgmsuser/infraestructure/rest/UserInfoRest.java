@@ -2,17 +2,23 @@ package pe.edu.vallegrande.vgmsuser.infraestructure.rest;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import pe.edu.vallegrande.vgmsuser.application.service.IUserManagementService;
 import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
 import pe.edu.vallegrande.vgmsuser.domain.model.dto.UserInfoResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.cache.EncodedUserInfo;
+import pe.edu.vallegrande.vgmsuser.infraestructure.cache.UserInfoCache;
 import reactor.core.publisher.Mono;
 
 /**
  * REST Controller para endpoints de comunicación entre microservicios
- * NO requiere headers de autenticación (uso interno)
+ * NO requiere headers de autenticación (uso interno).
+ * Las respuestas salen de UserInfoCache ya codificadas, con ETag (If-None-Match responde 304)
  */
 @Slf4j
 @RestController
@@ -21,6 +27,7 @@ import reactor.core.publisher.Mono;
 public class UserInfoRest {
 
     private final IUserManagementService userManagementService;
+    private final UserInfoCache userInfoCache;
 
     /**
      * GET /user-role/{user_email}
@@ -31,14 +38,16 @@ public class UserInfoRest {
      * @return UserInfoResponse con id, email, roles, institution_id, status, has_access
      */
     @GetMapping("/user-role/{user_email}")
-    public Mono<ResponseEntity<UserInfoResponse>> getUserRoleByEmail(@PathVariable("user_email") String userEmail) {
+    public Mono<ResponseEntity<DataBuffer>> getUserRoleByEmail(
+            @PathVariable("user_email") String userEmail,
+            ServerHttpResponse httpResponse) {
         log.info("🔗 MICROSERVICE - Getting user info by email: {}", userEmail);
         
-        return userManagementService.getCompleteUserByEmail(userEmail)
-                .map(keycloakUser -> {
-                    UserInfoResponse response = mapToUserInfoResponse(keycloakUser);
-                    log.info("✅ User found: {} with roles: {}", userEmail, response.getRoles());
-                    return ResponseEntity.ok(response);
+        return userInfoCache.getByEmail(userEmail, () -> userManagementService.getCompleteUserByEmail(userEmail)
+                        .map(this::mapToUserInfoResponse))
+                .map(encoded -> {
+                    log.info("✅ User found: {} with roles: {}", userEmail, encoded.getRoles());
+                    return toResponse(encoded, httpResponse);
                 })
                 .onErrorResume(error -> {
                     log.error("❌ Error getting user by email: {}", error.getMessage());
@@ -58,14 +67,16 @@ public class UserInfoRest {
      * @return UserInfoResponse con id, email, roles, institution_id, status, has_access
      */
     @GetMapping("/user-role-by-id/{user_id}")
-    public Mono<ResponseEntity<UserInfoResponse>> getUserRoleById(@PathVariable("user_id") String keycloakId) {
+    public Mono<ResponseEntity<DataBuffer>> getUserRoleById(
+            @PathVariable("user_id") String keycloakId,
+            ServerHttpResponse httpResponse) {
         log.info("🔗 MICROSERVICE - Getting user info by keycloakId: {}", keycloakId);
         
-        return userManagementService.getCompleteUserByKeycloakId(keycloakId)
-                .map(keycloakUser -> {
-                    UserInfoResponse response = mapToUserInfoResponse(keycloakUser);
-                    log.info("✅ User found: {} with roles: {}", keycloakUser.getEmail(), response.getRoles());
-                    return ResponseEntity.ok(response);
+        return userInfoCache.getById(keycloakId, () -> userManagementService.getCompleteUserByKeycloakId(keycloakId)
+                        .map(this::mapToUserInfoResponse))
+                .map(encoded -> {
+                    log.info("✅ User found: {} with roles: {}", encoded.getEmail(), encoded.getRoles());
+                    return toResponse(encoded, httpResponse);
                 })
                 .onErrorResume(error -> {
                     log.error("❌ Error getting user by keycloakId: {}", error.getMessage());
@@ -76,6 +87,18 @@ public class UserInfoRest {
                 });
     }
 
+    /**
+     * Envuelve los bytes cacheados sin copiarlos. Con If-None-Match igual al ETag,
+     * ResponseEntityResultHandler responde 304 sin escribir el cuerpo
+     */
+    private ResponseEntity<DataBuffer> toResponse(EncodedUserInfo encoded, ServerHttpResponse httpResponse) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(encoded.getJson().length)
+                .eTag(encoded.getEtag())
+                .body(httpResponse.bufferFactory().wrap(encoded.getJson()));
+    }
+
     /**
      * Mapea KeycloakUserDto a UserInfoResponse
      * @param keycloakUser Usuario de Keycloak
@@ -4,16 +4,31 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import pe.edu.vallegrande.vgmsuser.application.service.IUserManagementService;
 import pe.edu.vallegrande.vgmsuser.domain.model.User;
-import pe.edu.vallegrande.vgmsuser.infraestructure.util.HeaderValidator;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import pe.edu.vallegrande.vgmsuser.infraestructure.cache.DirectoryChange;
+import pe.edu.vallegrande.vgmsuser.infraestructure.cache.DirectoryChangeLog;
+import pe.edu.vallegrande.vgmsuser.infraestructure.cache.DirectoryChanges;
+import pe.edu.vallegrande.vgmsuser.infraestructure.cache.DirectoryVersionTracker;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.ApiResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.AvailabilityResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.ErrorResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.MessageResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.StaffChangesResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.UserListResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.response.UserResponse;
+import pe.edu.vallegrande.vgmsuser.infraestructure.search.UserSearchIndex;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.RequestIdentity;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -21,7 +36,13 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserManagementRest {
 
+    private static final String DIRECTORY_VERSION_HEADER = "X-Directory-Version";
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     private final IUserManagementService userManagementService;
+    private final DirectoryVersionTracker directoryVersions;
+    private final DirectoryChangeLog directoryChangeLog;
+    private final UserSearchIndex userSearchIndex;
 
     // 🟡 DIRECTOR ENDPOINTS - Headers HTTP v5.0
 
@@ -31,235 +52,247 @@ public class UserManagementRest {
      * Crear usuarios TEACHER, AUXILIARY, SECRETARY únicamente (institución se asigna automáticamente)
      */
     @PostMapping("/director/create")
-    public Mono<ResponseEntity<Map<String, Object>>> createStaffUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> createStaffUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @Valid @RequestBody User user) {
         
         log.info("🟡 DIRECTOR - Creating staff user with username: {}", user.getUsername());
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateDirectorRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            // Auto-asignar la institución del director
-            user.setInstitutionId(headers.getInstitutionId());
-            
-            return userManagementService.createCompleteUser(user)
-                    .flatMap(createdUser -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User created successfully");
-                        response.put("user", createdUser);
-                        return Mono.just(ResponseEntity.status(HttpStatus.CREATED).body(response));
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error creating staff user: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        // Auto-asignar la institución del director
+        user.setInstitutionId(identity.getInstitutionId());
+        
+        return userManagementService.createCompleteUser(user)
+                .<ResponseEntity<ApiResponse>>flatMap(createdUser -> Mono.just(ResponseEntity.status(HttpStatus.CREATED).body(new UserResponse("User created successfully", createdUser))))
+                .onErrorResume(error -> {
+                    log.error("Error creating staff user: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().body(new ErrorResponse(error.getMessage())));
+                });
     }
 
+    /**
+     * GET /users/director/staff
+     * ETag por versión de la institución; con If-None-Match vigente responde 304.
+     * X-Directory-Version es el cursor para pedir después solo los cambios (/director/staff/changes)
+     */
     @GetMapping("/director/staff")
-    public Mono<ResponseEntity<Map<String, Object>>> getAllStaff(ServerHttpRequest request) {
+    public Mono<ResponseEntity<ApiResponse>> getAllStaff(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            ServerWebExchange exchange) {
         
         log.info("🟡 DIRECTOR - Getting all staff");
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateDirectorRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return userManagementService.getStaffByInstitution(headers.getInstitutionId())
-                    .collectList()
-                    .map(staff -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "Users retrieved successfully");
-                        response.put("total_users", staff.size());
-                        response.put("users", staff);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error getting staff: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        // El cursor se lee antes que el ETag: si un cambio se cuela entre ambos, el cliente lo recibirá otra vez
+        exchange.getResponse().getHeaders().set(DIRECTORY_VERSION_HEADER,
+                directoryVersions.cursor(directoryVersions.institutionVersion(identity.getInstitutionId())));
+        String etag = directoryVersions.institutionEtag(identity.getInstitutionId());
+        return ConditionalGet.notModified(exchange, etag)
+                .switchIfEmpty(Mono.defer(() -> userManagementService.getStaffByInstitution(identity.getInstitutionId())
+                        .collectList()
+                        .map(staff -> ConditionalGet.ok(etag, UserListResponse.of("Users retrieved successfully", staff)))))
+                .onErrorResume(error -> {
+                    log.error("Error getting staff: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(error.getMessage())));
+                });
+    }
+
+    /**
+     * GET /users/director/staff/changes?since={version}
+     * Headers: X-User-Id, X-User-Roles (DIRECTOR), X-Institution-Id (obligatorio)
+     * Usuarios del personal agregados, modificados o retirados desde la versión indicada.
+     * Si la versión no es de este arranque o ya salió del registro responde full_resync = true
+     */
+    @GetMapping("/director/staff/changes")
+    public Mono<ResponseEntity<ApiResponse>> getStaffChanges(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            @RequestParam(required = false) String since) {
+
+        log.info("🟡 DIRECTOR - Getting staff changes since: {}", since);
+
+        String institutionId = identity.getInstitutionId();
+        DirectoryChanges changes = directoryChangeLog.changesSince(institutionId, directoryVersions.parseCursor(since));
+        String version = directoryVersions.cursor(changes.getVersion());
+        if (changes.isFullResync()) {
+            return Mono.just(ResponseEntity.ok(StaffChangesResponse.fullResync(version)));
         }
+
+        return Flux.fromIterable(changes.getChanges())
+                .concatMap(this::resolveChange)
+                .collectList()
+                .<ResponseEntity<ApiResponse>>map(resolved -> {
+                    List<KeycloakUserDto> changedUsers = new ArrayList<>();
+                    List<String> removedUserIds = new ArrayList<>();
+                    for (DirectoryChange change : resolved) {
+                        if (!change.isRemoved() && isStaffOf(change.getUser(), institutionId)) {
+                            changedUsers.add(change.getUser());
+                        } else {
+                            removedUserIds.add(change.getKeycloakId());
+                        }
+                    }
+                    return ResponseEntity.ok(new StaffChangesResponse(
+                            "Changes retrieved successfully", version, false, changedUsers, removedUserIds));
+                })
+                .onErrorResume(error -> {
+                    log.error("Error getting staff changes: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(error.getMessage())));
+                });
+    }
+
+    /**
+     * GET /users/director/search?q={texto}&limit={n}
+     * Headers: X-User-Id, X-User-Roles (DIRECTOR), X-Institution-Id (obligatorio)
+     * Búsqueda mientras se escribe en el personal de la institución por nombre, apellido, email,
+     * username o número de documento, sin distinguir tildes ni mayúsculas
+     */
+    @GetMapping("/director/search")
+    public Mono<ResponseEntity<ApiResponse>> searchStaff(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            @RequestParam(name = "q", defaultValue = "") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        log.debug("🟡 DIRECTOR - Searching staff: {}", query);
+
+        return userSearchIndex.search(identity.getInstitutionId(), query, Math.min(limit, MAX_SEARCH_RESULTS))
+                .<ResponseEntity<ApiResponse>>map(users -> ResponseEntity.ok(UserListResponse.of("Users retrieved successfully", users)))
+                .onErrorResume(error -> {
+                    log.error("Error searching staff: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(error.getMessage())));
+                });
+    }
+
+    /**
+     * GET /users/director/availability?username={u}&email={e}
+     * GET /users/admin/availability?username={u}&email={e}
+     * Headers: X-User-Id, X-User-Roles (DIRECTOR o ADMIN)
+     * Validación mientras se escribe en los formularios de alta; responde desde el índice local de unicidad
+     */
+    @GetMapping({"/director/availability", "/admin/availability"})
+    public Mono<ResponseEntity<ApiResponse>> checkAvailability(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            return Mono.just(ResponseEntity.badRequest().body(new ErrorResponse("Debe indicar username o email")));
+        }
+
+        return userManagementService.checkAvailability(username, email)
+                .<ResponseEntity<ApiResponse>>map(availability -> ResponseEntity.ok(new AvailabilityResponse("Availability checked successfully", availability)))
+                .onErrorResume(error -> {
+                    log.error("Error checking availability: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(error.getMessage())));
+                });
+    }
+
+    /**
+     * Los cambios sin estado posterior (por ejemplo, cambio de contraseña) se vuelven a leer;
+     * si el usuario ya no existe se informa como retirado
+     */
+    private Mono<DirectoryChange> resolveChange(DirectoryChange change) {
+        if (change.isRemoved() || change.getUser() != null) {
+            return Mono.just(change);
+        }
+        return userManagementService.getCompleteUserByKeycloakId(change.getKeycloakId())
+                .map(user -> new DirectoryChange(change.getVersion(), change.getKeycloakId(), false, user))
+                .onErrorResume(error -> Mono.empty())
+                .defaultIfEmpty(new DirectoryChange(change.getVersion(), change.getKeycloakId(), true, null));
+    }
+
+    private static boolean isStaffOf(KeycloakUserDto user, String institutionId) {
+        return user != null && institutionId.equals(user.getInstitutionId()) && user.hasAnyRole(Role.STAFF_MASK);
     }
 
     @GetMapping("/director/by-role/{role}")
-    public Mono<ResponseEntity<Map<String, Object>>> getStaffByRole(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> getStaffByRole(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable String role) {
         
         log.info("🟡 DIRECTOR - Getting staff by role: {}", role);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateDirectorRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return userManagementService.getStaffByInstitutionAndRole(headers.getInstitutionId(), role)
-                    .collectList()
-                    .map(staff -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "Users retrieved successfully");
-                        response.put("total_users", staff.size());
-                        response.put("users", staff);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error getting staff by role: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return userManagementService.getStaffByInstitutionAndRole(identity.getInstitutionId(), role)
+                .collectList()
+                .<ResponseEntity<ApiResponse>>map(staff -> ResponseEntity.ok(UserListResponse.of("Users retrieved successfully", staff)))
+                .onErrorResume(error -> {
+                    log.error("Error getting staff by role: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(error.getMessage())));
+                });
     }
 
     @PutMapping("/director/update/{user_id}")
-    public Mono<ResponseEntity<Map<String, Object>>> updateStaffUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> updateStaffUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable("user_id") String keycloakId,
             @Valid @RequestBody User user) {
         
         log.info("🟡 DIRECTOR - Updating staff user with keycloakId: {}", keycloakId);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateDirectorRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            // NO permitir cambiar roles o instituciones
-            user.setRoles(null); // Ignorar roles en el request
-            user.setInstitutionId(null); // Ignorar institutionId en el request
-            
-            return userManagementService.updateCompleteUser(keycloakId, user)
-                    .map(updatedUser -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User updated successfully");
-                        response.put("user", updatedUser);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error updating staff user: {}", error.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", error.getMessage());
-                        return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        // NO permitir cambiar roles o instituciones
+        user.setRoles(null); // Ignorar roles en el request
+        user.setInstitutionId(null); // Ignorar institutionId en el request
+        
+        return userManagementService.updateCompleteUser(keycloakId, user)
+                .<ResponseEntity<ApiResponse>>map(updatedUser -> ResponseEntity.ok(new UserResponse("User updated successfully", updatedUser)))
+                .onErrorResume(error -> {
+                    log.error("Error updating staff user: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().body(new ErrorResponse(error.getMessage())));
+                });
     }
 
     @DeleteMapping("/director/delete/{user_id}")
-    public Mono<ResponseEntity<Map<String, Object>>> deleteStaffUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> deleteStaffUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable("user_id") String keycloakId) {
         
         log.info("🟡 DIRECTOR - Deleting (physical) staff user with keycloakId: {}", keycloakId);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateDirectorRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return userManagementService.deleteCompleteUser(keycloakId)
-                    .map(message -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", message);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(e -> {
-                        log.error("Error deleting staff user: {}", e.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", e.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return userManagementService.deleteCompleteUser(keycloakId)
+                .<ResponseEntity<ApiResponse>>map(message -> ResponseEntity.ok(new MessageResponse(message)))
+                .onErrorResume(e -> {
+                    log.error("Error deleting staff user: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(e.getMessage())));
+                });
     }
 
     @PatchMapping("/director/deactivate/{user_id}")
-    public Mono<ResponseEntity<Map<String, Object>>> deactivateStaffUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> deactivateStaffUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable("user_id") String keycloakId) {
         
         log.info("🟡 DIRECTOR - Deactivating staff user with keycloakId: {}", keycloakId);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateDirectorRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return userManagementService.deactivateUser(keycloakId)
-                    .map(deactivatedUser -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User deactivated successfully");
-                        response.put("user", deactivatedUser);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(e -> {
-                        log.error("Error deactivating staff user: {}", e.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", e.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return userManagementService.deactivateUser(keycloakId)
+                .<ResponseEntity<ApiResponse>>map(deactivatedUser -> ResponseEntity.ok(new UserResponse("User deactivated successfully", deactivatedUser)))
+                .onErrorResume(e -> {
+                    log.error("Error deactivating staff user: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(e.getMessage())));
+                });
     }
 
     @PatchMapping("/director/activate/{user_id}")
-    public Mono<ResponseEntity<Map<String, Object>>> activateStaffUser(
-            ServerHttpRequest request,
+    public Mono<ResponseEntity<ApiResponse>> activateStaffUser(
+            @RequestAttribute(RequestIdentity.ATTRIBUTE) RequestIdentity identity,
             @PathVariable("user_id") String keycloakId) {
         
         log.info("🟡 DIRECTOR - Activating staff user with keycloakId: {}", keycloakId);
         
-        try {
-            HeaderValidator.HeaderValidationResult headers = HeaderValidator.validateDirectorRole(request);
-            log.info("Headers - User ID: {}, Roles: {}, Institution: {}", headers.getUserId(), headers.getUserRoles(), headers.getInstitutionId());
-            
-            return userManagementService.activateUser(keycloakId)
-                    .map(activatedUser -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "User activated successfully");
-                        response.put("user", activatedUser);
-                        return ResponseEntity.ok(response);
-                    })
-                    .onErrorResume(e -> {
-                        log.error("Error activating staff user: {}", e.getMessage());
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", e.getMessage());
-                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
-                    });
-        } catch (Exception e) {
-            log.error("Header validation failed: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().body(errorResponse));
-        }
+        log.info("Headers - User ID: {}, Roles: {}, Institution: {}", identity.getUserId(), identity.getUserRoles(), identity.getInstitutionId());
+        
+        return userManagementService.activateUser(keycloakId)
+                .<ResponseEntity<ApiResponse>>map(activatedUser -> ResponseEntity.ok(new UserResponse("User activated successfully", activatedUser)))
+                .onErrorResume(e -> {
+                    log.error("Error activating staff user: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse(e.getMessage())));
+                });
     }
 }
@@ -0,0 +1,25 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * Envoltorios tipados de las respuestas REST. Sustituyen a los HashMap con claves
+ * "message"/"user"/"users"/"total_users"/"error" manteniendo el mismo JSON.
+ * DEDUCTION no escribe ningún id de tipo, pero permite que el encoder acepte el tipo
+ * declarado ApiResponse y serialice con el record concreto
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.DEDUCTION)
+@JsonSubTypes({
+        @JsonSubTypes.Type(UserResponse.class),
+        @JsonSubTypes.Type(UserListResponse.class),
+        @JsonSubTypes.Type(MessageResponse.class),
+        @JsonSubTypes.Type(ErrorResponse.class),
+        @JsonSubTypes.Type(StaffChangesResponse.class),
+        @JsonSubTypes.Type(UserStatisticsResponse.class),
+        @JsonSubTypes.Type(AvailabilityResponse.class)
+})
+public sealed interface ApiResponse
+        permits UserResponse, UserListResponse, MessageResponse, ErrorResponse, StaffChangesResponse,
+                UserStatisticsResponse, AvailabilityResponse {
+}
@@ -0,0 +1,9 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.UserAvailability;
+
+/**
+ * {"message": ..., "availability": {...}}
+ */
+public record AvailabilityResponse(String message, UserAvailability availability) implements ApiResponse {
+}
@@ -0,0 +1,7 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+/**
+ * {"error": ...}
+ */
+public record ErrorResponse(String error) implements ApiResponse {
+}
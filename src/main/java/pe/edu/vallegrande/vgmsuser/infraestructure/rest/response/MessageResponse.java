@@ -0,0 +1,7 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+/**
+ * {"message": ...}
+ */
+public record MessageResponse(String message) implements ApiResponse {
+}
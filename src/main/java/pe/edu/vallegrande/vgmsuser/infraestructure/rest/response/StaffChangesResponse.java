@@ -0,0 +1,21 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+import java.util.List;
+
+/**
+ * {"message": ..., "version": ..., "full_resync": bool, "changed_users": [...], "removed_user_ids": [...]}
+ */
+public record StaffChangesResponse(
+        String message,
+        String version,
+        @JsonProperty("full_resync") boolean fullResync,
+        @JsonProperty("changed_users") List<KeycloakUserDto> changedUsers,
+        @JsonProperty("removed_user_ids") List<String> removedUserIds) implements ApiResponse {
+
+    public static StaffChangesResponse fullResync(String version) {
+        return new StaffChangesResponse("Full resync required", version, true, List.of(), List.of());
+    }
+}
@@ -0,0 +1,19 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+import java.util.List;
+
+/**
+ * {"message": ..., "total_users": n, "users": [...]}
+ */
+public record UserListResponse(
+        String message,
+        @JsonProperty("total_users") int totalUsers,
+        List<KeycloakUserDto> users) implements ApiResponse {
+
+    public static UserListResponse of(String message, List<KeycloakUserDto> users) {
+        return new UserListResponse(message, users.size(), users);
+    }
+}
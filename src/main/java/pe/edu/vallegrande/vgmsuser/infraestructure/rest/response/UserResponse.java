@@ -0,0 +1,9 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+/**
+ * {"message": ..., "user": {...}}
+ */
+public record UserResponse(String message, KeycloakUserDto user) implements ApiResponse {
+}
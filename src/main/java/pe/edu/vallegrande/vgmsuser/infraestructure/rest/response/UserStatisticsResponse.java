@@ -0,0 +1,9 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+import pe.edu.vallegrande.vgmsuser.infraestructure.stats.UserStatistics;
+
+/**
+ * {"message": ..., "statistics": {...}}
+ */
+public record UserStatisticsResponse(String message, UserStatistics statistics) implements ApiResponse {
+}
@@ -0,0 +1,66 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para la búsqueda: sin tildes ni diéresis (ñ se compara como n),
+ * en minúsculas y dividido en palabras por cualquier carácter que no sea letra o dígito
+ */
+final class SearchText {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchText() {
+    }
+
+    static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(fold(text))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Gramas de una palabra: sus prefijos de 1 y 2 caracteres (marcados con ^) y todos sus trigramas
+     */
+    static List<String> grams(String word) {
+        List<String> grams = new ArrayList<>();
+        grams.add("^" + word.substring(0, 1));
+        if (word.length() >= 2) {
+            grams.add("^" + word.substring(0, 2));
+        }
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            grams.add(word.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Gramas que debe tener una palabra que contenga el término; los términos cortos solo buscan por prefijo
+     */
+    static List<String> queryGrams(String term) {
+        if (term.length() <= 2) {
+            return List.of("^" + term);
+        }
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            grams.add(term.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,285 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.vgmsuser.application.service.IUserManagementService;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria para buscar personal mientras se escribe, por institución.
+ * Indexa nombres, apellidos, email, username y número de documento normalizados (sin tildes,
+ * en minúsculas) con prefijos de 1-2 caracteres y trigramas de cada palabra.
+ * <ul>
+ *   <li>El índice de una institución se carga la primera vez que se busca en ella</li>
+ *   <li>Después se mantiene con cada UserChangeEvent; los usuarios que cambian durante la carga
+ *   conservan lo que dijo su evento</li>
+ *   <li>Pasado index-max-age se recarga en segundo plano, para recoger lo que cambió en Keycloak sin
+ *   pasar por este servicio; mientras tanto responde el índice anterior (0 no lo recarga)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+
+    private final IUserManagementService userManagementService;
+    private final long maxAgeNanos;
+    private final Map<String, InstitutionIndex> indexes = new ConcurrentHashMap<>();
+
+    public UserSearchIndex(IUserManagementService userManagementService,
+                           @Value("${app.search.index-max-age:10m}") Duration maxAge) {
+        this.userManagementService = userManagementService;
+        this.maxAgeNanos = maxAge.isZero() || maxAge.isNegative() ? 0 : maxAge.toNanos();
+    }
+
+    /**
+     * Hasta limit usuarios del personal de la institución que contienen todas las palabras de la consulta,
+     * primero los que las tienen como palabra completa o como prefijo
+     */
+    public Mono<List<KeycloakUserDto>> search(String institutionId, String query, int limit) {
+        List<String> terms = SearchText.words(query);
+        if (institutionId == null || terms.isEmpty() || limit <= 0) {
+            return Mono.just(List.of());
+        }
+        InstitutionIndex index = indexes.computeIfAbsent(institutionId, InstitutionIndex::new);
+        if (index.expired()) {
+            index.rebuild();
+        }
+        return index.ready().then(Mono.fromCallable(() -> index.search(terms, limit)));
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        String keycloakId = event.getKeycloakId();
+        if (keycloakId == null) {
+            return;
+        }
+        KeycloakUserDto current = event.getCurrent();
+        if (current == null && event.getType() != UserChangeEvent.Type.DELETED) {
+            // Cambio de contraseña: no cambia ningún campo indexado
+            return;
+        }
+        for (InstitutionIndex index : indexes.values()) {
+            boolean belongs = current != null && index.institutionId.equals(current.getInstitutionId())
+                    && current.hasAnyRole(Role.STAFF_MASK);
+            index.apply(keycloakId, belongs ? current : null);
+            // La recarga en curso también recibe el cambio: su carga no lo pisa
+            InstitutionIndex successor = index.successor;
+            if (successor != null) {
+                successor.apply(keycloakId, belongs ? current : null);
+            }
+        }
+    }
+
+    private final class InstitutionIndex {
+
+        private final String institutionId;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Document> documents = new HashMap<>();
+        private final Map<String, Set<String>> postings = new HashMap<>();
+        private Set<String> touchedDuringLoad = new HashSet<>();
+        private final Mono<Void> loading;
+        /** System.nanoTime() del fin de la carga; 0 mientras carga */
+        private volatile long loadedAt;
+        /** Recarga en curso que reemplazará a este índice cuando termine */
+        private volatile InstitutionIndex successor;
+
+        private InstitutionIndex(String institutionId) {
+            this.institutionId = institutionId;
+            this.loading = userManagementService.getStaffByInstitution(institutionId)
+                    .collectList()
+                    .doOnNext(this::load)
+                    .doOnError(error -> {
+                        log.warn("Could not load search index for institution {}: {}", institutionId, error.getMessage());
+                        indexes.remove(institutionId, this);
+                    })
+                    .then()
+                    .cache();
+        }
+
+        private Mono<Void> ready() {
+            return loading;
+        }
+
+        private boolean expired() {
+            long loaded = loadedAt;
+            return maxAgeNanos > 0 && loaded != 0 && System.nanoTime() - loaded >= maxAgeNanos;
+        }
+
+        /**
+         * Carga un índice nuevo en segundo plano y lo pone en lugar de este al terminar; si falla,
+         * este sigue respondiendo y la próxima búsqueda lo vuelve a intentar
+         */
+        private void rebuild() {
+            InstitutionIndex fresh;
+            synchronized (this) {
+                if (successor != null) {
+                    return;
+                }
+                fresh = new InstitutionIndex(institutionId);
+                successor = fresh;
+            }
+            fresh.ready().subscribe(
+                    null,
+                    error -> successor = null,
+                    // successor queda puesto: un evento que aún vea este índice se reenvía al nuevo
+                    () -> indexes.replace(institutionId, this, fresh));
+        }
+
+        private void load(List<KeycloakUserDto> staff) {
+            lock.writeLock().lock();
+            try {
+                for (KeycloakUserDto user : staff) {
+                    if (!touchedDuringLoad.contains(user.getKeycloakId())) {
+                        put(user.getKeycloakId(), user);
+                    }
+                }
+                touchedDuringLoad = null;
+                loadedAt = System.nanoTime();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Search index loaded for institution {}: {} users", institutionId, staff.size());
+        }
+
+        /**
+         * Reemplaza (o con null elimina) el documento de un usuario
+         */
+        private void apply(String keycloakId, KeycloakUserDto user) {
+            lock.writeLock().lock();
+            try {
+                if (touchedDuringLoad != null) {
+                    touchedDuringLoad.add(keycloakId);
+                }
+                remove(keycloakId);
+                if (user != null) {
+                    put(keycloakId, user);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private List<KeycloakUserDto> search(List<String> terms, int limit) {
+            lock.readLock().lock();
+            try {
+                Set<String> candidates = null;
+                for (String term : terms) {
+                    for (String gram : SearchText.queryGrams(term)) {
+                        Set<String> ids = postings.getOrDefault(gram, Set.of());
+                        if (candidates == null) {
+                            candidates = new HashSet<>(ids);
+                        } else {
+                            candidates.retainAll(ids);
+                        }
+                        if (candidates.isEmpty()) {
+                            return List.of();
+                        }
+                    }
+                }
+
+                // Los trigramas pueden coincidir en palabras distintas: se verifica cada término y se puntúa
+                PriorityQueue<Match> top = new PriorityQueue<>(Match.ORDER.reversed());
+                for (String id : candidates) {
+                    Document document = documents.get(id);
+                    int score = document.score(terms);
+                    if (score > 0) {
+                        top.add(new Match(document, score));
+                        if (top.size() > limit) {
+                            top.poll();
+                        }
+                    }
+                }
+                List<Match> matches = new ArrayList<>(top);
+                matches.sort(Match.ORDER);
+                return matches.stream().map(match -> match.document().user()).toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void put(String keycloakId, KeycloakUserDto user) {
+            Document document = Document.of(user);
+            documents.put(keycloakId, document);
+            for (String gram : document.grams()) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(keycloakId);
+            }
+        }
+
+        private void remove(String keycloakId) {
+            Document document = documents.remove(keycloakId);
+            if (document == null) {
+                return;
+            }
+            for (String gram : document.grams()) {
+                Set<String> ids = postings.get(gram);
+                if (ids != null && ids.remove(keycloakId) && ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private record Document(KeycloakUserDto user, List<String> words, Set<String> grams, String sortKey) {
+
+        private static Document of(KeycloakUserDto user) {
+            List<String> words = new ArrayList<>();
+            words.addAll(SearchText.words(user.getFirstname()));
+            words.addAll(SearchText.words(user.getLastname()));
+            words.addAll(SearchText.words(user.getEmail()));
+            words.addAll(SearchText.words(user.getUsername()));
+            words.addAll(SearchText.words(user.getDocumentNumber()));
+            Set<String> grams = new HashSet<>();
+            words.forEach(word -> grams.addAll(SearchText.grams(word)));
+            String sortKey = SearchText.fold(user.getLastname()) + " " + SearchText.fold(user.getFirstname());
+            return new Document(user, List.copyOf(words), Set.copyOf(grams), sortKey);
+        }
+
+        /**
+         * 3 por palabra exacta, 2 por prefijo, 1 por contenido; 0 si algún término no aparece
+         */
+        private int score(List<String> terms) {
+            int total = 0;
+            for (String term : terms) {
+                int best = 0;
+                for (String word : words) {
+                    if (word.equals(term)) {
+                        best = 3;
+                        break;
+                    } else if (word.startsWith(term)) {
+                        best = Math.max(best, 2);
+                    } else if (best == 0 && word.contains(term)) {
+                        best = 1;
+                    }
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+    }
+
+    private record Match(Document document, int score) {
+        private static final Comparator<Match> ORDER = Comparator.comparingInt(Match::score).reversed()
+                .thenComparing(match -> match.document().sortKey());
+    }
+}
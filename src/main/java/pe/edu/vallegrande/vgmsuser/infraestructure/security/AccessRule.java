@@ -0,0 +1,44 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.security;
+
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+
+/**
+ * Requisitos de rol por grupo de endpoints: basta con tener alguno de los roles de la máscara
+ */
+public enum AccessRule {
+
+    ADMIN(Role.admin.bit(),
+            "Access denied. Admin role required", null),
+
+    DIRECTOR(Role.director.bit(),
+            "Access denied. Director role required", "Director users must have Institution-Id"),
+
+    PERSONAL(Role.STAFF_MASK,
+            "Access denied. Personal role required", "Personal users must have Institution-Id");
+
+    private final int requiredRoles;
+    private final String forbiddenMessage;
+    private final String missingInstitutionMessage;
+
+    AccessRule(int requiredRoles, String forbiddenMessage, String missingInstitutionMessage) {
+        this.requiredRoles = requiredRoles;
+        this.forbiddenMessage = forbiddenMessage;
+        this.missingInstitutionMessage = missingInstitutionMessage;
+    }
+
+    boolean allows(RequestIdentity identity) {
+        return identity.hasAnyRole(requiredRoles);
+    }
+
+    boolean requiresInstitution() {
+        return missingInstitutionMessage != null;
+    }
+
+    String getForbiddenMessage() {
+        return forbiddenMessage;
+    }
+
+    String getMissingInstitutionMessage() {
+        return missingInstitutionMessage;
+    }
+}
@@ -0,0 +1,117 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resuelve la identidad de las rutas protegidas una sola vez por petición y aplica el
+ * requisito de rol declarado para cada grupo de rutas. Los rechazos mantienen el contrato
+ * anterior de los handlers (400 con {"error": ...}) y se escriben desde cuerpos precalculados
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class IdentityWebFilter implements WebFilter {
+
+    private static final PathPatternParser PARSER = PathPatternParser.defaultInstance;
+
+    private static final List<Route> ROUTES = List.of(
+            new Route(PARSER.parse("/api/v1/users/admin/**"), AccessRule.ADMIN),
+            new Route(PARSER.parse("/api/v1/users/director/**"), AccessRule.DIRECTOR),
+            new Route(PARSER.parse("/api/v1/users/personal/**"), AccessRule.PERSONAL));
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final byte[] MISSING_USER_ID = errorBody(HttpStatus.BAD_REQUEST, "Header X-User-Id is required");
+    private static final byte[] MISSING_USER_ROLES = errorBody(HttpStatus.BAD_REQUEST, "Header X-User-Roles is required");
+    private static final Map<AccessRule, byte[]> FORBIDDEN = new EnumMap<>(AccessRule.class);
+    private static final Map<AccessRule, byte[]> MISSING_INSTITUTION = new EnumMap<>(AccessRule.class);
+
+    static {
+        for (AccessRule rule : AccessRule.values()) {
+            FORBIDDEN.put(rule, errorBody(HttpStatus.FORBIDDEN, rule.getForbiddenMessage()));
+            if (rule.requiresInstitution()) {
+                MISSING_INSTITUTION.put(rule, errorBody(HttpStatus.BAD_REQUEST, rule.getMissingInstitutionMessage()));
+            }
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        AccessRule rule = ruleFor(exchange.getRequest().getPath().pathWithinApplication());
+        if (rule == null) {
+            return chain.filter(exchange);
+        }
+
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (RequestIdentity.isBlank(headers.getFirst(RequestIdentity.USER_ID_HEADER))) {
+            return reject(exchange, MISSING_USER_ID);
+        }
+        if (RequestIdentity.isBlank(headers.getFirst(RequestIdentity.USER_ROLES_HEADER))) {
+            return reject(exchange, MISSING_USER_ROLES);
+        }
+
+        RequestIdentity identity = RequestIdentity.from(headers);
+        if (!rule.allows(identity)) {
+            return reject(exchange, FORBIDDEN.get(rule));
+        }
+        if (rule.requiresInstitution() && identity.getInstitutionId() == null) {
+            return reject(exchange, MISSING_INSTITUTION.get(rule));
+        }
+
+        exchange.getAttributes().put(RequestIdentity.ATTRIBUTE, identity);
+        return chain.filter(exchange);
+    }
+
+    static AccessRule ruleFor(PathContainer path) {
+        for (Route route : ROUTES) {
+            if (route.pattern().matches(path)) {
+                return route.rule();
+            }
+        }
+        return null;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, byte[] body) {
+        log.warn("Header validation failed for {} {}", exchange.getRequest().getMethod(), exchange.getRequest().getPath());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.BAD_REQUEST);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * Mismo texto que devolvían los handlers: el mensaje de ResponseStatusException
+     */
+    private static byte[] errorBody(HttpStatus status, String reason) {
+        try {
+            return MAPPER.writeValueAsBytes(Map.of("error", new ResponseStatusException(status, reason).getMessage()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Route(PathPattern pattern, AccessRule rule) {
+    }
+}
@@ -0,0 +1,202 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tokens de reseteo de contraseña firmados con HMAC-SHA256, sin estado en Keycloak.
+ * Formato: base64url(kid|keycloakId|expiración|versión de credencial) + "." + base64url(firma)
+ * <ul>
+ *   <li>La firma y la expiración se verifican en memoria: un token alterado o vencido no llega a Keycloak</li>
+ *   <li>La versión de credencial se deriva de passwordCreatedAt; al cambiar la contraseña cambia y
+ *   todos los tokens emitidos antes dejan de valer (uso único)</li>
+ *   <li>Rotación: la primera clave de app.reset-token.keys firma, las demás solo verifican</li>
+ *   <li>Sin claves el arranque falla, salvo en los perfiles dev, test y performance: con una clave
+ *   efímera cada reinicio invalidaría los enlaces ya enviados y las réplicas rechazarían los tokens
+ *   de las otras</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class PasswordResetTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String SEPARATOR = "|";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final Profiles EPHEMERAL_KEY_PROFILES = Profiles.of("dev", "test", "performance");
+
+    private final String activeKeyId;
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+    private final Duration resetTtl;
+    private final Duration newUserTtl;
+    private final Clock clock;
+
+    @Autowired
+    public PasswordResetTokens(
+            @Value("${app.reset-token.keys:}") List<String> keys,
+            @Value("${app.reset-token.ttl:24h}") Duration resetTtl,
+            @Value("${app.reset-token.new-user-ttl:7d}") Duration newUserTtl,
+            Environment environment) {
+        this(requireKeys(keys, environment), resetTtl, newUserTtl, Clock.systemUTC());
+    }
+
+    /**
+     * Para pruebas y benchmarks: sin claves usa una clave efímera
+     */
+    public PasswordResetTokens(List<String> keys, Duration resetTtl, Duration newUserTtl) {
+        this(keys, resetTtl, newUserTtl, Clock.systemUTC());
+    }
+
+    PasswordResetTokens(List<String> keys, Duration resetTtl, Duration newUserTtl, Clock clock) {
+        this.resetTtl = resetTtl;
+        this.newUserTtl = newUserTtl;
+        this.clock = clock;
+        for (String entry : keys) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2 || parts[0].isEmpty() || parts[0].contains(SEPARATOR)) {
+                throw new IllegalStateException("Clave de token de reseteo inválida, se espera kid:secreto-base64");
+            }
+            this.keys.put(parts[0], new SecretKeySpec(Base64.getDecoder().decode(parts[1]), ALGORITHM));
+        }
+        if (this.keys.isEmpty()) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            this.keys.put("ephemeral", new SecretKeySpec(secret, ALGORITHM));
+            log.warn("No app.reset-token.keys configured: using an ephemeral key, reset tokens will not survive a restart");
+        }
+        this.activeKeyId = this.keys.keySet().iterator().next();
+    }
+
+    private static List<String> requireKeys(List<String> keys, Environment environment) {
+        boolean configured = keys.stream().anyMatch(key -> !key.isBlank());
+        if (!configured && !environment.acceptsProfiles(EPHEMERAL_KEY_PROFILES)) {
+            throw new IllegalStateException(
+                    "Falta app.reset-token.keys (variable RESET_TOKEN_KEYS): sin clave fija los enlaces de reseteo no sobreviven a un reinicio");
+        }
+        return keys;
+    }
+
+    /**
+     * Token de "olvidé mi contraseña", válido durante app.reset-token.ttl
+     */
+    public String issue(KeycloakUserDto user) {
+        return issue(user, resetTtl);
+    }
+
+    /**
+     * Token del correo de credenciales temporales, válido durante app.reset-token.new-user-ttl
+     */
+    public String issueForNewUser(KeycloakUserDto user) {
+        return issue(user, newUserTtl);
+    }
+
+    /**
+     * Token para el usuario válido durante ttl y mientras no cambie su contraseña
+     */
+    private String issue(KeycloakUserDto user, Duration ttl) {
+        long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+        String payload = String.join(SEPARATOR, activeKeyId, user.getKeycloakId(),
+                Long.toString(expiresAt), credentialVersion(user));
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(keys.get(activeKeyId), payloadBytes));
+    }
+
+    /**
+     * Verifica firma y expiración sin consultar a Keycloak; lanza RuntimeException si el token no vale
+     */
+    public Claims verify(String token) {
+        String[] parts = token == null ? new String[0] : token.split("\\.", -1);
+        if (parts.length != 2) {
+            throw invalid();
+        }
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(parts[0]);
+            signature = DECODER.decode(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", -1);
+        if (fields.length != 4) {
+            throw invalid();
+        }
+        SecretKeySpec key = keys.get(fields[0]);
+        if (key == null || !MessageDigest.isEqual(sign(key, payloadBytes), signature)) {
+            throw invalid();
+        }
+        Instant expiresAt;
+        try {
+            expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[2]));
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+        if (!clock.instant().isBefore(expiresAt)) {
+            throw invalid();
+        }
+        return new Claims(fields[1], expiresAt, fields[3]);
+    }
+
+    /**
+     * True si el token se emitió para la contraseña actual del usuario
+     */
+    public boolean isCurrent(Claims claims, KeycloakUserDto user) {
+        return claims.keycloakId().equals(user.getKeycloakId())
+                && MessageDigest.isEqual(claims.credentialVersion().getBytes(StandardCharsets.UTF_8),
+                        credentialVersion(user).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Huella corta de passwordCreatedAt: el token no expone la fecha, solo permite compararla
+     */
+    private static String credentialVersion(KeycloakUserDto user) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.valueOf(user.getPasswordCreatedAt()).getBytes(StandardCharsets.UTF_8));
+            return ENCODER.encodeToString(Arrays.copyOf(digest, 9));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] sign(SecretKeySpec key, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RuntimeException invalid() {
+        return new RuntimeException("Token inválido o expirado");
+    }
+
+    public record Claims(String keycloakId, Instant expiresAt, String credentialVersion) {
+    }
+}
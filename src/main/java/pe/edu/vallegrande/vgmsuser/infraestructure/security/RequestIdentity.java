@@ -0,0 +1,82 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.security;
+
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Identidad del llamador resuelta una sola vez por IdentityWebFilter a partir de
+ * X-User-Id, X-User-Roles y X-Institution-Id. Los handlers la reciben con
+ * {@code @RequestAttribute(RequestIdentity.ATTRIBUTE)}
+ */
+@Value
+public class RequestIdentity {
+
+    public static final String ATTRIBUTE = "vgmsuser.requestIdentity";
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    public static final String INSTITUTION_ID_HEADER = "X-Institution-Id";
+
+    String userId;
+    List<String> userRoles;
+    int roleMask;
+    String institutionId;
+
+    public boolean hasRole(Role role) {
+        return (roleMask & role.bit()) != 0;
+    }
+
+    public boolean hasAnyRole(int mask) {
+        return Role.hasAny(roleMask, mask);
+    }
+
+    /**
+     * Construye la identidad; el filtro ya verificó que X-User-Id y X-User-Roles vienen informados
+     */
+    static RequestIdentity from(HttpHeaders headers) {
+        String institutionId = trimToNull(headers.getFirst(INSTITUTION_ID_HEADER));
+        if ("null".equalsIgnoreCase(institutionId)) {
+            institutionId = null;
+        }
+        List<String> roles = parseRoles(headers.getFirst(USER_ROLES_HEADER));
+        return new RequestIdentity(
+                headers.getFirst(USER_ID_HEADER).trim(),
+                roles,
+                Role.maskOf(roles),
+                institutionId);
+    }
+
+    static boolean isBlank(String value) {
+        return trimToNull(value) == null;
+    }
+
+    private static List<String> parseRoles(String header) {
+        List<String> roles = new ArrayList<>(2);
+        int start = 0;
+        while (start <= header.length()) {
+            int end = header.indexOf(',', start);
+            if (end < 0) {
+                end = header.length();
+            }
+            String role = header.substring(start, end).trim();
+            if (!role.isEmpty()) {
+                roles.add(role.toUpperCase());
+            }
+            start = end + 1;
+        }
+        return Collections.unmodifiableList(roles);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,22 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.stats;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Conteos de usuarios de todo el realm o de una institución. Cada contador es exacto por sí solo,
+ * pero la lectura no es atómica entre contadores: durante una mutación pueden diferir en uno
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserStatistics(
+        @JsonProperty("institution_id") String institutionId,
+        long total,
+        @JsonProperty("by_status") Map<String, Long> byStatus,
+        @JsonProperty("by_role") Map<String, Long> byRole,
+        @JsonProperty("by_password_status") Map<String, Long> byPasswordStatus,
+        @JsonProperty("by_institution") Map<String, Long> byInstitution,
+        @JsonProperty("reconciled_at") Instant reconciledAt) {
+}
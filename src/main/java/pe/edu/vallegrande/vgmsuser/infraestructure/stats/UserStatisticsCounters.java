@@ -0,0 +1,264 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de usuarios por institución, rol, estado y estado de contraseña para el tablero de
+ * administración. Se actualizan con cada UserChangeEvent y se leen sin llamar a Keycloak.
+ * <ul>
+ *   <li>Cada contador es un LongAdder: las mutaciones concurrentes suman en celdas distintas</li>
+ *   <li>Se guarda la contribución actual de cada usuario (sus claves); un cambio resta la anterior y
+ *   suma la nueva, así un UPDATED sin estado previo no se cuenta dos veces</li>
+ *   <li>Cada reconcile-interval se recorre el realm y se corrigen las diferencias (cambios hechos
+ *   directamente en Keycloak, eventos perdidos)</li>
+ *   <li>Hasta el primer recorrido completo los contadores solo reflejan los eventos recibidos:
+ *   isReady() es false y no deben presentarse como conteos del realm</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class UserStatisticsCounters implements DisposableBean {
+
+    private static final String TOTAL = "total";
+    private static final String STATUS = "status:";
+    private static final String ROLE = "role:";
+    private static final String PASSWORD = "password:";
+    private static final String INSTITUTION = "inst:";
+    private static final String SCOPE_SEPARATOR = "|";
+
+    private final IKeycloakService keycloakService;
+    private final Duration reconcileTimeout;
+    private final Disposable reconcileTask;
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> contributions = new ConcurrentHashMap<>();
+    private volatile Set<String> touchedDuringReconcile;
+    private volatile Instant reconciledAt;
+
+    public UserStatisticsCounters(
+            IKeycloakService keycloakService,
+            @Value("${app.statistics.reconcile-initial-delay:30s}") Duration reconcileInitialDelay,
+            @Value("${app.statistics.reconcile-interval:30m}") Duration reconcileInterval,
+            @Value("${app.statistics.reconcile-timeout:5m}") Duration reconcileTimeout) {
+        this.keycloakService = keycloakService;
+        this.reconcileTimeout = reconcileTimeout;
+        this.reconcileTask = reconcileInterval.isZero() || reconcileInterval.isNegative()
+                ? null
+                : Schedulers.boundedElastic().schedulePeriodically(this::reconcileQuietly,
+                        reconcileInitialDelay.toMillis(), reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        markTouched(event.getKeycloakId());
+        switch (event.getType()) {
+            case DELETED -> apply(event.getKeycloakId(), null);
+            case PASSWORD_CHANGED -> refresh(event.getKeycloakId());
+            default -> {
+                if (event.getCurrent() != null) {
+                    apply(event.getKeycloakId(), keysOf(event.getCurrent()));
+                } else {
+                    refresh(event.getKeycloakId());
+                }
+            }
+        }
+    }
+
+    /**
+     * True cuando ya terminó al menos una reconciliación con Keycloak
+     */
+    public boolean isReady() {
+        return reconciledAt != null;
+    }
+
+    /**
+     * Conteos de todo el realm, con el total por institución
+     */
+    public UserStatistics global() {
+        Map<String, Long> byInstitution = new TreeMap<>();
+        counters.forEach((key, adder) -> {
+            if (key.startsWith(INSTITUTION) && key.endsWith(SCOPE_SEPARATOR + TOTAL)) {
+                long total = adder.sum();
+                if (total > 0) {
+                    byInstitution.put(key.substring(INSTITUTION.length(), key.length() - TOTAL.length() - 1), total);
+                }
+            }
+        });
+        return statistics(null, "", byInstitution);
+    }
+
+    /**
+     * Conteos de una institución
+     */
+    public UserStatistics institution(String institutionId) {
+        return statistics(institutionId, institutionScope(institutionId), null);
+    }
+
+    /**
+     * Recorre el realm y corrige los contadores. Los usuarios que cambian mientras dura el recorrido
+     * conservan lo que dijo su evento, que es más reciente que la lectura
+     */
+    public synchronized void reconcile() {
+        Set<String> touched = ConcurrentHashMap.newKeySet();
+        touchedDuringReconcile = touched;
+        try {
+            List<KeycloakUserDto> users = keycloakService.getAllUsersWithAttributes()
+                    .collectList()
+                    .block(reconcileTimeout);
+            Set<String> seen = new HashSet<>();
+            int corrected = 0;
+            for (KeycloakUserDto user : users != null ? users : List.<KeycloakUserDto>of()) {
+                seen.add(user.getKeycloakId());
+                if (!touched.contains(user.getKeycloakId())) {
+                    corrected += apply(user.getKeycloakId(), keysOf(user)) ? 1 : 0;
+                }
+            }
+            for (String keycloakId : new ArrayList<>(contributions.keySet())) {
+                if (!seen.contains(keycloakId) && !touched.contains(keycloakId)) {
+                    corrected += apply(keycloakId, null) ? 1 : 0;
+                }
+            }
+            reconciledAt = Instant.now();
+            log.info("User statistics reconciled: {} users, {} corrected", seen.size(), corrected);
+        } finally {
+            touchedDuringReconcile = null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (reconcileTask != null) {
+            reconcileTask.dispose();
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile user statistics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relee un usuario cuyo evento no trae el estado nuevo (cambio de contraseña), fuera del hilo de la petición
+     */
+    private void refresh(String keycloakId) {
+        keycloakService.getUserByKeycloakId(keycloakId)
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(user -> apply(keycloakId, keysOf(user)),
+                        error -> log.warn("Could not refresh statistics for user {}: {}", keycloakId, error.getMessage()));
+    }
+
+    private void markTouched(String keycloakId) {
+        Set<String> touched = touchedDuringReconcile;
+        if (touched != null && keycloakId != null) {
+            touched.add(keycloakId);
+        }
+    }
+
+    /**
+     * Reemplaza la contribución del usuario (null la elimina); devuelve true si cambió algún contador
+     */
+    private boolean apply(String keycloakId, List<String> keys) {
+        if (keycloakId == null) {
+            return false;
+        }
+        boolean[] changed = new boolean[1];
+        contributions.compute(keycloakId, (id, previous) -> {
+            if (previous != null && previous.equals(keys)) {
+                return previous;
+            }
+            if (previous != null) {
+                previous.forEach(key -> counter(key).decrement());
+            }
+            if (keys != null) {
+                keys.forEach(key -> counter(key).increment());
+            }
+            changed[0] = true;
+            return keys;
+        });
+        return changed[0];
+    }
+
+    private LongAdder counter(String key) {
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private long count(String key) {
+        LongAdder adder = counters.get(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Claves que suma el usuario: totales globales y de su institución, por estado, rol conocido y contraseña
+     */
+    private static List<String> keysOf(KeycloakUserDto user) {
+        List<String> scopes = user.getInstitutionId() != null && !user.getInstitutionId().isEmpty()
+                ? List.of("", institutionScope(user.getInstitutionId()))
+                : List.of("");
+        List<String> keys = new ArrayList<>();
+        for (String scope : scopes) {
+            keys.add(scope + TOTAL);
+            if (user.getStatus() != null) {
+                keys.add(scope + STATUS + user.getStatus().name());
+            }
+            if (user.getPasswordStatus() != null) {
+                keys.add(scope + PASSWORD + user.getPasswordStatus().name());
+            }
+            int mask = user.getRoleMask();
+            for (Role role : Role.values()) {
+                if (Role.hasAny(mask, role.bit())) {
+                    keys.add(scope + ROLE + role.name());
+                }
+            }
+        }
+        return List.copyOf(keys);
+    }
+
+    private static String institutionScope(String institutionId) {
+        return INSTITUTION + institutionId + SCOPE_SEPARATOR;
+    }
+
+    private UserStatistics statistics(String institutionId, String scope, Map<String, Long> byInstitution) {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (UserStatus status : UserStatus.values()) {
+            byStatus.put(status.name(), count(scope + STATUS + status.name()));
+        }
+        Map<String, Long> byRole = new LinkedHashMap<>();
+        for (Role role : Role.values()) {
+            byRole.put(role.name(), count(scope + ROLE + role.name()));
+        }
+        Map<String, Long> byPasswordStatus = new LinkedHashMap<>();
+        for (PasswordStatus passwordStatus : PasswordStatus.values()) {
+            byPasswordStatus.put(passwordStatus.name(), count(scope + PASSWORD + passwordStatus.name()));
+        }
+        return new UserStatistics(institutionId, count(scope + TOTAL), byStatus, byRole, byPasswordStatus,
+                byInstitution, reconciledAt);
+    }
+}
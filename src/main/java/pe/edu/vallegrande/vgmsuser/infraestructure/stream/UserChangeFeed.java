@@ -0,0 +1,191 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feed SSE de cambios de usuarios para otros microservicios (asistencia, notas, ...).
+ * Cada evento se codifica una sola vez y se reparte a todos los suscriptores.
+ * <ul>
+ *   <li>Los últimos replay-size eventos se conservan para reanudar con Last-Event-ID; si el id es de
+ *   otro arranque o ya salió del buffer se envía primero un evento "resync" (el consumidor debe vaciar su caché)</li>
+ *   <li>Cada suscriptor tiene su propia cola de max-pending eventos (Reactor la redondea a potencia de 2,
+ *   mínimo 8). Si se llena, el suscriptor se desaloja:
+ *   recibe lo que ya tenía en cola y el stream termina, para que se reconecte con su último id</li>
+ * </ul>
+ * Los cambios de contraseña no se publican: no afectan a roles, estado ni acceso
+ */
+@Slf4j
+@Component
+public class UserChangeFeed implements DisposableBean {
+
+    static final String CHANGE_EVENT = "user-change";
+    static final String RESYNC_EVENT = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final int replaySize;
+    private final int maxPending;
+    private final Disposable heartbeat;
+
+    private final String bootEpoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ArrayDeque<ServerSentEvent<String>> replay = new ArrayDeque<>();
+    private final Set<Sinks.Many<ServerSentEvent<String>>> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong evictions = new AtomicLong();
+    private long sequence;
+
+    public UserChangeFeed(
+            ObjectMapper objectMapper,
+            @Value("${app.stream.user-changes.replay-size:1000}") int replaySize,
+            @Value("${app.stream.user-changes.max-pending:256}") int maxPending,
+            @Value("${app.stream.user-changes.heartbeat:15s}") Duration heartbeatInterval) {
+        this.objectMapper = objectMapper;
+        this.replaySize = Math.max(1, replaySize);
+        this.maxPending = Math.max(1, maxPending);
+        // Comentario periódico para que proxies y balanceadores no cierren conexiones inactivas
+        this.heartbeat = heartbeatInterval.isZero() || heartbeatInterval.isNegative() ? null
+                : Schedulers.parallel().schedulePeriodically(this::sendHeartbeat,
+                        heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        if (event.getType() == UserChangeEvent.Type.PASSWORD_CHANGED) {
+            return;
+        }
+        publish(event);
+    }
+
+    /**
+     * Stream de eventos a partir de lastEventId (null: solo eventos nuevos)
+     */
+    public Flux<ServerSentEvent<String>> subscribe(String lastEventId) {
+        Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<ServerSentEvent<String>>get(maxPending).get());
+        List<ServerSentEvent<String>> backlog;
+        synchronized (this) {
+            backlog = backlogSince(lastEventId);
+            subscribers.add(sink);
+        }
+        return Flux.fromIterable(backlog)
+                .concatWith(sink.asFlux())
+                .doFinally(signal -> subscribers.remove(sink));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public void destroy() {
+        if (heartbeat != null) {
+            heartbeat.dispose();
+        }
+        subscribers.forEach(Sinks.Many::tryEmitComplete);
+    }
+
+    private synchronized void publish(UserChangeEvent event) {
+        long version = ++sequence;
+        ServerSentEvent<String> sse;
+        try {
+            sse = ServerSentEvent.builder(objectMapper.writeValueAsString(UserChangeNotice.from(version, event)))
+                    .id(bootEpoch + "." + version)
+                    .event(CHANGE_EVENT)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.warn("Could not encode user change {} for the feed: {}", event.getKeycloakId(), e.getMessage());
+            return;
+        }
+        replay.addLast(sse);
+        if (replay.size() > replaySize) {
+            replay.removeFirst();
+        }
+        emitToAll(sse);
+    }
+
+    private synchronized void sendHeartbeat() {
+        emitToAll(ServerSentEvent.<String>builder().comment("keepalive").build());
+    }
+
+    private void emitToAll(ServerSentEvent<String> sse) {
+        for (Iterator<Sinks.Many<ServerSentEvent<String>>> it = subscribers.iterator(); it.hasNext(); ) {
+            Sinks.Many<ServerSentEvent<String>> sink = it.next();
+            Sinks.EmitResult result = sink.tryEmitNext(sse);
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                it.remove();
+                sink.tryEmitComplete();
+                evictions.incrementAndGet();
+                log.warn("Evicted slow user-change subscriber ({} pending events)", maxPending);
+            } else if (result.isFailure()) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Eventos posteriores a lastEventId, precedidos de "resync" si el buffer ya no los cubre
+     */
+    private List<ServerSentEvent<String>> backlogSince(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        long since = parseVersion(lastEventId);
+        long oldest = sequence - replay.size();
+        List<ServerSentEvent<String>> backlog = new ArrayList<>();
+        if (since < oldest) {
+            backlog.add(ServerSentEvent.<String>builder("{}")
+                    .id(bootEpoch + "." + oldest)
+                    .event(RESYNC_EVENT)
+                    .build());
+            since = oldest;
+        }
+        long version = oldest;
+        for (ServerSentEvent<String> sse : replay) {
+            if (++version > since) {
+                backlog.add(sse);
+            }
+        }
+        return backlog;
+    }
+
+    /**
+     * Versión del id SSE, o -1 si es de otro arranque o no se puede leer
+     */
+    private long parseVersion(String eventId) {
+        int separator = eventId.lastIndexOf('.');
+        if (separator <= 0 || !bootEpoch.equals(eventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            long version = Long.parseLong(eventId.substring(separator + 1));
+            return version <= sequence ? version : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
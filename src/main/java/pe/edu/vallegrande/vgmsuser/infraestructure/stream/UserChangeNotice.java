@@ -0,0 +1,60 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.stream;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evento compacto del feed de cambios de usuarios. Mismos nombres de campo que UserInfoResponse
+ * (/user-role), para que los consumidores actualicen su caché sin volver a consultarnos.
+ * Se envía por el feed SSE y por los webhooks
+ */
+@Value
+@Builder
+@Jacksonized
+public class UserChangeNotice {
+
+    /**
+     * Número de secuencia del evento (también es el id SSE, sin la época de arranque)
+     */
+    long version;
+
+    /**
+     * CREATED, UPDATED, ACTIVATED, DEACTIVATED o DELETED
+     */
+    String type;
+
+    String id;
+    String institutionId;
+    List<String> roles;
+
+    /**
+     * A (Activo), I (Inactivo); null si el usuario fue eliminado
+     */
+    String status;
+
+    boolean hasAccess;
+
+    /**
+     * Resume el evento con el estado posterior (o el anterior si no lo hay, como en DELETED)
+     */
+    public static UserChangeNotice from(long version, UserChangeEvent event) {
+        boolean deleted = event.getType() == UserChangeEvent.Type.DELETED;
+        KeycloakUserDto user = event.getCurrent() != null ? event.getCurrent() : event.getPrevious();
+        String status = deleted ? null : user != null && user.getStatus() != null ? user.getStatus().name() : "I";
+        return UserChangeNotice.builder()
+                .version(version)
+                .type(event.getType().name())
+                .id(event.getKeycloakId())
+                .institutionId(user != null ? user.getInstitutionId() : null)
+                .roles(user != null && user.getRoles() != null ? new ArrayList<>(user.getRoles()) : List.of())
+                .status(status)
+                .hasAccess(!deleted && user != null && user.isEnabled() && "A".equals(status))
+                .build();
+    }
+}
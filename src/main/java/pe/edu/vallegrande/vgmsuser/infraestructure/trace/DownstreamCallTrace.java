@@ -0,0 +1,42 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.trace;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Llamada a un servicio externo registrada dentro de una petición lenta
+ */
+@Value
+@Builder
+public class DownstreamCallTrace {
+
+    /**
+     * Operación invocada (ej. keycloak.getUserByKeycloakId)
+     */
+    String operation;
+
+    /**
+     * Microsegundos desde el inicio de la petición hasta la suscripción
+     */
+    long offsetMicros;
+
+    /**
+     * Duración de la llamada en microsegundos
+     */
+    long durationMicros;
+
+    /**
+     * Hilo en el que se suscribió la llamada
+     */
+    String subscribeThread;
+
+    /**
+     * Hilo en el que se emitió el resultado (distinto si hubo salto de scheduler)
+     */
+    String emitThread;
+
+    /**
+     * Resultado: OK, ERROR o CANCEL
+     */
+    String outcome;
+}
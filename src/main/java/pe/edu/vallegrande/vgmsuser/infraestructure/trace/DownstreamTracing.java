@@ -0,0 +1,127 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.trace;
+
+import jdk.jfr.EventType;
+import pe.edu.vallegrande.vgmsuser.infraestructure.jfr.DownstreamCallEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Envuelve llamadas a servicios externos para registrarlas en la traza de la petición
+ * y, si hay una grabación JFR activa, emitir el evento JFR correspondiente.
+ * Si no hay traza ni grabación el publisher se devuelve sin cambios; el evento solo se crea
+ * cuando su EventType está habilitado.
+ */
+public final class DownstreamTracing {
+
+    private DownstreamTracing() {
+    }
+
+    public static <T> Mono<T> traced(String operation, Mono<T> source) {
+        return traced(operation, null, null, source);
+    }
+
+    public static <T> Flux<T> traced(String operation, Flux<T> source) {
+        return traced(operation, null, null, source);
+    }
+
+    public static <T> Mono<T> traced(String operation, EventType eventType,
+                                     Supplier<? extends DownstreamCallEvent> eventFactory, Mono<T> source) {
+        return Mono.deferContextual(ctx -> {
+            CallTimer timer = CallTimer.start(ctx.getOrDefault(RequestTrace.CONTEXT_KEY, null), operation, eventType, eventFactory);
+            if (timer == null) {
+                return source;
+            }
+            return source
+                    .doOnEach(timer::onSignal)
+                    .doOnCancel(() -> timer.finish(SignalType.CANCEL));
+        });
+    }
+
+    public static <T> Flux<T> traced(String operation, EventType eventType,
+                                     Supplier<? extends DownstreamCallEvent> eventFactory, Flux<T> source) {
+        return Flux.deferContextual(ctx -> {
+            CallTimer timer = CallTimer.start(ctx.getOrDefault(RequestTrace.CONTEXT_KEY, null), operation, eventType, eventFactory);
+            if (timer == null) {
+                return source;
+            }
+            return source
+                    .doOnEach(timer::onSignal)
+                    .doOnCancel(() -> timer.finish(SignalType.CANCEL));
+        });
+    }
+
+    /**
+     * Mide una llamada desde la suscripción hasta su señal terminal. Se registra al recibir
+     * la señal (antes de propagarla) para que la traza esté completa cuando el llamador continúa
+     */
+    private static final class CallTimer {
+        private final RequestTrace trace;
+        private final DownstreamCallEvent event;
+        private final String operation;
+        private final long startNanos = System.nanoTime();
+        private final String subscribeThread = Thread.currentThread().getName();
+        private final AtomicReference<String> emitThread = new AtomicReference<>();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile String error;
+
+        private CallTimer(RequestTrace trace, DownstreamCallEvent event, String operation) {
+            this.trace = trace;
+            this.event = event;
+            this.operation = operation;
+        }
+
+        /**
+         * Devuelve null cuando no hay nada que registrar
+         */
+        private static CallTimer start(RequestTrace trace, String operation, EventType eventType,
+                                       Supplier<? extends DownstreamCallEvent> eventFactory) {
+            DownstreamCallEvent event = eventType != null && eventType.isEnabled() ? eventFactory.get() : null;
+            if (trace == null && event == null) {
+                return null;
+            }
+            if (event != null) {
+                event.begin();
+            }
+            return new CallTimer(trace, event, operation);
+        }
+
+        private void onSignal(Signal<?> signal) {
+            emitThread.compareAndSet(null, Thread.currentThread().getName());
+            if (signal.isOnError() && signal.getThrowable() != null) {
+                error = signal.getThrowable().getMessage();
+            }
+            if (signal.isOnComplete() || signal.isOnError()) {
+                finish(signal.getType());
+            }
+        }
+
+        private void finish(SignalType signal) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            String outcome = switch (signal) {
+                case ON_ERROR -> "ERROR";
+                case CANCEL -> "CANCEL";
+                default -> "OK";
+            };
+            if (trace != null) {
+                trace.record(operation, startNanos, System.nanoTime(), subscribeThread, emitThread.get(), outcome);
+            }
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.setOperation(operation);
+                    event.setSuccess("OK".equals(outcome));
+                    event.setError(error);
+                    event.commit();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.trace;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Traza en curso de una petición HTTP muestreada.
+ * Viaja en el Context de Reactor y acumula las llamadas a servicios externos
+ * (Keycloak, email, instituciones) desde cualquier hilo del pipeline.
+ */
+public class RequestTrace {
+
+    /**
+     * Clave bajo la que se guarda la traza en el Context de Reactor
+     */
+    public static final String CONTEXT_KEY = RequestTrace.class.getName();
+
+    private final String method;
+    private final String path;
+    private final Instant startedAt;
+    private final long startNanos;
+    private final String requestThread;
+    private final ConcurrentLinkedQueue<DownstreamCallTrace> calls = new ConcurrentLinkedQueue<>();
+
+    public RequestTrace(String method, String path) {
+        this.method = method;
+        this.path = path;
+        this.startedAt = Instant.now();
+        this.startNanos = System.nanoTime();
+        this.requestThread = Thread.currentThread().getName();
+    }
+
+    /**
+     * Registra una llamada externa terminada
+     */
+    void record(String operation, long callStartNanos, long callEndNanos,
+                String subscribeThread, String emitThread, String outcome) {
+        calls.add(DownstreamCallTrace.builder()
+                .operation(operation)
+                .offsetMicros((callStartNanos - startNanos) / 1_000)
+                .durationMicros((callEndNanos - callStartNanos) / 1_000)
+                .subscribeThread(subscribeThread)
+                .emitThread(emitThread != null ? emitThread : subscribeThread)
+                .outcome(outcome)
+                .build());
+    }
+
+    /**
+     * Milisegundos transcurridos desde el inicio de la petición
+     */
+    long elapsedMillis(long nowNanos) {
+        return (nowNanos - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Genera la instantánea inmutable con las llamadas ordenadas por inicio
+     */
+    SlowRequestTrace complete(long id, int status, long durationMillis) {
+        List<DownstreamCallTrace> ordered = new ArrayList<>(calls);
+        ordered.sort(Comparator.comparingLong(DownstreamCallTrace::getOffsetMicros));
+
+        return SlowRequestTrace.builder()
+                .id(id)
+                .method(method)
+                .path(path)
+                .status(status)
+                .startedAt(startedAt)
+                .durationMillis(durationMillis)
+                .requestThread(requestThread)
+                .calls(List.copyOf(ordered))
+                .build();
+    }
+}
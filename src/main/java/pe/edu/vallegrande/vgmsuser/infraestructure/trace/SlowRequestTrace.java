@@ -0,0 +1,32 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.trace;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Traza completa de una petición que superó el umbral de latencia
+ */
+@Value
+@Builder
+public class SlowRequestTrace {
+
+    long id;
+    String method;
+    String path;
+    int status;
+    Instant startedAt;
+    long durationMillis;
+
+    /**
+     * Hilo que recibió la petición
+     */
+    String requestThread;
+
+    /**
+     * Llamadas externas ordenadas por momento de inicio
+     */
+    List<DownstreamCallTrace> calls;
+}
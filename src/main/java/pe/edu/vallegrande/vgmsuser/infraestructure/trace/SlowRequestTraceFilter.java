@@ -0,0 +1,44 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.trace;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Abre una traza por petición muestreada y la publica en el Context de Reactor
+ * para que las llamadas externas se registren en ella.
+ * Los streams SSE no se trazan: duran lo que dure la conexión y siempre superarían el umbral
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SlowRequestTraceFilter implements WebFilter {
+
+    private static final String STREAM_SUFFIX = "/stream";
+
+    private final SlowRequestTracer tracer;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (exchange.getRequest().getPath().value().endsWith(STREAM_SUFFIX) || !tracer.shouldSample()) {
+            return chain.filter(exchange);
+        }
+
+        RequestTrace trace = tracer.begin(
+                exchange.getRequest().getMethod().name(),
+                exchange.getRequest().getPath().value());
+
+        return chain.filter(exchange)
+                .contextWrite(ctx -> ctx.put(RequestTrace.CONTEXT_KEY, trace))
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    tracer.complete(trace, status != null ? status.value() : 200);
+                });
+    }
+}
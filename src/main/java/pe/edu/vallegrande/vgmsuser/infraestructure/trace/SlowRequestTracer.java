@@ -0,0 +1,80 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro de peticiones lentas.
+ * Muestrea peticiones, y las que superan el umbral configurado se guardan
+ * con el detalle de sus llamadas externas en un buffer circular.
+ */
+@Slf4j
+@Component
+public class SlowRequestTracer {
+
+    private final boolean enabled;
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private final TraceRingBuffer<SlowRequestTrace> buffer;
+    private final AtomicLong ids = new AtomicLong();
+
+    public SlowRequestTracer(
+            @Value("${app.tracing.slow-request.enabled:true}") boolean enabled,
+            @Value("${app.tracing.slow-request.threshold-ms:1500}") long thresholdMillis,
+            @Value("${app.tracing.slow-request.sample-rate:1.0}") double sampleRate,
+            @Value("${app.tracing.slow-request.capacity:100}") int capacity) {
+        this.enabled = enabled;
+        this.thresholdMillis = thresholdMillis;
+        this.sampleRate = sampleRate;
+        this.buffer = new TraceRingBuffer<>(capacity);
+    }
+
+    /**
+     * Decide si la petición actual se traza
+     */
+    public boolean shouldSample() {
+        if (!enabled) {
+            return false;
+        }
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public RequestTrace begin(String method, String path) {
+        return new RequestTrace(method, path);
+    }
+
+    /**
+     * Cierra la traza y la conserva solo si superó el umbral
+     */
+    public void complete(RequestTrace trace, int status) {
+        long durationMillis = trace.elapsedMillis(System.nanoTime());
+        if (durationMillis < thresholdMillis) {
+            return;
+        }
+        SlowRequestTrace snapshot = trace.complete(ids.incrementAndGet(), status, durationMillis);
+        buffer.add(snapshot);
+        log.warn("🐢 Slow request {} {} took {} ms with {} downstream calls",
+                snapshot.getMethod(), snapshot.getPath(), durationMillis, snapshot.getCalls().size());
+    }
+
+    public List<SlowRequestTrace> latest(int limit) {
+        return buffer.latest(limit);
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    public long getTotalRecorded() {
+        return buffer.totalAdded();
+    }
+}
@@ -0,0 +1,59 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular sin bloqueos que conserva los últimos N elementos.
+ * Los escritores reservan posición con un contador atómico y sobrescriben el más antiguo.
+ */
+public class TraceRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public TraceRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Agrega un elemento y devuelve su número de secuencia
+     */
+    public long add(T item) {
+        long seq = sequence.getAndIncrement();
+        slots.set((int) (seq % slots.length()), item);
+        return seq;
+    }
+
+    /**
+     * Devuelve hasta {@code limit} elementos, del más reciente al más antiguo
+     */
+    public List<T> latest(int limit) {
+        long end = sequence.get();
+        int count = (int) Math.min(Math.min(limit, slots.length()), end);
+        List<T> result = new ArrayList<>(Math.max(count, 0));
+        for (long seq = end - 1; seq >= end - count; seq--) {
+            T item = slots.get((int) (seq % slots.length()));
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Total de elementos agregados desde el arranque
+     */
+    public long totalAdded() {
+        return sequence.get();
+    }
+}
@@ -0,0 +1,240 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.uniqueness;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
+import pe.edu.vallegrande.vgmsuser.domain.model.User;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Índice de username, email y número de documento para rechazar duplicados antes de llamar a Keycloak.
+ * <ul>
+ *   <li>Cada creación reserva sus tres claves de forma atómica; una creación concurrente con alguna de
+ *   las mismas claves falla al instante. La reserva se libera al terminar la creación</li>
+ *   <li>La propiedad definitiva de las claves llega con el UserChangeEvent del alta (y de cada cambio)</li>
+ *   <li>Cada rebuild-interval se vuelve a cargar desde Keycloak; hasta la primera carga solo se detectan
+ *   los duplicados entre creaciones en curso y Keycloak sigue rechazando username/email repetidos</li>
+ *   <li>Una vez cargado responde las consultas de disponibilidad de los formularios sin ir a Keycloak</li>
+ * </ul>
+ * Las operaciones son de microsegundos y se serializan con el monitor del índice
+ */
+@Slf4j
+@Component
+public class UserUniquenessIndex implements DisposableBean {
+
+    private static final String USERNAME = "username:";
+    private static final String EMAIL = "email:";
+    private static final String DOCUMENT = "document:";
+    private static final String RESERVATION = "#";
+
+    private final IKeycloakService keycloakService;
+    private final Duration rebuildTimeout;
+    private final Disposable rebuildTask;
+    private final AtomicLong reservationSequence = new AtomicLong();
+
+    /** Clave → keycloakId del dueño, o "#n" si está reservada por una creación en curso */
+    private final Map<String, String> owners = new HashMap<>();
+    private final Map<String, List<String>> keysByUser = new HashMap<>();
+    private Set<String> touchedDuringRebuild;
+    private volatile boolean loaded;
+
+    public UserUniquenessIndex(
+            IKeycloakService keycloakService,
+            @Value("${app.uniqueness.rebuild-initial-delay:5s}") Duration rebuildInitialDelay,
+            @Value("${app.uniqueness.rebuild-interval:1h}") Duration rebuildInterval,
+            @Value("${app.uniqueness.rebuild-timeout:5m}") Duration rebuildTimeout) {
+        this.keycloakService = keycloakService;
+        this.rebuildTimeout = rebuildTimeout;
+        this.rebuildTask = rebuildInterval.isZero() || rebuildInterval.isNegative()
+                ? null
+                : Schedulers.boundedElastic().schedulePeriodically(this::rebuildQuietly,
+                        rebuildInitialDelay.toMillis(), rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ejecuta la creación con las claves del usuario reservadas; si alguna ya tiene dueño falla sin suscribirse
+     */
+    public <T> Mono<T> createReserving(User user, Supplier<Mono<T>> creation) {
+        return Mono.defer(() -> {
+            Reservation reservation = reserve(user);
+            return creation.get().doFinally(signal -> release(reservation));
+        });
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * True si el username es de un usuario o está reservado por una creación en curso
+     */
+    public synchronized boolean isUsernameTaken(String username) {
+        return owners.containsKey(usernameKey(username));
+    }
+
+    /**
+     * True si el email es de un usuario o está reservado por una creación en curso
+     */
+    public synchronized boolean isEmailTaken(String email) {
+        return owners.containsKey(emailKey(email));
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        if (event.getKeycloakId() == null) {
+            return;
+        }
+        if (event.getType() == UserChangeEvent.Type.DELETED) {
+            assign(event.getKeycloakId(), null);
+        } else if (event.getCurrent() != null) {
+            assign(event.getKeycloakId(), keysOf(event.getCurrent()));
+        }
+    }
+
+    /**
+     * Vuelve a cargar las claves desde Keycloak. Las reservas en curso y los usuarios que cambian
+     * durante la lectura se conservan
+     */
+    public void rebuild() {
+        synchronized (this) {
+            touchedDuringRebuild = new HashSet<>();
+        }
+        try {
+            List<KeycloakUserDto> users = keycloakService.getAllUsersWithAttributes()
+                    .collectList()
+                    .block(rebuildTimeout);
+            synchronized (this) {
+                Map<String, List<String>> scanned = new HashMap<>();
+                for (KeycloakUserDto user : users != null ? users : List.<KeycloakUserDto>of()) {
+                    scanned.put(user.getKeycloakId(), keysOf(user));
+                }
+                for (String keycloakId : new ArrayList<>(keysByUser.keySet())) {
+                    if (!scanned.containsKey(keycloakId) && !touchedDuringRebuild.contains(keycloakId)) {
+                        assignLocked(keycloakId, null);
+                    }
+                }
+                scanned.forEach((keycloakId, keys) -> {
+                    if (!touchedDuringRebuild.contains(keycloakId)) {
+                        assignLocked(keycloakId, keys);
+                    }
+                });
+                loaded = true;
+                log.info("Uniqueness index rebuilt: {} users, {} keys", keysByUser.size(), owners.size());
+            }
+        } finally {
+            synchronized (this) {
+                touchedDuringRebuild = null;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (rebuildTask != null) {
+            rebuildTask.dispose();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild uniqueness index: {}", e.getMessage());
+        }
+    }
+
+    private synchronized Reservation reserve(User user) {
+        List<String> keys = keysOf(user.getUsername(), user.getEmail(), user.getDocumentNumber());
+        for (String key : keys) {
+            if (owners.containsKey(key)) {
+                throw new RuntimeException(duplicateMessage(key));
+            }
+        }
+        String token = RESERVATION + reservationSequence.incrementAndGet();
+        keys.forEach(key -> owners.put(key, token));
+        return new Reservation(token, keys);
+    }
+
+    private synchronized void release(Reservation reservation) {
+        reservation.keys().forEach(key -> owners.remove(key, reservation.token()));
+    }
+
+    private synchronized void assign(String keycloakId, List<String> keys) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(keycloakId);
+        }
+        assignLocked(keycloakId, keys);
+    }
+
+    /**
+     * Reemplaza las claves del usuario (null las elimina). Keycloak es la fuente de verdad: la clave
+     * pasa a este usuario aunque otro la tuviera o estuviera reservada
+     */
+    private void assignLocked(String keycloakId, List<String> keys) {
+        List<String> previous = keys != null ? keysByUser.put(keycloakId, keys) : keysByUser.remove(keycloakId);
+        if (previous != null) {
+            previous.forEach(key -> owners.remove(key, keycloakId));
+        }
+        if (keys != null) {
+            keys.forEach(key -> owners.put(key, keycloakId));
+        }
+    }
+
+    private static List<String> keysOf(KeycloakUserDto user) {
+        return keysOf(user.getUsername(), user.getEmail(), user.getDocumentNumber());
+    }
+
+    private static List<String> keysOf(String username, String email, String documentNumber) {
+        List<String> keys = new ArrayList<>(3);
+        if (username != null && !username.isBlank()) {
+            keys.add(usernameKey(username));
+        }
+        if (email != null && !email.isBlank()) {
+            keys.add(emailKey(email));
+        }
+        if (documentNumber != null && !documentNumber.isBlank()) {
+            keys.add(DOCUMENT + documentNumber.trim());
+        }
+        return List.copyOf(keys);
+    }
+
+    private static String usernameKey(String username) {
+        return USERNAME + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String emailKey(String email) {
+        return EMAIL + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String duplicateMessage(String key) {
+        if (key.startsWith(USERNAME)) {
+            return "Ya existe un usuario con el username " + key.substring(USERNAME.length());
+        }
+        if (key.startsWith(EMAIL)) {
+            return "Ya existe un usuario con el email " + key.substring(EMAIL.length());
+        }
+        return "Ya existe un usuario con el número de documento " + key.substring(DOCUMENT.length());
+    }
+
+    private record Reservation(String token, List<String> keys) {
+    }
+}
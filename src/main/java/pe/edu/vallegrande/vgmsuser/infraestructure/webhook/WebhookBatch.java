@@ -0,0 +1,11 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.webhook;
+
+import pe.edu.vallegrande.vgmsuser.infraestructure.stream.UserChangeNotice;
+
+import java.util.List;
+
+/**
+ * Cuerpo del POST: {"events": [...]}
+ */
+public record WebhookBatch(List<UserChangeNotice> events) {
+}
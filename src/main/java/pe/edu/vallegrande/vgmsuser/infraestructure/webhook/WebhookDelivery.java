@@ -0,0 +1,11 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.webhook;
+
+import pe.edu.vallegrande.vgmsuser.infraestructure.stream.UserChangeNotice;
+
+import java.util.List;
+
+/**
+ * Lote de eventos pendiente para un suscriptor; es lo que se guarda en el spool hasta que se entrega
+ */
+public record WebhookDelivery(String url, List<UserChangeNotice> events) {
+}
@@ -0,0 +1,337 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.stream.UserChangeNotice;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Webhooks de cambios de usuarios para consumidores que no pueden mantener el feed SSE.
+ * <ul>
+ *   <li>Los cambios de un mismo usuario dentro de coalesce-window se reducen al último</li>
+ *   <li>Cada ventana se envía a cada suscriptor en POST de hasta max-batch-size eventos, usando un
+ *   único WebClient (y su pool de conexiones)</li>
+ *   <li>Cada lote se guarda en spool-dir antes de enviarse y se borra al recibir 2xx. Si se agotan los
+ *   reintentos (backoff exponencial) queda en disco y se reenvía cada redeliver-interval y al arrancar</li>
+ *   <li>El spool guarda hasta spool-max-files lotes de hasta spool-max-age: pasado el límite se descartan
+ *   los más viejos (se cuentan en getSpoolDroppedCount)</li>
+ *   <li>Los lotes de una URL que ya no está en urls no se reenvían; quedan hasta vencer</li>
+ * </ul>
+ * La versión de cada evento parte del reloj al arrancar, así sigue creciendo entre reinicios;
+ * los consumidores deben descartar eventos con versión menor a la que ya tienen
+ */
+@Slf4j
+@Component
+public class WebhookDispatcher implements DisposableBean {
+
+    private final ObjectMapper objectMapper;
+    private final WebClient webClient;
+    private final List<String> urls;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Path spoolDir;
+    private final int spoolMaxFiles;
+    private final Duration spoolMaxAge;
+    private final Disposable flushTask;
+    private final Disposable redeliverTask;
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final AtomicLong spoolSequence = new AtomicLong();
+    private final AtomicLong spoolDropped = new AtomicLong();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    private Map<String, UserChangeNotice> pending = new LinkedHashMap<>();
+
+    public WebhookDispatcher(
+            ObjectMapper objectMapper,
+            WebClient.Builder webClientBuilder,
+            @Value("${app.webhooks.urls:}") List<String> urls,
+            @Value("${app.webhooks.coalesce-window:2s}") Duration coalesceWindow,
+            @Value("${app.webhooks.max-batch-size:100}") int maxBatchSize,
+            @Value("${app.webhooks.max-attempts:5}") int maxAttempts,
+            @Value("${app.webhooks.backoff:1s}") Duration backoff,
+            @Value("${app.webhooks.redeliver-interval:5m}") Duration redeliverInterval,
+            @Value("${app.webhooks.spool-dir:${java.io.tmpdir}/vg-ms-user-webhooks}") Path spoolDir,
+            @Value("${app.webhooks.spool-max-files:10000}") int spoolMaxFiles,
+            @Value("${app.webhooks.spool-max-age:7d}") Duration spoolMaxAge) {
+        this.objectMapper = objectMapper;
+        this.webClient = webClientBuilder.build();
+        this.urls = urls.stream().filter(url -> !url.isBlank()).toList();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.spoolDir = spoolDir;
+        this.spoolMaxFiles = Math.max(1, spoolMaxFiles);
+        this.spoolMaxAge = spoolMaxAge;
+
+        if (this.urls.isEmpty() && !hasSpooledDeliveries()) {
+            this.flushTask = null;
+            this.redeliverTask = null;
+            return;
+        }
+        log.info("Webhook dispatcher enabled for {} subscriber(s), spool at {}", this.urls.size(), spoolDir);
+        // Las tareas escriben y leen el spool: van en boundedElastic
+        this.flushTask = Schedulers.boundedElastic().schedulePeriodically(this::flush,
+                coalesceWindow.toMillis(), coalesceWindow.toMillis(), TimeUnit.MILLISECONDS);
+        this.redeliverTask = Schedulers.boundedElastic().schedulePeriodically(this::redeliver,
+                0, redeliverInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        if (urls.isEmpty() || event.getType() == UserChangeEvent.Type.PASSWORD_CHANGED) {
+            return;
+        }
+        UserChangeNotice notice = UserChangeNotice.from(version.incrementAndGet(), event);
+        synchronized (this) {
+            // El último cambio del usuario reemplaza al anterior y pasa al final del lote
+            pending.remove(event.getKeycloakId());
+            pending.put(event.getKeycloakId(), notice);
+        }
+    }
+
+    /**
+     * Envía los cambios acumulados en la ventana. Devuelve cuando los lotes están en el spool;
+     * el envío continúa en segundo plano
+     */
+    public void flush() {
+        List<UserChangeNotice> events = drainPending();
+        if (events.isEmpty()) {
+            return;
+        }
+        for (String url : urls) {
+            for (int from = 0; from < events.size(); from += maxBatchSize) {
+                List<UserChangeNotice> batch = events.subList(from, Math.min(from + maxBatchSize, events.size()));
+                WebhookDelivery delivery = new WebhookDelivery(url, List.copyOf(batch));
+                // Si no se pudo guardar en disco se envía igual, solo se pierde la persistencia
+                deliver(spool(delivery), delivery).subscribe();
+            }
+        }
+        trimSpool();
+    }
+
+    /**
+     * Reintenta los lotes que quedaron en el spool (de este arranque o de uno anterior)
+     */
+    public void redeliver() {
+        trimSpool();
+        int unconfigured = 0;
+        for (Path file : spooledFiles()) {
+            if (inFlight.contains(file)) {
+                continue;
+            }
+            Optional<WebhookDelivery> delivery = readSpooled(file);
+            if (delivery.isEmpty()) {
+                continue;
+            }
+            if (!urls.contains(delivery.get().url())) {
+                unconfigured++;
+                continue;
+            }
+            deliver(file, delivery.get()).subscribe();
+        }
+        if (unconfigured > 0) {
+            log.warn("Skipping {} spooled webhook delivery(ies) for URLs no longer configured", unconfigured);
+        }
+    }
+
+    public int getSpooledCount() {
+        return spooledFiles().size();
+    }
+
+    /**
+     * Lotes descartados del spool por spool-max-files o spool-max-age sin haberse entregado
+     */
+    public long getSpoolDroppedCount() {
+        return spoolDropped.get();
+    }
+
+    /**
+     * Al apagar, lo pendiente de la ventana actual se guarda en el spool sin enviarlo
+     */
+    @Override
+    public void destroy() {
+        if (flushTask != null) {
+            flushTask.dispose();
+            redeliverTask.dispose();
+        }
+        List<UserChangeNotice> events = drainPending();
+        if (!events.isEmpty()) {
+            urls.forEach(url -> spool(new WebhookDelivery(url, events)));
+        }
+    }
+
+    /**
+     * Un 4xx no se reintenta: el suscriptor rechazó el lote y se descarta
+     */
+    private Mono<Void> deliver(Path file, WebhookDelivery delivery) {
+        if (file != null && !inFlight.add(file)) {
+            return Mono.empty();
+        }
+        return webClient.post()
+                .uri(delivery.url())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new WebhookBatch(delivery.events()))
+                .retrieve()
+                .toBodilessEntity()
+                .retryWhen(Retry.backoff(maxAttempts - 1, backoff).filter(error -> !isRejected(error)))
+                .doOnSuccess(response -> log.debug("Delivered {} user change(s) to {}", delivery.events().size(), delivery.url()))
+                .then(removeFromSpool(file))
+                .onErrorResume(error -> {
+                    if (isRejected(error)) {
+                        log.error("Webhook {} rejected {} user change(s): {}", delivery.url(), delivery.events().size(), error.getMessage());
+                        return removeFromSpool(file);
+                    }
+                    log.warn("Webhook delivery to {} failed, kept in spool ({}): {}",
+                            delivery.url(), file != null ? file.getFileName() : "not spooled", error.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> {
+                    if (file != null) {
+                        inFlight.remove(file);
+                    }
+                });
+    }
+
+    private Mono<Void> removeFromSpool(Path file) {
+        return Mono.<Void>fromRunnable(() -> deleteQuietly(file)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static boolean isRejected(Throwable error) {
+        Throwable cause = Exceptions.unwrap(error);
+        if (Exceptions.isRetryExhausted(error) && error.getCause() != null) {
+            cause = error.getCause();
+        }
+        return cause instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+    }
+
+    private synchronized List<UserChangeNotice> drainPending() {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        List<UserChangeNotice> events = new ArrayList<>(pending.values());
+        pending = new LinkedHashMap<>();
+        return events;
+    }
+
+    private Path spool(WebhookDelivery delivery) {
+        try {
+            Files.createDirectories(spoolDir);
+            // Nombre ordenable: primero el instante, luego la secuencia
+            Path file = spoolDir.resolve(String.format("%013d-%06d.json",
+                    System.currentTimeMillis(), spoolSequence.incrementAndGet() % 1_000_000));
+            Path tmp = spoolDir.resolve(file.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), delivery);
+            Files.move(tmp, file);
+            return file;
+        } catch (IOException e) {
+            log.error("Could not spool webhook delivery to {}: {}", delivery.url(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Archivos del spool, del más viejo al más nuevo
+     */
+    private List<Path> spooledFiles() {
+        if (!Files.isDirectory(spoolDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            return files.filter(file -> file.toString().endsWith(".json")).sorted().toList();
+        } catch (IOException e) {
+            log.warn("Could not list webhook spool {}: {}", spoolDir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Descarta los lotes vencidos y, si aún sobran, los más viejos hasta quedar en spool-max-files
+     */
+    private void trimSpool() {
+        List<Path> files = spooledFiles();
+        long oldestKept = System.currentTimeMillis() - spoolMaxAge.toMillis();
+        int excess = files.size() - spoolMaxFiles;
+        int removed = 0;
+        for (Path file : files) {
+            if (removed >= excess && spooledAt(file) >= oldestKept) {
+                break;
+            }
+            deleteQuietly(file);
+            removed++;
+        }
+        if (removed > 0) {
+            spoolDropped.addAndGet(removed);
+            log.warn("Webhook spool over its limits ({} files, {}), dropped {} oldest delivery(ies)",
+                    spoolMaxFiles, spoolMaxAge, removed);
+        }
+    }
+
+    /**
+     * Instante de guardado: el prefijo del nombre, o la fecha del archivo si no la tiene
+     */
+    private static long spooledAt(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.indexOf('-')));
+        } catch (RuntimeException e) {
+            try {
+                return Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException io) {
+                return Long.MAX_VALUE;
+            }
+        }
+    }
+
+    private Optional<WebhookDelivery> readSpooled(Path file) {
+        try {
+            return Optional.of(objectMapper.readValue(file.toFile(), WebhookDelivery.class));
+        } catch (IOException e) {
+            log.error("Discarding unreadable webhook spool file {}: {}", file, e.getMessage());
+            deleteQuietly(file);
+            return Optional.empty();
+        }
+    }
+
+    private boolean hasSpooledDeliveries() {
+        return getSpooledCount() > 0;
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete webhook spool file {}: {}", file, e.getMessage());
+        }
+    }
+}
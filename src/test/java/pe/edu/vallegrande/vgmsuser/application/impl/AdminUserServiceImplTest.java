@@ -0,0 +1,117 @@
+package pe.edu.vallegrande.vgmsuser.application.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.representations.idm.UserRepresentation;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQueryPlanner;
+import pe.edu.vallegrande.vgmsuser.domain.model.User;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailPriority;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.PasswordResetTokens;
+import pe.edu.vallegrande.vgmsuser.infraestructure.uniqueness.UserUniquenessIndex;
+import pe.edu.vallegrande.vgmsuser.infraestructure.util.KeycloakProvider;
+import pe.edu.vallegrande.vgmsuser.support.keycloak.FakeKeycloakRoute;
+import pe.edu.vallegrande.vgmsuser.support.keycloak.FakeKeycloakServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de AdminUserServiceImpl sobre el Keycloak falso
+ */
+@DisplayName("AdminUserService - Pruebas Unitarias")
+class AdminUserServiceImplTest {
+
+    private FakeKeycloakServer server;
+    private Keycloak keycloak;
+    private EmailDispatcher emailDispatcher;
+    private AdminUserServiceImpl adminUserService;
+
+    @BeforeEach
+    void setUp() {
+        server = new FakeKeycloakServer("auth-school").withSeed(13).start();
+        keycloak = server.adminClient();
+        KeycloakServiceImpl keycloakService = new KeycloakServiceImpl(new KeycloakProvider(keycloak, server.getRealm()));
+        emailDispatcher = new EmailDispatcher(2, 1, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10);
+        adminUserService = new AdminUserServiceImpl(keycloakService, null, null, event -> { },
+                new UserQueryPlanner(keycloakService, 100, 20),
+                new UserUniquenessIndex(keycloakService, Duration.ZERO, Duration.ZERO, Duration.ZERO),
+                new PasswordResetTokens(List.of(), Duration.ofHours(24), Duration.ofDays(7)),
+                emailDispatcher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keycloak.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("UT-AU001: Directores con su staff en una sola pasada agrupada por institución")
+    void testGetDirectorsWithStaff_SinglePassJoin() {
+        addUser("director1", "INST001", "director");
+        addUser("director2", "INST002", "director");
+        addUser("director3", null, "director");
+        for (int i = 0; i < 4; i++) {
+            addUser("docente" + i, "INST001", "teacher");
+        }
+        addUser("secretaria", "INST002", "secretary");
+        addUser("auxiliar", "INST003", "auxiliary");
+
+        Map<String, Integer> staffByDirector = new HashMap<>();
+        StepVerifier.create(adminUserService.getDirectorsWithStaff())
+                .recordWith(ArrayList::new)
+                .expectNextCount(3)
+                .consumeRecordedWith(blocks -> blocks.forEach(block -> staffByDirector.put(
+                        ((KeycloakUserDto) block.get("director")).getUsername(), (Integer) block.get("total_staff"))))
+                .verifyComplete();
+
+        assertThat(staffByDirector).containsExactlyInAnyOrderEntriesOf(Map.of("director1", 4, "director2", 1, "director3", 0));
+        // Un listado del rol director y uno por cada rol de staff, sin búsquedas por director
+        assertThat(server.callCount(FakeKeycloakRoute.ROLE_MEMBERS)).isEqualTo(4);
+        assertThat(server.callCount(FakeKeycloakRoute.USER_SEARCH)).isZero();
+    }
+
+    @Test
+    @DisplayName("UT-AU002: Con la cola de correos masivos llena el alta se rechaza sin crear el usuario en Keycloak")
+    void testCreateAdminUser_RefusedWhenCredentialsEmailHasNoRoom() {
+        // max-pending 1: el único lugar de BULK ya está tomado
+        EmailDispatcher.Slot taken = emailDispatcher.reserve(EmailPriority.BULK);
+        assertThat(taken).isNotNull();
+        User user = User.builder()
+                .username("admin.nuevo")
+                .email("admin.nuevo@vallegrande.edu.pe")
+                .documentNumber("44556677")
+                .roles(Set.of("admin"))
+                .build();
+
+        StepVerifier.create(adminUserService.createAdminUser(user))
+                .expectErrorMessage("Cola de correos llena: no se creó el usuario, intente nuevamente en unos minutos")
+                .verify();
+
+        assertThat(server.callCount(FakeKeycloakRoute.USER_CREATE)).isZero();
+        // Al devolver el lugar otra alta vuelve a tener cupo
+        taken.release();
+        assertThat(emailDispatcher.reserve(EmailPriority.BULK)).isNotNull();
+    }
+
+    private void addUser(String username, String institutionId, String role) {
+        UserRepresentation representation = new UserRepresentation();
+        representation.setUsername(username);
+        if (institutionId != null) {
+            representation.setAttributes(Map.of("institutionId", List.of(institutionId)));
+        }
+        server.addUser(representation, role);
+    }
+}
@@ -6,17 +6,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import pe.edu.vallegrande.vgmsuser.application.service.IEmailService;
 import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
 import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.PasswordResetTokens;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,6 +43,16 @@ class AuthServiceImplTest {
     @Mock
     private IEmailService emailService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private PasswordResetTokens resetTokens = new PasswordResetTokens(
+            List.of("test:Y2xhdmUtZGUtcHJ1ZWJhLXBhcmEtdG9rZW5zLWhtYWM="), Duration.ofHours(24), Duration.ofDays(7));
+
+    @Spy
+    private EmailDispatcher emailDispatcher = new EmailDispatcher(2, 100, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10);
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -66,9 +82,6 @@ class AuthServiceImplTest {
         when(keycloakService.getUserByKeycloakId(TEST_KEYCLOAK_ID))
                 .thenReturn(Mono.just(mockKeycloakUser));
         
-        when(keycloakService.updatePasswordResetToken(eq(TEST_KEYCLOAK_ID), anyString()))
-                .thenReturn(Mono.empty());
-        
         when(emailService.sendPasswordResetEmail(anyString(), anyString(), anyString()))
                 .thenReturn(Mono.empty());
 
@@ -77,20 +90,13 @@ class AuthServiceImplTest {
 
         // Then
         StepVerifier.create(result)
-                .expectNextMatches(token -> {
-                    // Verificar que el token es un UUID válido
-                    try {
-                        UUID.fromString(token);
-                        return true;
-                    } catch (IllegalArgumentException e) {
-                        return false;
-                    }
-                })
+                // Verificar que el token está firmado para el usuario
+                .expectNextMatches(token -> resetTokens.verify(token).keycloakId().equals(TEST_KEYCLOAK_ID))
                 .verifyComplete();
 
         // Verificar interacciones
         verify(keycloakService, times(1)).getUserByKeycloakId(TEST_KEYCLOAK_ID);
-        verify(keycloakService, times(1)).updatePasswordResetToken(eq(TEST_KEYCLOAK_ID), anyString());
+        verify(keycloakService, never()).updatePasswordResetToken(anyString(), any());
         verify(emailService, times(1)).sendPasswordResetEmail(
                 eq(mockKeycloakUser.getEmail()),
                 eq(mockKeycloakUser.getUsername()),
@@ -111,8 +117,6 @@ class AuthServiceImplTest {
         
         when(keycloakService.getUserByKeycloakId(anotherUserId))
                 .thenReturn(Mono.just(anotherUser));
-        when(keycloakService.updatePasswordResetToken(eq(anotherUserId), anyString()))
-                .thenReturn(Mono.empty());
         when(emailService.sendPasswordResetEmail(anyString(), anyString(), anyString()))
                 .thenReturn(Mono.empty());
 
@@ -123,7 +127,7 @@ class AuthServiceImplTest {
 
         // Verificar interacciones exitosas
         verify(keycloakService, times(1)).getUserByKeycloakId(anotherUserId);
-        verify(keycloakService, times(1)).updatePasswordResetToken(eq(anotherUserId), anyString());
+        verify(keycloakService, never()).updatePasswordResetToken(anyString(), any());
         verify(emailService, times(1)).sendPasswordResetEmail(
                 eq(anotherUser.getEmail()),
                 eq(anotherUser.getUsername()),
@@ -138,9 +142,6 @@ class AuthServiceImplTest {
         when(keycloakService.getUserByKeycloakId(anyString()))
                 .thenReturn(Mono.just(mockKeycloakUser));
         
-        when(keycloakService.updatePasswordResetToken(anyString(), anyString()))
-                .thenReturn(Mono.empty());
-        
         when(emailService.sendPasswordResetEmail(anyString(), anyString(), anyString()))
                 .thenReturn(Mono.empty());
 
@@ -275,4 +276,70 @@ class AuthServiceImplTest {
         verify(keycloakService, never()).updatePasswordResetToken(anyString(), isNull());
         verify(emailService, never()).sendPasswordChangeConfirmationEmail(anyString(), anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("UT012: Token firmado: se valida sin recorrer usuarios y deja de valer tras cambiar la contraseña")
+    void testResetPassword_SignedTokenIsSingleUse() {
+        // Given - Token emitido para la contraseña temporal actual
+        LocalDateTime passwordCreatedAt = LocalDateTime.now().minusHours(1);
+        KeycloakUserDto user = KeycloakUserDto.builder()
+                .keycloakId(TEST_KEYCLOAK_ID)
+                .username("test.user")
+                .email("test.user@vallegrande.edu.pe")
+                .passwordCreatedAt(passwordCreatedAt)
+                .build();
+        String token = resetTokens.issue(user);
+
+        when(keycloakService.getUserByKeycloakId(TEST_KEYCLOAK_ID)).thenReturn(Mono.just(user));
+        when(keycloakService.changePassword(TEST_KEYCLOAK_ID, "NewPassword123!")).thenReturn(Mono.empty());
+        when(keycloakService.updatePasswordStatus(eq(TEST_KEYCLOAK_ID), anyString(), anyString())).thenReturn(Mono.empty());
+        when(emailService.sendPasswordChangeConfirmationEmail(anyString(), anyString())).thenReturn(Mono.empty());
+
+        // When & Then - Primer uso
+        StepVerifier.create(authService.resetPassword(token, "NewPassword123!"))
+                .expectNext("Contraseña cambiada exitosamente")
+                .verifyComplete();
+
+        // Segundo uso: la contraseña ya cambió (nuevo passwordCreatedAt)
+        user.setPasswordCreatedAt(passwordCreatedAt.plusHours(1));
+        StepVerifier.create(authService.resetPassword(token, "OtherPassword123!"))
+                .expectErrorMessage("Token inválido o expirado")
+                .verify();
+
+        // Token alterado: se rechaza sin consultar Keycloak
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        StepVerifier.create(authService.resetPassword(tampered, "OtherPassword123!"))
+                .expectErrorMessage("Token inválido o expirado")
+                .verify();
+
+        // Entrada que no es firmada ni UUID: tampoco recorre los usuarios del realm
+        StepVerifier.create(authService.resetPassword("sin-punto-ni-uuid", "OtherPassword123!"))
+                .expectErrorMessage("Token inválido o expirado")
+                .verify();
+
+        verify(keycloakService, times(2)).getUserByKeycloakId(TEST_KEYCLOAK_ID);
+        verify(keycloakService, times(1)).changePassword(anyString(), anyString());
+        verify(keycloakService, never()).getAllUsersWithAttributes();
+        verify(keycloakService, never()).updatePasswordResetToken(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("UT013: Un fallo de SMTP en la confirmación no revierte ni reporta como error el cambio de contraseña")
+    void testForcePasswordChange_ConfirmationEmailFailureIsNotReported() {
+        // Given - Keycloak cambia la contraseña pero el SMTP falla
+        when(keycloakService.getUserByKeycloakId(TEST_KEYCLOAK_ID)).thenReturn(Mono.just(mockKeycloakUser));
+        when(keycloakService.changePassword(TEST_KEYCLOAK_ID, "NewPassword123!")).thenReturn(Mono.empty());
+        when(keycloakService.updatePasswordStatus(eq(TEST_KEYCLOAK_ID), anyString(), anyString())).thenReturn(Mono.empty());
+        when(emailService.sendPasswordChangeConfirmationEmail(anyString(), anyString()))
+                .thenReturn(Mono.error(new RuntimeException("Error enviando email: 421 Service not available")));
+
+        // When & Then
+        StepVerifier.create(authService.forcePasswordChange(TEST_KEYCLOAK_ID, "12345678", "NewPassword123!"))
+                .expectNext("Contraseña cambiada exitosamente. Tu cuenta está ahora activa.")
+                .verifyComplete();
+
+        verify(emailService, times(1)).sendPasswordChangeConfirmationEmail(
+                eq(mockKeycloakUser.getEmail()), eq(mockKeycloakUser.getUsername()));
+        assertThat(emailDispatcher.getStats()).containsEntry("failed", 1L);
+    }
+}
@@ -6,18 +6,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import pe.edu.vallegrande.vgmsuser.application.service.IEmailService;
 import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
 import pe.edu.vallegrande.vgmsuser.domain.model.User;
 import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.DocumentType;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.PasswordResetTokens;
+import pe.edu.vallegrande.vgmsuser.infraestructure.uniqueness.UserUniquenessIndex;
 import pe.edu.vallegrande.vgmsuser.infraestructure.util.KeycloakProvider;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -40,6 +47,18 @@ class UserManagementServiceImplTest {
     @Mock
     private KeycloakProvider keycloakProvider;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private UserUniquenessIndex uniquenessIndex = new UserUniquenessIndex(null, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+
+    @Spy
+    private PasswordResetTokens resetTokens = new PasswordResetTokens(List.of("test:Y2xhdmUtZGUtcHJ1ZWJhLXBhcmEtdG9rZW5zLWhtYWM="), Duration.ofHours(24), Duration.ofDays(7));
+
+    @Spy
+    private EmailDispatcher emailDispatcher = new EmailDispatcher(2, 100, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10);
+
     @InjectMocks
     private UserManagementServiceImpl userManagementService;
 
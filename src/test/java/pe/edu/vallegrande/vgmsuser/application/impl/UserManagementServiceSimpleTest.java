@@ -4,9 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQueryPlanner;
 import pe.edu.vallegrande.vgmsuser.application.service.IEmailService;
 import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
 import pe.edu.vallegrande.vgmsuser.domain.model.User;
@@ -14,12 +15,17 @@ import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.DocumentType;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
 import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.PasswordResetTokens;
+import pe.edu.vallegrande.vgmsuser.infraestructure.uniqueness.UserUniquenessIndex;
 import pe.edu.vallegrande.vgmsuser.infraestructure.util.KeycloakProvider;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -44,7 +50,9 @@ class UserManagementServiceSimpleTest {
     @Mock
     private KeycloakProvider keycloakProvider;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private UserManagementServiceImpl userManagementService;
 
     private User testUser;
@@ -52,6 +60,12 @@ class UserManagementServiceSimpleTest {
 
     @BeforeEach
     void setUp() {
+        userManagementService = new UserManagementServiceImpl(keycloakService, emailService, keycloakProvider,
+                eventPublisher, new UserQueryPlanner(keycloakService, 100, 1000),
+                new UserUniquenessIndex(keycloakService, Duration.ZERO, Duration.ZERO, Duration.ZERO),
+                new PasswordResetTokens(List.of("test:Y2xhdmUtZGUtcHJ1ZWJhLXBhcmEtdG9rZW5zLWhtYWM="), Duration.ofHours(24), Duration.ofDays(7)),
+                new EmailDispatcher(2, 100, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10));
+
         testUser = User.builder()
                 .username("juan.perez")
                 .firstname("Juan")
@@ -97,10 +111,6 @@ class UserManagementServiceSimpleTest {
         when(keycloakService.getUserByKeycloakId(anyString()))
                 .thenReturn(Mono.just(mockKeycloakUser));
 
-        // Mock para updatePasswordResetToken
-        when(keycloakService.updatePasswordResetToken(anyString(), anyString()))
-                .thenReturn(Mono.empty());
-
         // Mock para emailService.sendTemporaryCredentialsEmail
         when(emailService.sendTemporaryCredentialsEmail(anyString(), anyString(), anyString(), anyString()))
                 .thenReturn(Mono.empty());
@@ -183,10 +193,6 @@ class UserManagementServiceSimpleTest {
         when(keycloakService.getUserByKeycloakId(anyString()))
                 .thenReturn(Mono.just(mockKeycloakUser));
 
-        // Mock para updatePasswordResetToken
-        when(keycloakService.updatePasswordResetToken(anyString(), anyString()))
-                .thenReturn(Mono.empty());
-
         // Mock para emailService.sendTemporaryCredentialsEmail
         when(emailService.sendTemporaryCredentialsEmail(anyString(), anyString(), anyString(), anyString()))
                 .thenReturn(Mono.empty());
@@ -233,10 +239,6 @@ class UserManagementServiceSimpleTest {
         when(keycloakService.getUserByKeycloakId(anyString()))
                 .thenReturn(Mono.just(mockKeycloakUser));
 
-        // Mock para updatePasswordResetToken
-        when(keycloakService.updatePasswordResetToken(anyString(), anyString()))
-                .thenReturn(Mono.empty());
-
         // Mock para emailService.sendTemporaryCredentialsEmail
         when(emailService.sendTemporaryCredentialsEmail(anyString(), anyString(), anyString(), anyString()))
                 .thenReturn(Mono.empty());
@@ -263,7 +265,7 @@ class UserManagementServiceSimpleTest {
         KeycloakUserDto nonStaffUser = createKeycloakUser(adminId, "admin.1", Set.of("admin"), "INST001");
         KeycloakUserDto differentInstitution = createKeycloakUser(otherInstId, "teacher.2", Set.of("teacher"), "INST002");
 
-        when(keycloakService.getAllUsersWithAttributes())
+        when(keycloakService.searchUsersByAttribute("institutionId", "INST001"))
                 .thenReturn(Flux.just(staffUser1, staffUser2, nonStaffUser, differentInstitution));
 
         // When
@@ -275,7 +277,29 @@ class UserManagementServiceSimpleTest {
                 .expectNextMatches(user -> user.getKeycloakId().equals(staffId2))
                 .verifyComplete();
 
-        verify(keycloakService, times(1)).getAllUsersWithAttributes();
+        verify(keycloakService, times(1)).searchUsersByAttribute("institutionId", "INST001");
+        verify(keycloakService, never()).getAllUsersWithAttributes();
+    }
+
+    @Test
+    @DisplayName("UT006: Debe filtrar staff por rol sin distinguir mayúsculas en el rol solicitado")
+    void testGetStaffByInstitutionAndRole_MatchesRoleCaseInsensitive() {
+        // Given
+        String auxiliaryId = UUID.randomUUID().toString();
+        KeycloakUserDto teacher = createKeycloakUser(UUID.randomUUID().toString(), "teacher.1", Set.of("teacher"), "INST001");
+        KeycloakUserDto auxiliary = createKeycloakUser(auxiliaryId, "auxiliary.1", Set.of("auxiliary", "teacher"), "INST001");
+        KeycloakUserDto otherAuxiliary = createKeycloakUser(UUID.randomUUID().toString(), "auxiliary.2", Set.of("auxiliary"), "INST002");
+
+        when(keycloakService.searchUsersByAttribute("institutionId", "INST001"))
+                .thenReturn(Flux.just(teacher, auxiliary, otherAuxiliary));
+
+        // When
+        Flux<KeycloakUserDto> result = userManagementService.getStaffByInstitutionAndRole("INST001", "AUXILIARY");
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(user -> user.getKeycloakId().equals(auxiliaryId))
+                .verifyComplete();
     }
 
     // ========== HELPER METHODS (Para evitar repetir código) ==========
@@ -0,0 +1,108 @@
+package pe.edu.vallegrande.vgmsuser.application.query;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.representations.idm.UserRepresentation;
+import pe.edu.vallegrande.vgmsuser.application.impl.KeycloakServiceImpl;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import pe.edu.vallegrande.vgmsuser.infraestructure.util.KeycloakProvider;
+import pe.edu.vallegrande.vgmsuser.support.keycloak.FakeKeycloakRoute;
+import pe.edu.vallegrande.vgmsuser.support.keycloak.FakeKeycloakServer;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas del planificador de listados sobre el Keycloak falso
+ */
+@DisplayName("UserQueryPlanner - Pruebas Unitarias")
+class UserQueryPlannerTest {
+
+    private FakeKeycloakServer server;
+    private Keycloak keycloak;
+    private UserQueryPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        server = new FakeKeycloakServer("auth-school").withSeed(11).start();
+        keycloak = server.adminClient();
+        planner = new UserQueryPlanner(new KeycloakServiceImpl(new KeycloakProvider(keycloak, server.getRealm())), 100, 40);
+
+        // INST001 es grande: 30 docentes y su director; otras 9 instituciones solo tienen director
+        for (int i = 0; i < 30; i++) {
+            addUser("docente" + i, "INST001", "teacher");
+        }
+        for (int i = 1; i <= 10; i++) {
+            addUser("director" + i, String.format("INST%03d", i), "director");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        keycloak.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("UT-QP001: Explain muestra las alternativas y elige el término más selectivo; sin términos recorre todo")
+    void testExplain_ChoosesCheapestCandidate() {
+        UserQuery query = UserQuery.and(UserQuery.institution("INST002"), UserQuery.role("TEACHER"));
+
+        QueryPlan plan = planner.explain(query);
+
+        assertThat(plan.getQuery()).isEqualTo("institutionId = INST002 AND role = teacher");
+        assertThat(plan.getCandidates()).extracting(QueryPlan.Candidate::getPath)
+                .containsExactly(AccessPath.ATTRIBUTE_SEARCH, AccessPath.ROLE_MEMBERS, AccessPath.FULL_SCAN);
+        assertThat(plan.getChosen().getPath()).isEqualTo(AccessPath.ATTRIBUTE_SEARCH);
+        assertThat(plan.getChosen().getDriver()).isEqualTo("institutionId:INST002");
+        assertThat(plan.getResidual()).isEqualTo("role = teacher");
+
+        StepVerifier.create(planner.execute(query)).verifyComplete();
+        assertThat(server.callCount(FakeKeycloakRoute.ROLE_MEMBERS)).isZero();
+
+        StepVerifier.create(planner.execute(UserQuery.and()))
+                .expectNextCount(40)
+                .verifyComplete();
+        QueryPlan afterScan = planner.explain(query);
+        assertThat(afterScan.getCandidates()).allSatisfy(candidate -> assertThat(candidate.isObserved()).isTrue());
+        assertThat(afterScan.getCandidates().get(0).getEstimatedRows()).isEqualTo(1);
+        assertThat(afterScan.getCandidates().get(1).getEstimatedRows()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("UT-QP002: Tras observar una institución grande cambia a las páginas de miembros del rol")
+    void testExecute_AdaptsPlanToObservedCardinality() {
+        UserQuery query = UserQuery.and(UserQuery.anyRole(Role.director.bit()), UserQuery.institution("INST001"));
+
+        assertThat(planner.explain(query).getChosen().getPath()).isEqualTo(AccessPath.ATTRIBUTE_SEARCH);
+        StepVerifier.create(planner.execute(query))
+                .assertNext(user -> assertThat(user.getUsername()).isEqualTo("director1"))
+                .verifyComplete();
+        long roleMappingsFirstRun = server.callCount(FakeKeycloakRoute.ROLE_MAPPINGS_GET);
+
+        QueryPlan plan = planner.explain(query);
+        assertThat(plan.getCandidates().get(1).isObserved()).isTrue();
+        assertThat(plan.getCandidates().get(1).getEstimatedRows()).isEqualTo(31);
+        assertThat(plan.getChosen().getPath()).isEqualTo(AccessPath.ROLE_MEMBERS);
+
+        StepVerifier.create(planner.execute(query))
+                .assertNext(user -> assertThat(user.getUsername()).isEqualTo("director1"))
+                .verifyComplete();
+        assertThat(server.callCount(FakeKeycloakRoute.ROLE_MEMBERS)).isEqualTo(1);
+        assertThat(server.callCount(FakeKeycloakRoute.ROLE_MAPPINGS_GET) - roleMappingsFirstRun).isEqualTo(10);
+        assertThat(planner.explain(query).getChosen().getPath()).isEqualTo(AccessPath.ROLE_MEMBERS);
+    }
+
+    private void addUser(String username, String institutionId, String role) {
+        UserRepresentation representation = new UserRepresentation();
+        representation.setUsername(username);
+        representation.setAttributes(Map.of("institutionId", List.of(institutionId), "status", List.of("A")));
+        server.addUser(representation, role);
+    }
+}
@@ -141,6 +141,23 @@ public class PerformanceMockConfig {
                 return Flux.fromIterable(mockUsers.values());
             }
 
+            @Override
+            public Flux<KeycloakUserDto> searchUsersByAttribute(String attribute, String value) {
+                return getAllUsersWithAttributes()
+                        .filter(user -> value.equals(switch (attribute) {
+                            case "institutionId" -> user.getInstitutionId();
+                            case "documentNumber" -> user.getDocumentNumber();
+                            case "status" -> user.getStatus() != null ? user.getStatus().name() : null;
+                            default -> null;
+                        }));
+            }
+
+            @Override
+            public Flux<KeycloakUserDto> getUsersByRole(String roleName) {
+                return getAllUsersWithAttributes()
+                        .filter(user -> user.getRoles() != null && user.getRoles().contains(roleName));
+            }
+
             @Override
             public Mono<Void> updateUserAttributes(String keycloakId, User user) {
                 KeycloakUserDto existingUser = mockUsers.get(keycloakId);
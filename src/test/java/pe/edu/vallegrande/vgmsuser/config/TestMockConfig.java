@@ -147,6 +147,25 @@ public class TestMockConfig {
                 return Flux.fromIterable(mockUsers.values());
             }
 
+            @Override
+            public Flux<KeycloakUserDto> searchUsersByAttribute(String attribute, String value) {
+                log.info("🔧 MOCK: Searching users by attribute {}={}", attribute, value);
+                return getAllUsersWithAttributes()
+                        .filter(user -> value.equals(switch (attribute) {
+                            case "institutionId" -> user.getInstitutionId();
+                            case "documentNumber" -> user.getDocumentNumber();
+                            case "status" -> user.getStatus() != null ? user.getStatus().name() : null;
+                            default -> null;
+                        }));
+            }
+
+            @Override
+            public Flux<KeycloakUserDto> getUsersByRole(String roleName) {
+                log.info("🔧 MOCK: Getting members of role {}", roleName);
+                return getAllUsersWithAttributes()
+                        .filter(user -> user.getRoles() != null && user.getRoles().contains(roleName));
+            }
+
             @Override
             public Mono<Void> updateUserAttributes(String keycloakId, User user) {
                 log.info("🔧 MOCK: Updating user attributes for keycloakId: {}", keycloakId);
@@ -0,0 +1,99 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import pe.edu.vallegrande.vgmsuser.application.service.IUserManagementService;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.UserManagementRest;
+import pe.edu.vallegrande.vgmsuser.infraestructure.search.UserSearchIndex;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.IdentityWebFilter;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas Unitarias del registro de cambios por institución y de /director/staff/changes
+ */
+@DisplayName("DirectoryChangeLog - Pruebas Unitarias")
+class DirectoryChangeLogTest {
+
+    private final DirectoryVersionTracker tracker = new DirectoryVersionTracker(Duration.ofMinutes(5));
+    private final DirectoryChangeLog changeLog = new DirectoryChangeLog(tracker, 3);
+
+    @Test
+    @DisplayName("UT-DC001: Devuelve el último cambio por usuario, retira a los trasladados y pide recarga fuera del horizonte")
+    void testChangesSince_CoalescesAndDetectsHorizon() {
+        long start = tracker.currentVersion();
+        changeLog.onUserChange(new UserChangeEvent(UserChangeEvent.Type.CREATED, "kc-1", null, user("kc-1", "INST001", "teacher")));
+        changeLog.onUserChange(new UserChangeEvent(UserChangeEvent.Type.UPDATED, "kc-1", null, user("kc-1", "INST001", "teacher")));
+        changeLog.onUserChange(new UserChangeEvent(UserChangeEvent.Type.UPDATED, "kc-2",
+                user("kc-2", "INST001", "secretary"), user("kc-2", "INST002", "secretary")));
+        changeLog.onUserChange(new UserChangeEvent(UserChangeEvent.Type.UPDATED, "kc-3", null, user("kc-3", "INST001", "director")));
+
+        DirectoryChanges changes = changeLog.changesSince("INST001", start + 1);
+        assertThat(changes.isFullResync()).isFalse();
+        assertThat(changes.getVersion()).isEqualTo(tracker.institutionVersion("INST001"));
+        assertThat(changes.getChanges()).extracting(DirectoryChange::getKeycloakId).containsExactly("kc-1", "kc-2");
+        assertThat(changes.getChanges()).extracting(DirectoryChange::isRemoved).containsExactly(false, true);
+        assertThat(changeLog.changesSince("INST002", start).getChanges()).extracting(DirectoryChange::getKeycloakId)
+                .containsExactly("kc-2");
+
+        changeLog.onUserChange(new UserChangeEvent(UserChangeEvent.Type.DELETED, "kc-1", user("kc-1", "INST001", "teacher"), null));
+        changeLog.onUserChange(new UserChangeEvent(UserChangeEvent.Type.CREATED, "kc-4", null, user("kc-4", "INST001", "auxiliary")));
+        assertThat(changeLog.changesSince("INST001", start).isFullResync()).isTrue();
+        assertThat(changeLog.changesSince("INST001", -1).isFullResync()).isTrue();
+        assertThat(changeLog.changesSince("INST001", start + 2).getChanges()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("UT-DC002: /director/staff/changes vuelve a leer los cambios sin estado y rechaza cursores de otro arranque")
+    void testChangesEndpoint_ResolvesPasswordChangesAndRejectsForeignCursor() {
+        IUserManagementService service = mock(IUserManagementService.class);
+        when(service.getCompleteUserByKeycloakId("kc-1")).thenReturn(Mono.just(user("kc-1", "INST001", "teacher")));
+        WebTestClient client = WebTestClient.bindToController(new UserManagementRest(service, tracker, changeLog, new UserSearchIndex(service, Duration.ZERO)))
+                .webFilter(new IdentityWebFilter())
+                .build();
+        String since = tracker.cursor(tracker.currentVersion());
+
+        changeLog.onUserChange(new UserChangeEvent(UserChangeEvent.Type.PASSWORD_CHANGED, "kc-1", user("kc-1", "INST001", "teacher"), null));
+
+        client.get().uri("/api/v1/users/director/staff/changes?since={since}", since)
+                .header("X-User-Id", "director-1")
+                .header("X-User-Roles", "DIRECTOR")
+                .header("X-Institution-Id", "INST001")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.full_resync").isEqualTo(false)
+                .jsonPath("$.version").isEqualTo(tracker.cursor(tracker.institutionVersion("INST001")))
+                .jsonPath("$.changed_users[0].keycloakId").isEqualTo("kc-1")
+                .jsonPath("$.removed_user_ids").isEmpty();
+
+        client.get().uri("/api/v1/users/director/staff/changes?since=otroarranque.1")
+                .header("X-User-Id", "director-1")
+                .header("X-User-Roles", "DIRECTOR")
+                .header("X-Institution-Id", "INST001")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.full_resync").isEqualTo(true);
+    }
+
+    private KeycloakUserDto user(String keycloakId, String institutionId, String role) {
+        return KeycloakUserDto.builder()
+                .keycloakId(keycloakId)
+                .institutionId(institutionId)
+                .roles(Set.of(role))
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import pe.edu.vallegrande.vgmsuser.application.service.IUserManagementService;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.UserManagementRest;
+import pe.edu.vallegrande.vgmsuser.infraestructure.search.UserSearchIndex;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.IdentityWebFilter;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas Unitarias de las versiones del directorio y los GET condicionales
+ */
+@DisplayName("DirectoryVersionTracker - Pruebas Unitarias")
+class DirectoryVersionTrackerTest {
+
+    private final DirectoryVersionTracker tracker = new DirectoryVersionTracker(Duration.ofMinutes(5));
+
+    @Test
+    @DisplayName("UT-DV001: Un cambio de institución avanza la versión de ambas instituciones y del usuario")
+    void testRecord_BumpsPreviousAndCurrentInstitution() {
+        KeycloakUserDto before = user("kc-1", "INST001", "teacher");
+        KeycloakUserDto after = user("kc-1", "INST002", "teacher");
+        String staffEtag = tracker.institutionEtag("INST001");
+
+        long version = tracker.record(new UserChangeEvent(UserChangeEvent.Type.UPDATED, "kc-1", before, after));
+
+        assertThat(tracker.institutionVersion("INST001")).isEqualTo(version);
+        assertThat(tracker.institutionVersion("INST002")).isEqualTo(version);
+        assertThat(tracker.userVersion("kc-1")).isEqualTo(version);
+        assertThat(tracker.institutionVersion("INST003")).isZero();
+        assertThat(tracker.directorsVersion()).isZero();
+        assertThat(tracker.institutionEtag("INST001")).isNotEqualTo(staffEtag);
+
+        tracker.record(new UserChangeEvent(UserChangeEvent.Type.DEACTIVATED, "kc-9", null, user("kc-9", "INST003", "director")));
+        assertThat(tracker.directorsVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    @DisplayName("UT-DV002: /director/staff responde 304 con el ETag vigente sin consultar Keycloak")
+    void testStaffEndpoint_NotModifiedBeforeServiceCall() {
+        IUserManagementService service = mock(IUserManagementService.class);
+        when(service.getStaffByInstitution("INST001")).thenReturn(Flux.just(user("kc-1", "INST001", "teacher")));
+        WebTestClient client = WebTestClient.bindToController(new UserManagementRest(service, tracker, new DirectoryChangeLog(tracker, 500),
+                new UserSearchIndex(service, Duration.ZERO)))
+                .webFilter(new IdentityWebFilter())
+                .build();
+
+        String etag = client.get().uri("/api/v1/users/director/staff")
+                .header("X-User-Id", "director-1")
+                .header("X-User-Roles", "DIRECTOR")
+                .header("X-Institution-Id", "INST001")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.total_users").isEqualTo(1)
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        client.get().uri("/api/v1/users/director/staff")
+                .header("X-User-Id", "director-1")
+                .header("X-User-Roles", "DIRECTOR")
+                .header("X-Institution-Id", "INST001")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(service, times(1)).getStaffByInstitution("INST001");
+
+        tracker.record(new UserChangeEvent(UserChangeEvent.Type.CREATED, "kc-2", null, user("kc-2", "INST001", "auxiliary")));
+        client.get().uri("/api/v1/users/director/staff")
+                .header("X-User-Id", "director-1")
+                .header("X-User-Roles", "DIRECTOR")
+                .header("X-Institution-Id", "INST001")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isOk();
+        verify(service, times(2)).getStaffByInstitution("INST001");
+    }
+
+    private KeycloakUserDto user(String keycloakId, String institutionId, String role) {
+        return KeycloakUserDto.builder()
+                .keycloakId(keycloakId)
+                .institutionId(institutionId)
+                .roles(Set.of(role))
+                .build();
+    }
+}
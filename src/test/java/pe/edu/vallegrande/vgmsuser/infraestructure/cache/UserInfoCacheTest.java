@@ -0,0 +1,118 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import pe.edu.vallegrande.vgmsuser.application.service.IUserManagementService;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.UserInfoResponse;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.rest.UserInfoRest;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas Unitarias de la caché de respuestas codificadas de /user-role
+ */
+@DisplayName("UserInfoCache - Pruebas Unitarias")
+class UserInfoCacheTest {
+
+    private final UserInfoCache cache = new UserInfoCache(new ObjectMapper(), true, 100, Duration.ofMinutes(5));
+
+    @Test
+    @DisplayName("UT-UC001: Reutiliza los bytes y el ETag hasta que un UserChangeEvent invalida la entrada")
+    void testCache_ReusesEncodedBytesUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+        UserInfoResponse response = UserInfoResponse.builder()
+                .id("kc-1").email("docente@vallegrande.edu.pe").roles(List.of("teacher")).status("A").hasAccess(true)
+                .build();
+
+        EncodedUserInfo first = cache.getByEmail("Docente@vallegrande.edu.pe",
+                () -> Mono.fromSupplier(() -> { loads.incrementAndGet(); return response; })).block();
+        EncodedUserInfo second = cache.getById("kc-1",
+                () -> Mono.fromSupplier(() -> { loads.incrementAndGet(); return response; })).block();
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(first.getEtag()).startsWith("\"").endsWith("\"");
+        assertThat(new String(first.getJson())).contains("\"email\":\"docente@vallegrande.edu.pe\"");
+
+        cache.onUserChange(new UserChangeEvent(UserChangeEvent.Type.DEACTIVATED, "kc-1", null,
+                KeycloakUserDto.builder().keycloakId("kc-1").email("docente@vallegrande.edu.pe").build()));
+
+        StepVerifier.create(cache.getByEmail("docente@vallegrande.edu.pe",
+                        () -> Mono.fromSupplier(() -> { loads.incrementAndGet(); return response; })))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("UT-UC002: /user-role responde 304 con If-None-Match sin volver a consultar Keycloak")
+    void testUserInfoRest_ReturnsNotModifiedFromCache() {
+        IUserManagementService service = mock(IUserManagementService.class);
+        when(service.getCompleteUserByEmail("director@vallegrande.edu.pe")).thenReturn(Mono.just(KeycloakUserDto.builder()
+                .keycloakId("kc-2").email("director@vallegrande.edu.pe").roles(Set.of("director"))
+                .institutionId("INST001").status(UserStatus.A).enabled(true)
+                .build()));
+        WebTestClient client = WebTestClient.bindToController(new UserInfoRest(service, cache)).build();
+
+        String etag = client.get().uri("/api/v1/user-role/director@vallegrande.edu.pe")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("kc-2")
+                .jsonPath("$.hasAccess").isEqualTo(true)
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        client.get().uri("/api/v1/user-role/director@vallegrande.edu.pe")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        verify(service, times(1)).getCompleteUserByEmail("director@vallegrande.edu.pe");
+    }
+
+    @Test
+    @DisplayName("UT-UC003: Una carga que se cruza con una invalidación no se guarda ni descarta las cargas siguientes")
+    void testCache_StaleLoadDoesNotCascade() {
+        Sinks.One<UserInfoResponse> staleLoad = Sinks.one();
+        Sinks.One<UserInfoResponse> laterLoad = Sinks.one();
+        AtomicInteger loads = new AtomicInteger();
+
+        Mono<EncodedUserInfo> stale = cache.getById("kc-1", staleLoad::asMono);
+        stale.subscribe();
+        cache.invalidate("kc-9");
+        Mono<EncodedUserInfo> later = cache.getById("kc-3", laterLoad::asMono);
+        later.subscribe();
+
+        staleLoad.tryEmitValue(UserInfoResponse.builder().id("kc-1").email("uno@vallegrande.edu.pe").build());
+        laterLoad.tryEmitValue(UserInfoResponse.builder().id("kc-3").email("tres@vallegrande.edu.pe").build());
+
+        cache.getById("kc-1", () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return UserInfoResponse.builder().id("kc-1").build();
+        })).block();
+        cache.getById("kc-3", () -> Mono.error(new IllegalStateException("kc-3 debía estar en caché"))).block();
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,79 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import pe.edu.vallegrande.vgmsuser.infraestructure.trace.DownstreamTracing;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Pruebas Unitarias para las grabaciones JFR bajo demanda
+ */
+@DisplayName("JfrRecordingService - Pruebas Unitarias")
+class JfrRecordingServiceTest {
+
+    @Test
+    @DisplayName("UT-JFR001: La grabación contiene los eventos de llamadas a Keycloak con el id del usuario")
+    void testRecording_ContainsKeycloakCallEvents() throws Exception {
+        JfrRecordingService service = new JfrRecordingService(true, Duration.ofMinutes(1), DataSize.ofMegabytes(10), "default");
+        service.start(Duration.ofSeconds(30));
+
+        StepVerifier.create(DownstreamTracing.traced("keycloak.getUserByKeycloakId",
+                        KeycloakCallEvent.TYPE, () -> new KeycloakCallEvent("user-123"), Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+
+        Path file = service.stop();
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("pe.edu.vallegrande.vgmsuser.KeycloakCall"))
+                    .toList();
+
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getString("operation")).isEqualTo("keycloak.getUserByKeycloakId");
+            assertThat(events.get(0).getString("userId")).isEqualTo("user-123");
+            assertThat(events.get(0).getBoolean("success")).isTrue();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("UT-JFR002: Rechaza grabaciones cuando la funcionalidad está deshabilitada")
+    void testRecording_DisabledByDefault() {
+        JfrRecordingService service = new JfrRecordingService(false, Duration.ofMinutes(1), DataSize.ofMegabytes(10), "default");
+
+        assertThatThrownBy(() -> service.start(null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("deshabilitadas");
+    }
+
+    @Test
+    @DisplayName("UT-JFR003: Sin grabación activa no se crea el evento JFR de la llamada")
+    void testTraced_DoesNotCreateEventWhenDisabled() {
+        assumeFalse(KeycloakCallEvent.TYPE.isEnabled(), "hay una grabación JFR activa en la JVM de pruebas");
+        AtomicInteger created = new AtomicInteger();
+
+        StepVerifier.create(DownstreamTracing.traced("keycloak.getUserByKeycloakId", KeycloakCallEvent.TYPE, () -> {
+                    created.incrementAndGet();
+                    return new KeycloakCallEvent("user-123");
+                }, Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+
+        assertThat(created).hasValue(0);
+    }
+}
@@ -0,0 +1,193 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.mail;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas Unitarias del envío supervisado de correos
+ */
+@DisplayName("EmailDispatcher - Pruebas Unitarias")
+class EmailDispatcherTest {
+
+    @Test
+    @DisplayName("UT-ED001: Respeta max-concurrency y un envío que falla se reintenta y se cuenta sin afectar a los demás")
+    void testDispatch_LimitsConcurrencyAndContainsFailures() {
+        EmailDispatcher dispatcher = new EmailDispatcher(2, 10, 2, Duration.ofMillis(10), Duration.ofSeconds(5), 0, 10);
+        List<Sinks.Empty<Void>> smtp = new ArrayList<>();
+        AtomicInteger failingAttempts = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.dispatch(EmailPriority.CONFIRMATION, null, "password-change-confirmation", "user" + i + "@vallegrande.edu.pe", () -> {
+                Sinks.Empty<Void> send = Sinks.empty();
+                smtp.add(send);
+                return send.asMono();
+            });
+        }
+        dispatcher.dispatch(EmailPriority.CONFIRMATION, null, "password-change-confirmation", "roto@vallegrande.edu.pe", () -> {
+            failingAttempts.incrementAndGet();
+            return Mono.error(new RuntimeException("535 Authentication failed"));
+        });
+
+        assertThat(smtp).hasSize(2);
+        assertThat(dispatcher.getStats()).containsEntry("pending", 2L).containsEntry("in_flight", 2L);
+
+        smtp.get(0).tryEmitEmpty();
+        smtp.get(1).tryEmitEmpty();
+        awaitUntil(() -> smtp.size() == 3 && dispatcher.getStats().get("failed") == 1L);
+        smtp.get(2).tryEmitEmpty();
+
+        assertThat(failingAttempts).hasValue(2);
+        assertThat(dispatcher.getStats())
+                .containsEntry("sent", 3L)
+                .containsEntry("failed", 1L)
+                .containsEntry("pending", 0L)
+                .containsEntry("in_flight", 0L);
+    }
+
+    @Test
+    @DisplayName("UT-ED002: Con la cola llena el correo se descarta sin lanzar error al que lo encola")
+    void testDispatch_DropsWhenQueueIsFull() {
+        EmailDispatcher dispatcher = new EmailDispatcher(1, 1, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10);
+        Sinks.Empty<Void> smtp = Sinks.empty();
+
+        dispatcher.dispatch(EmailPriority.BULK, "INST001", "temporary-credentials", "a@vallegrande.edu.pe", smtp::asMono);
+        dispatcher.dispatch(EmailPriority.BULK, "INST001", "temporary-credentials", "b@vallegrande.edu.pe", Mono::empty);
+        dispatcher.dispatch(EmailPriority.BULK, "INST001", "temporary-credentials", "c@vallegrande.edu.pe", Mono::empty);
+
+        assertThat(dispatcher.getStats()).containsEntry("pending", 1L).containsEntry("dropped", 1L);
+        smtp.tryEmitEmpty();
+        assertThat(dispatcher.getStats()).containsEntry("sent", 2L).containsEntry("pending", 0L);
+    }
+
+    @Test
+    @DisplayName("UT-ED003: Un reset sale antes que la carga masiva y las instituciones se turnan dentro de BULK")
+    void testDispatch_PriorityAndInstitutionTurns() {
+        EmailDispatcher dispatcher = new EmailDispatcher(1, 100, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10);
+        List<String> order = new ArrayList<>();
+        Sinks.Empty<Void> smtp = Sinks.empty();
+        dispatcher.dispatch(EmailPriority.BULK, "INST001", "temporary-credentials", "bloqueo@vallegrande.edu.pe", () -> {
+            order.add("bloqueo");
+            return smtp.asMono();
+        });
+        for (int i = 1; i <= 3; i++) {
+            String recipient = "a" + i;
+            dispatcher.dispatch(EmailPriority.BULK, "INST001", "temporary-credentials", recipient, () -> record(order, recipient));
+        }
+        dispatcher.dispatch(EmailPriority.BULK, "INST002", "temporary-credentials", "b1", () -> record(order, "b1"));
+        dispatcher.dispatch(EmailPriority.CONFIRMATION, "INST001", "password-change-confirmation", "c1", () -> record(order, "c1"));
+        Mono<Void> reset = dispatcher.send(EmailPriority.RESET, "INST002", "password-reset", "r1", () -> record(order, "r1"));
+        reset.subscribe();
+
+        smtp.tryEmitEmpty();
+
+        assertThat(order).containsExactly("bloqueo", "r1", "c1", "a1", "b1", "a2", "a3");
+    }
+
+    @Test
+    @DisplayName("UT-ED004: El cubo de tokens limita los envíos a la tasa configurada")
+    void testDispatch_TokenBucketShapesRate() {
+        // 600 por minuto = uno cada 100 ms, con ráfaga de 2
+        EmailDispatcher dispatcher = new EmailDispatcher(4, 100, 1, Duration.ZERO, Duration.ofSeconds(5), 600, 2);
+        AtomicInteger sent = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(EmailPriority.BULK, "INST001", "temporary-credentials", "u" + i, () -> Mono.fromRunnable(sent::incrementAndGet));
+        }
+
+        assertThat(sent).hasValue(2);
+        awaitUntil(() -> sent.get() == 5);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(250));
+        assertThat(dispatcher.getStats().get("throttled")).isPositive();
+    }
+
+    @Test
+    @DisplayName("UT-ED005: Con BULK lleno un reset se acepta igual y sale antes que la carga masiva")
+    void testSend_ResetAdmittedWhenBulkIsFull() {
+        EmailDispatcher dispatcher = new EmailDispatcher(1, 2, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10);
+        List<String> order = new ArrayList<>();
+        Sinks.Empty<Void> smtp = Sinks.empty();
+        dispatcher.dispatch(EmailPriority.BULK, "INST001", "temporary-credentials", "bloqueo", () -> {
+            order.add("bloqueo");
+            return smtp.asMono();
+        });
+        for (int i = 1; i <= 3; i++) {
+            String recipient = "a" + i;
+            dispatcher.dispatch(EmailPriority.BULK, "INST001", "temporary-credentials", recipient, () -> record(order, recipient));
+        }
+        assertThat(dispatcher.getStats()).containsEntry("pending_bulk", 2L).containsEntry("dropped", 1L);
+
+        AtomicInteger resetSent = new AtomicInteger();
+        dispatcher.send(EmailPriority.RESET, "INST001", "password-reset", "r1", () -> record(order, "r1"))
+                .subscribe(null, error -> { }, resetSent::incrementAndGet);
+        assertThat(dispatcher.getStats()).containsEntry("pending_reset", 1L).containsEntry("dropped", 1L);
+
+        smtp.tryEmitEmpty();
+
+        assertThat(resetSent).hasValue(1);
+        assertThat(order).containsExactly("bloqueo", "r1", "a1", "a2");
+    }
+
+    @Test
+    @DisplayName("UT-ED006: Cada reintento vuelve a la cola y espera su token como un envío nuevo")
+    void testDispatch_RetriesTakeTokens() {
+        // 600 por minuto = uno cada 100 ms, ráfaga de 1 y sin backoff: solo el cubo separa los intentos
+        EmailDispatcher dispatcher = new EmailDispatcher(1, 10, 3, Duration.ZERO, Duration.ofSeconds(5), 600, 1);
+        List<Long> attempts = new ArrayList<>();
+
+        dispatcher.dispatch(EmailPriority.RESET, "INST001", "password-reset", "roto", () -> {
+            synchronized (attempts) {
+                attempts.add(System.nanoTime());
+            }
+            return Mono.error(new RuntimeException("421 Too many messages"));
+        });
+
+        awaitUntil(() -> dispatcher.getStats().get("failed") == 1L);
+        assertThat(attempts).hasSize(3);
+        assertThat(Duration.ofNanos(attempts.get(2) - attempts.get(0))).isGreaterThanOrEqualTo(Duration.ofMillis(150));
+        assertThat(dispatcher.getStats().get("throttled")).isPositive();
+    }
+
+    @Test
+    @DisplayName("UT-ED007: Al apagar, quien espera un correo encolado con send() recibe el error")
+    void testDestroy_FailsPendingSends() {
+        EmailDispatcher dispatcher = new EmailDispatcher(1, 10, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10);
+        dispatcher.dispatch(EmailPriority.BULK, "INST001", "temporary-credentials", "bloqueo", () -> Sinks.<Void>empty().asMono());
+        List<Throwable> errors = new ArrayList<>();
+        dispatcher.send(EmailPriority.RESET, "INST001", "password-reset", "r1", Mono::empty)
+                .subscribe(null, errors::add);
+
+        dispatcher.destroy();
+
+        assertThat(errors).singleElement()
+                .extracting(Throwable::getMessage)
+                .isEqualTo("Error enviando email: servicio detenido");
+        assertThat(dispatcher.getStats()).containsEntry("pending", 0L);
+    }
+
+    private static Mono<Void> record(List<String> order, String recipient) {
+        return Mono.fromRunnable(() -> order.add(recipient));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
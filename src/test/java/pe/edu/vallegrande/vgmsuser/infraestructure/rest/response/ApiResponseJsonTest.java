@@ -0,0 +1,68 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.rest.response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas Unitarias del JSON de los envoltorios de respuesta
+ */
+@DisplayName("ApiResponse - Pruebas Unitarias")
+class ApiResponseJsonTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new BlackbirdModule())
+            .build();
+
+    @Test
+    @DisplayName("UT-RS001: El listado mantiene las claves message, total_users y users del mapa anterior")
+    void testUserListResponse_KeepsLegacyKeys() throws Exception {
+        KeycloakUserDto user = KeycloakUserDto.builder()
+                .keycloakId("kc-1")
+                .username("docente")
+                .roles(Set.of("teacher"))
+                .build();
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(
+                UserListResponse.of("Users retrieved successfully", List.of(user))));
+
+        assertThat(json.fieldNames()).toIterable().containsExactly("message", "total_users", "users");
+        assertThat(json.get("total_users").asInt()).isEqualTo(1);
+        assertThat(json.get("users").get(0).get("username").asText()).isEqualTo("docente");
+        assertThat(json.get("users").get(0).has("roleMask")).isFalse();
+    }
+
+    @Test
+    @DisplayName("UT-RS002: Los envoltorios de usuario y error producen {message, user} y {error}")
+    void testUserAndErrorResponses_Shape() throws Exception {
+        JsonNode user = objectMapper.readTree(objectMapper.writeValueAsBytes(
+                new UserResponse("User updated successfully", KeycloakUserDto.builder().keycloakId("kc-2").build())));
+        JsonNode error = objectMapper.readTree(objectMapper.writeValueAsBytes(new ErrorResponse("User not found")));
+
+        assertThat(user.fieldNames()).toIterable().containsExactly("message", "user");
+        assertThat(user.get("user").get("keycloakId").asText()).isEqualTo("kc-2");
+        assertThat(error.fieldNames()).toIterable().containsExactly("error");
+    }
+
+    @Test
+    @DisplayName("UT-RS003: El encoder acepta el tipo declarado ApiResponse sin añadir id de tipo")
+    void testDeclaredApiResponse_IsEncodable() throws Exception {
+        Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper);
+
+        assertThat(encoder.canEncode(ResolvableType.forClass(ApiResponse.class), MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(objectMapper.writerFor(ApiResponse.class).writeValueAsString(new ErrorResponse("User not found")))
+                .isEqualTo("{\"error\":\"User not found\"}");
+    }
+}
@@ -0,0 +1,154 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.representations.idm.UserRepresentation;
+import pe.edu.vallegrande.vgmsuser.application.impl.KeycloakServiceImpl;
+import pe.edu.vallegrande.vgmsuser.application.impl.UserManagementServiceImpl;
+import pe.edu.vallegrande.vgmsuser.application.query.UserQueryPlanner;
+import pe.edu.vallegrande.vgmsuser.application.service.IUserManagementService;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.mail.EmailDispatcher;
+import pe.edu.vallegrande.vgmsuser.infraestructure.security.PasswordResetTokens;
+import pe.edu.vallegrande.vgmsuser.infraestructure.uniqueness.UserUniquenessIndex;
+import pe.edu.vallegrande.vgmsuser.infraestructure.util.KeycloakProvider;
+import pe.edu.vallegrande.vgmsuser.support.keycloak.FakeKeycloakServer;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas Unitarias del índice de búsqueda de personal
+ */
+@DisplayName("UserSearchIndex - Pruebas Unitarias")
+class UserSearchIndexTest {
+
+    private final IUserManagementService service = mock(IUserManagementService.class);
+    private final UserSearchIndex index = new UserSearchIndex(service, Duration.ZERO);
+
+    @Test
+    @DisplayName("UT-SR001: Busca sin tildes ni mayúsculas por prefijo, fragmento, email y DNI, y ordena por relevancia")
+    void testSearch_FoldsAccentsAndRanksMatches() {
+        when(service.getStaffByInstitution("INST001")).thenReturn(Flux.just(
+                user("kc-1", "INST001", "José", "Núñez Pérez", "jose.nunez@vallegrande.edu.pe", "45871236"),
+                user("kc-2", "INST001", "María", "Joseph", "maria.joseph@vallegrande.edu.pe", "71234588"),
+                user("kc-3", "INST001", "Ana", "Castañeda", "ana.castaneda@vallegrande.edu.pe", "10293847")));
+
+        assertThat(usernames("INST001", "jose")).containsExactly("kc-1", "kc-2");
+        assertThat(usernames("INST001", "NUÑEZ")).containsExactly("kc-1");
+        assertThat(usernames("INST001", "tane")).containsExactly("kc-3");
+        assertThat(usernames("INST001", "ma jo")).containsExactly("kc-2");
+        assertThat(usernames("INST001", "1234")).containsExactly("kc-2");
+        assertThat(usernames("INST001", "4587")).containsExactly("kc-1");
+        assertThat(usernames("INST001", "ana.castaneda@")).containsExactly("kc-3");
+        assertThat(usernames("INST001", "xyz")).isEmpty();
+        assertThat(index.search("INST001", "a", 1).block()).hasSize(1);
+        verify(service, times(1)).getStaffByInstitution("INST001");
+    }
+
+    @Test
+    @DisplayName("UT-SR002: Se mantiene con los eventos: altas, cambios de nombre, traslados y bajas")
+    void testOnUserChange_UpdatesIndexIncrementally() {
+        when(service.getStaffByInstitution("INST001")).thenReturn(Flux.just(
+                user("kc-1", "INST001", "Luis", "Quispe", "luis@vallegrande.edu.pe", "40000001")));
+        when(service.getStaffByInstitution("INST002")).thenReturn(Flux.empty());
+        assertThat(usernames("INST001", "luis")).containsExactly("kc-1");
+        assertThat(usernames("INST002", "luis")).isEmpty();
+
+        index.onUserChange(new UserChangeEvent(UserChangeEvent.Type.CREATED, "kc-2", null,
+                user("kc-2", "INST001", "Luisa", "Ramos", "luisa@vallegrande.edu.pe", "40000002")));
+        index.onUserChange(new UserChangeEvent(UserChangeEvent.Type.UPDATED, "kc-1", null,
+                user("kc-1", "INST002", "Luis Alberto", "Quispe", "luis@vallegrande.edu.pe", "40000001")));
+        assertThat(usernames("INST001", "luis")).containsExactly("kc-2");
+        assertThat(usernames("INST002", "alberto")).containsExactly("kc-1");
+
+        index.onUserChange(new UserChangeEvent(UserChangeEvent.Type.DELETED, "kc-2", null, null));
+        index.onUserChange(new UserChangeEvent(UserChangeEvent.Type.PASSWORD_CHANGED, "kc-1", null, null));
+        assertThat(usernames("INST001", "luis")).isEmpty();
+        assertThat(usernames("INST002", "quispe")).containsExactly("kc-1");
+    }
+
+    @Test
+    @DisplayName("UT-SR003: Pasado index-max-age recoge un cambio hecho directo en Keycloak, sin evento")
+    void testSearch_RebuildsAfterMaxAge() {
+        try (FakeKeycloakServer server = new FakeKeycloakServer("auth-school").withSeed(17).start();
+             Keycloak keycloak = server.adminClient()) {
+            KeycloakServiceImpl keycloakService = new KeycloakServiceImpl(new KeycloakProvider(keycloak, server.getRealm()));
+            UserManagementServiceImpl staffService = new UserManagementServiceImpl(keycloakService, null,
+                    new KeycloakProvider(keycloak, server.getRealm()), event -> { },
+                    new UserQueryPlanner(keycloakService, 100, 20),
+                    new UserUniquenessIndex(keycloakService, Duration.ZERO, Duration.ZERO, Duration.ZERO),
+                    new PasswordResetTokens(List.of(), Duration.ofHours(24), Duration.ofDays(7)),
+                    new EmailDispatcher(2, 100, 1, Duration.ZERO, Duration.ofSeconds(5), 0, 10));
+            UserSearchIndex expiring = new UserSearchIndex(staffService, Duration.ofMillis(200));
+            String id = server.addUser(representation(null, "Rosa", "Mamani"), "teacher");
+            assertThat(lastnames(expiring, "rosa")).containsExactly("Mamani");
+
+            // Cambio de apellido en la consola de Keycloak: no hay UserChangeEvent
+            server.addUser(representation(id, "Rosa", "Huamán"), "teacher");
+            assertThat(lastnames(expiring, "rosa")).containsExactly("Mamani");
+
+            // Vencido, la búsqueda responde con el índice anterior y dispara la recarga
+            awaitUntil(() -> lastnames(expiring, "huaman").equals(List.of("Huamán")));
+            assertThat(lastnames(expiring, "mamani")).isEmpty();
+        }
+    }
+
+    private static List<String> lastnames(UserSearchIndex searchIndex, String query) {
+        return searchIndex.search("INST001", query, 10).block().stream().map(KeycloakUserDto::getLastname).toList();
+    }
+
+    private static UserRepresentation representation(String id, String firstname, String lastname) {
+        UserRepresentation representation = new UserRepresentation();
+        representation.setId(id);
+        representation.setUsername("rosa.docente");
+        representation.setEmail("rosa.docente@vallegrande.edu.pe");
+        representation.setFirstName(firstname);
+        representation.setLastName(lastname);
+        representation.setAttributes(Map.of("institutionId", List.of("INST001")));
+        return representation;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private List<String> usernames(String institutionId, String query) {
+        return index.search(institutionId, query, 10).block().stream().map(KeycloakUserDto::getUsername).toList();
+    }
+
+    private static KeycloakUserDto user(String keycloakId, String institutionId, String firstname, String lastname,
+                                        String email, String documentNumber) {
+        return KeycloakUserDto.builder()
+                .keycloakId(keycloakId)
+                .username(keycloakId)
+                .institutionId(institutionId)
+                .firstname(firstname)
+                .lastname(lastname)
+                .email(email)
+                .documentNumber(documentNumber)
+                .roles(Set.of("teacher"))
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas Unitarias para la resolución de identidad por ruta
+ */
+@DisplayName("IdentityWebFilter - Pruebas Unitarias")
+class IdentityWebFilterTest {
+
+    private final IdentityWebFilter filter = new IdentityWebFilter();
+
+    @Test
+    @DisplayName("UT-ID001: Rechaza con 400 cuando falta X-User-Id, sin llegar al handler")
+    void testFilter_RejectsMissingUserId() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/v1/users/admin").header("X-User-Roles", "ADMIN"));
+        AtomicBoolean chainCalled = new AtomicBoolean();
+
+        StepVerifier.create(filter.filter(exchange, chain(chainCalled))).verifyComplete();
+
+        assertThat(chainCalled).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        StepVerifier.create(exchange.getResponse().getBodyAsString())
+                .assertNext(body -> assertThat(body).contains("Header X-User-Id is required"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("UT-ID002: Aplica el rol de cada grupo de rutas y exige institución al director")
+    void testFilter_AppliesRoleRules() {
+        MockServerWebExchange teacherOnAdmin = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/v1/users/admin/1")
+                        .header("X-User-Id", "u1")
+                        .header("X-User-Roles", "TEACHER"));
+        StepVerifier.create(filter.filter(teacherOnAdmin, chain(new AtomicBoolean()))).verifyComplete();
+        StepVerifier.create(teacherOnAdmin.getResponse().getBodyAsString())
+                .assertNext(body -> assertThat(body).contains("Admin role required"))
+                .verifyComplete();
+
+        MockServerWebExchange directorWithoutInstitution = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/v1/users/director/staff")
+                        .header("X-User-Id", "u2")
+                        .header("X-User-Roles", "director")
+                        .header("X-Institution-Id", "null"));
+        StepVerifier.create(filter.filter(directorWithoutInstitution, chain(new AtomicBoolean()))).verifyComplete();
+        assertThat(directorWithoutInstitution.getResponse().getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        StepVerifier.create(directorWithoutInstitution.getResponse().getBodyAsString())
+                .assertNext(body -> assertThat(body).contains("Director users must have Institution-Id"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("UT-ID003: Publica la identidad en el exchange y deja pasar las rutas no protegidas")
+    void testFilter_ExposesIdentityAndSkipsPublicRoutes() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/v1/users/personal/profile")
+                        .header("X-User-Id", " u3 ")
+                        .header("X-User-Roles", "student, secretary,")
+                        .header("X-Institution-Id", "INST001"));
+        AtomicBoolean chainCalled = new AtomicBoolean();
+
+        StepVerifier.create(filter.filter(exchange, chain(chainCalled))).verifyComplete();
+
+        assertThat(chainCalled).isTrue();
+        RequestIdentity identity = exchange.getAttribute(RequestIdentity.ATTRIBUTE);
+        assertThat(identity).isNotNull();
+        assertThat(identity.getUserId()).isEqualTo("u3");
+        assertThat(identity.getUserRoles()).containsExactly("STUDENT", "SECRETARY");
+        assertThat(identity.getRoleMask()).isEqualTo(Role.secretary.bit());
+        assertThat(identity.hasAnyRole(Role.STAFF_MASK)).isTrue();
+        assertThat(identity.hasRole(Role.teacher)).isFalse();
+        assertThat(identity.getInstitutionId()).isEqualTo("INST001");
+
+        MockServerWebExchange publicExchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/v1/user-role/test@vallegrande.edu.pe"));
+        AtomicBoolean publicChainCalled = new AtomicBoolean();
+        StepVerifier.create(filter.filter(publicExchange, chain(publicChainCalled))).verifyComplete();
+        assertThat(publicChainCalled).isTrue();
+        assertThat((Object) publicExchange.getAttribute(RequestIdentity.ATTRIBUTE)).isNull();
+    }
+
+    private WebFilterChain chain(AtomicBoolean called) {
+        return exchange -> {
+            called.set(true);
+            return Mono.empty();
+        };
+    }
+}
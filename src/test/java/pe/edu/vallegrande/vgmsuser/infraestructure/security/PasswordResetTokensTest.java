@@ -0,0 +1,83 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas Unitarias de los tokens de reseteo firmados
+ */
+@DisplayName("PasswordResetTokens - Pruebas Unitarias")
+class PasswordResetTokensTest {
+
+    private static final String OLD_KEY = "2024:b2xkLWNsYXZlLWRlLXBydWViYS1wYXJhLXRva2Vucw==";
+    private static final String NEW_KEY = "2025:bnVldmEtY2xhdmUtZGUtcHJ1ZWJhLXBhcmEtdG9rZW5z";
+    private static final Instant NOW = Instant.parse("2025-03-01T12:00:00Z");
+
+    private final KeycloakUserDto user = KeycloakUserDto.builder()
+            .keycloakId("kc-1")
+            .passwordCreatedAt(LocalDateTime.of(2025, 2, 1, 8, 30))
+            .build();
+
+    @Test
+    @DisplayName("UT-RT001: Tras rotar la clave se aceptan los tokens de la clave anterior; una clave retirada los invalida")
+    void testVerify_KeyRotation() {
+        String issuedWithOldKey = tokens(List.of(OLD_KEY), NOW).issue(user);
+
+        PasswordResetTokens.Claims claims = tokens(List.of(NEW_KEY, OLD_KEY), NOW).verify(issuedWithOldKey);
+        assertThat(claims.keycloakId()).isEqualTo("kc-1");
+        assertThat(claims.expiresAt()).isEqualTo(NOW.plus(Duration.ofHours(24)));
+
+        assertThatThrownBy(() -> tokens(List.of(NEW_KEY), NOW).verify(issuedWithOldKey))
+                .hasMessage("Token inválido o expirado");
+        assertThatThrownBy(() -> tokens(List.of(NEW_KEY), NOW).verify("no-es-un-token"))
+                .hasMessage("Token inválido o expirado");
+    }
+
+    @Test
+    @DisplayName("UT-RT002: El token vence según su propósito y deja de ser actual al cambiar la contraseña")
+    void testVerify_ExpiryAndCredentialVersion() {
+        PasswordResetTokens issuer = tokens(List.of(NEW_KEY), NOW);
+        String resetToken = issuer.issue(user);
+        String newUserToken = issuer.issueForNewUser(user);
+
+        PasswordResetTokens twoDaysLater = tokens(List.of(NEW_KEY), NOW.plus(Duration.ofDays(2)));
+        assertThatThrownBy(() -> twoDaysLater.verify(resetToken)).hasMessage("Token inválido o expirado");
+        PasswordResetTokens.Claims claims = twoDaysLater.verify(newUserToken);
+        assertThat(twoDaysLater.isCurrent(claims, user)).isTrue();
+
+        user.setPasswordCreatedAt(LocalDateTime.of(2025, 3, 2, 9, 0));
+        assertThat(twoDaysLater.isCurrent(claims, user)).isFalse();
+    }
+
+    @Test
+    @DisplayName("UT-RT003: Sin app.reset-token.keys el arranque falla salvo en los perfiles de desarrollo y pruebas")
+    void testConstructor_RequiresKeysOutsideDevAndTest() {
+        MockEnvironment production = new MockEnvironment();
+        MockEnvironment test = new MockEnvironment();
+        test.setActiveProfiles("test");
+
+        assertThatThrownBy(() -> new PasswordResetTokens(List.of(""), Duration.ofHours(24), Duration.ofDays(7), production))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("RESET_TOKEN_KEYS");
+        assertThat(new PasswordResetTokens(List.of(NEW_KEY), Duration.ofHours(24), Duration.ofDays(7), production)
+                .issue(user)).contains(".");
+        assertThat(new PasswordResetTokens(List.of(""), Duration.ofHours(24), Duration.ofDays(7), test)
+                .issue(user)).contains(".");
+    }
+
+    private static PasswordResetTokens tokens(List<String> keys, Instant now) {
+        return new PasswordResetTokens(keys, Duration.ofHours(24), Duration.ofDays(7), Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
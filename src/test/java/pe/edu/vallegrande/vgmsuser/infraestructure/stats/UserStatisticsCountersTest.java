@@ -0,0 +1,117 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.stats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas Unitarias de los contadores de usuarios del tablero de administración
+ */
+@DisplayName("UserStatisticsCounters - Pruebas Unitarias")
+class UserStatisticsCountersTest {
+
+    private final IKeycloakService keycloakService = mock(IKeycloakService.class);
+    private final UserStatisticsCounters counters = new UserStatisticsCounters(keycloakService,
+            Duration.ZERO, Duration.ZERO, Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        counters.destroy();
+    }
+
+    @Test
+    @DisplayName("UT-ST001: Cada cambio reemplaza la contribución del usuario, aunque el evento no traiga el estado previo")
+    void testOnUserChange_ReplacesContribution() {
+        counters.onUserChange(event(UserChangeEvent.Type.CREATED, user("kc-1", "INST001", "teacher", UserStatus.A, PasswordStatus.TEMPORARY)));
+        counters.onUserChange(event(UserChangeEvent.Type.CREATED, user("kc-2", "INST001", "secretary", UserStatus.PENDING, PasswordStatus.TEMPORARY)));
+        counters.onUserChange(event(UserChangeEvent.Type.CREATED, user("kc-3", null, "admin", UserStatus.A, PasswordStatus.PERMANENT)));
+        counters.onUserChange(event(UserChangeEvent.Type.UPDATED, user("kc-1", "INST001", "teacher", UserStatus.A, PasswordStatus.TEMPORARY)));
+        counters.onUserChange(event(UserChangeEvent.Type.UPDATED, user("kc-2", "INST002", "teacher", UserStatus.A, PasswordStatus.TEMPORARY)));
+
+        UserStatistics global = counters.global();
+        assertThat(global.total()).isEqualTo(3);
+        assertThat(global.byStatus()).containsEntry("A", 3L).containsEntry("PENDING", 0L);
+        assertThat(global.byRole()).containsEntry("teacher", 2L).containsEntry("secretary", 0L).containsEntry("admin", 1L);
+        assertThat(global.byPasswordStatus()).containsEntry("TEMPORARY", 2L);
+        assertThat(global.byInstitution()).containsOnly(Map.entry("INST001", 1L), Map.entry("INST002", 1L));
+
+        counters.onUserChange(new UserChangeEvent(UserChangeEvent.Type.DELETED, "kc-1", null, null));
+        UserStatistics institution = counters.institution("INST001");
+        assertThat(institution.institutionId()).isEqualTo("INST001");
+        assertThat(institution.total()).isZero();
+        assertThat(institution.byRole()).containsEntry("teacher", 0L);
+        assertThat(counters.global().byInstitution()).containsOnlyKeys("INST002");
+    }
+
+    @Test
+    @DisplayName("UT-ST002: El cambio de contraseña relee al usuario y la reconciliación corrige lo que no llegó por eventos y habilita la lectura")
+    void testPasswordChangeAndReconcile() {
+        KeycloakUserDto temporary = user("kc-1", "INST001", "teacher", UserStatus.A, PasswordStatus.TEMPORARY);
+        counters.onUserChange(event(UserChangeEvent.Type.CREATED, temporary));
+        counters.onUserChange(event(UserChangeEvent.Type.CREATED, user("kc-2", "INST001", "auxiliary", UserStatus.A, PasswordStatus.TEMPORARY)));
+
+        when(keycloakService.getUserByKeycloakId("kc-1"))
+                .thenReturn(Mono.just(user("kc-1", "INST001", "teacher", UserStatus.A, PasswordStatus.PERMANENT)));
+        counters.onUserChange(new UserChangeEvent(UserChangeEvent.Type.PASSWORD_CHANGED, "kc-1", temporary, null));
+        awaitUntil(() -> counters.institution("INST001").byPasswordStatus().get("PERMANENT") == 1L);
+
+        // kc-2 se eliminó y kc-9 se creó directamente en Keycloak
+        when(keycloakService.getAllUsersWithAttributes()).thenReturn(Flux.just(
+                user("kc-1", "INST001", "teacher", UserStatus.A, PasswordStatus.PERMANENT),
+                user("kc-9", "INST001", "director", UserStatus.A, PasswordStatus.PERMANENT)));
+        assertThat(counters.isReady()).isFalse();
+        counters.reconcile();
+        assertThat(counters.isReady()).isTrue();
+
+        UserStatistics institution = counters.institution("INST001");
+        assertThat(institution.total()).isEqualTo(2);
+        assertThat(institution.byRole()).containsEntry("auxiliary", 0L).containsEntry("director", 1L);
+        assertThat(institution.byPasswordStatus()).containsEntry("TEMPORARY", 0L).containsEntry("PERMANENT", 2L);
+        assertThat(institution.reconciledAt()).isNotNull();
+    }
+
+    private static UserChangeEvent event(UserChangeEvent.Type type, KeycloakUserDto user) {
+        return new UserChangeEvent(type, user.getKeycloakId(), null, user);
+    }
+
+    private static KeycloakUserDto user(String keycloakId, String institutionId, String role,
+                                        UserStatus status, PasswordStatus passwordStatus) {
+        return KeycloakUserDto.builder()
+                .keycloakId(keycloakId)
+                .username(keycloakId)
+                .institutionId(institutionId)
+                .roles(Set.of(role))
+                .status(status)
+                .passwordStatus(passwordStatus)
+                .build();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
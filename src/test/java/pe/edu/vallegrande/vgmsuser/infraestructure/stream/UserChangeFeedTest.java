@@ -0,0 +1,79 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas Unitarias del feed SSE de cambios de usuarios
+ */
+@DisplayName("UserChangeFeed - Pruebas Unitarias")
+class UserChangeFeedTest {
+
+    @Test
+    @DisplayName("UT-SE001: Reanuda desde Last-Event-ID y envía resync si el id no es de este arranque")
+    void testSubscribe_ResumesFromLastEventId() {
+        UserChangeFeed feed = new UserChangeFeed(new ObjectMapper(), 10, 16, Duration.ZERO);
+        Flux<ServerSentEvent<String>> first = feed.subscribe(null);
+        feed.onUserChange(event(UserChangeEvent.Type.CREATED, "kc-1", UserStatus.A, true));
+        feed.onUserChange(event(UserChangeEvent.Type.PASSWORD_CHANGED, "kc-1", UserStatus.A, true));
+        feed.onUserChange(event(UserChangeEvent.Type.DEACTIVATED, "kc-2", UserStatus.I, false));
+        feed.onUserChange(event(UserChangeEvent.Type.UPDATED, "kc-3", UserStatus.A, true));
+
+        List<ServerSentEvent<String>> received = first.take(3).collectList().block(Duration.ofSeconds(5));
+        assertThat(received).extracting(ServerSentEvent::event).containsOnly(UserChangeFeed.CHANGE_EVENT);
+        assertThat(received.get(1).data())
+                .contains("\"id\":\"kc-2\"", "\"institutionId\":\"INST001\"", "\"status\":\"I\"", "\"hasAccess\":false");
+        assertThat(feed.getSubscriberCount()).isZero();
+
+        StepVerifier.create(feed.subscribe(received.get(0).id()).take(2))
+                .assertNext(sse -> assertThat(sse.id()).isEqualTo(received.get(1).id()))
+                .assertNext(sse -> assertThat(sse.id()).isEqualTo(received.get(2).id()))
+                .verifyComplete();
+        StepVerifier.create(feed.subscribe("otroarranque.2").take(4))
+                .assertNext(sse -> assertThat(sse.event()).isEqualTo(UserChangeFeed.RESYNC_EVENT))
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("UT-SE002: Desaloja al suscriptor lento cuando se llena su cola y conserva lo ya encolado")
+    void testSlowSubscriber_IsEvicted() {
+        UserChangeFeed feed = new UserChangeFeed(new ObjectMapper(), 10, 8, Duration.ZERO);
+
+        StepVerifier.create(feed.subscribe(null), 0)
+                .then(() -> {
+                    for (int i = 0; i < 9; i++) {
+                        feed.onUserChange(event(UserChangeEvent.Type.UPDATED, "kc-" + i, UserStatus.A, true));
+                    }
+                    assertThat(feed.getEvictions()).isEqualTo(1);
+                    assertThat(feed.getSubscriberCount()).isZero();
+                })
+                .thenRequest(10)
+                .expectNextCount(8)
+                .verifyComplete();
+    }
+
+    private UserChangeEvent event(UserChangeEvent.Type type, String keycloakId, UserStatus status, boolean enabled) {
+        KeycloakUserDto user = KeycloakUserDto.builder()
+                .keycloakId(keycloakId)
+                .institutionId("INST001")
+                .roles(Set.of("teacher"))
+                .status(status)
+                .enabled(enabled)
+                .build();
+        return new UserChangeEvent(type, keycloakId, null, user);
+    }
+}
@@ -0,0 +1,65 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.trace;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas Unitarias para el registro de peticiones lentas
+ */
+@DisplayName("SlowRequestTracer - Pruebas Unitarias")
+class SlowRequestTracerTest {
+
+    @Test
+    @DisplayName("UT-TR001: El buffer circular conserva solo los últimos N elementos, del más reciente al más antiguo")
+    void testRingBuffer_KeepsLatestEntries() {
+        TraceRingBuffer<Integer> buffer = new TraceRingBuffer<>(3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i);
+        }
+
+        assertThat(buffer.latest(10)).containsExactly(5, 4, 3);
+        assertThat(buffer.latest(2)).containsExactly(5, 4);
+        assertThat(buffer.totalAdded()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("UT-TR002: Registra las llamadas externas y el salto de scheduler de una petición lenta")
+    void testTracer_RecordsDownstreamCallsForSlowRequest() {
+        SlowRequestTracer tracer = new SlowRequestTracer(true, 0, 1.0, 10);
+        RequestTrace trace = tracer.begin("GET", "/api/v1/users/director/staff");
+
+        Mono<String> call = DownstreamTracing.traced("keycloak.getAllUsersWithAttributes",
+                Mono.delay(Duration.ofMillis(5)).thenReturn("ok").subscribeOn(Schedulers.boundedElastic()));
+
+        StepVerifier.create(call.contextWrite(ctx -> ctx.put(RequestTrace.CONTEXT_KEY, trace)))
+                .expectNext("ok")
+                .verifyComplete();
+        tracer.complete(trace, 200);
+
+        List<SlowRequestTrace> traces = tracer.latest(5);
+        assertThat(traces).hasSize(1);
+        assertThat(traces.get(0).getCalls()).hasSize(1);
+        DownstreamCallTrace recorded = traces.get(0).getCalls().get(0);
+        assertThat(recorded.getOperation()).isEqualTo("keycloak.getAllUsersWithAttributes");
+        assertThat(recorded.getOutcome()).isEqualTo("OK");
+        assertThat(recorded.getDurationMicros()).isGreaterThanOrEqualTo(5_000);
+        assertThat(recorded.getEmitThread()).isNotEqualTo(recorded.getSubscribeThread());
+    }
+
+    @Test
+    @DisplayName("UT-TR003: No conserva peticiones por debajo del umbral")
+    void testTracer_IgnoresFastRequests() {
+        SlowRequestTracer tracer = new SlowRequestTracer(true, 60_000, 1.0, 10);
+        tracer.complete(tracer.begin("GET", "/api/v1/user-role/test@vallegrande.edu.pe"), 200);
+
+        assertThat(tracer.latest(5)).isEmpty();
+    }
+}
@@ -0,0 +1,114 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.uniqueness;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.vgmsuser.application.service.IKeycloakService;
+import pe.edu.vallegrande.vgmsuser.domain.model.User;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas Unitarias del índice de unicidad de username, email y número de documento
+ */
+@DisplayName("UserUniquenessIndex - Pruebas Unitarias")
+class UserUniquenessIndexTest {
+
+    private final IKeycloakService keycloakService = mock(IKeycloakService.class);
+    private final UserUniquenessIndex index = new UserUniquenessIndex(keycloakService, Duration.ZERO, Duration.ZERO, Duration.ofSeconds(5));
+
+    @Test
+    @DisplayName("UT-UQ001: Una creación concurrente con el mismo DNI falla sin llamar a Keycloak; la reserva se libera si el alta falla")
+    void testCreateReserving_SerializesConcurrentDuplicates() {
+        Sinks.One<String> firstCreation = Sinks.one();
+        AtomicInteger keycloakCalls = new AtomicInteger();
+        StepVerifier.create(index.createReserving(user("ana", "ana@vallegrande.edu.pe", "45871236"), () -> {
+                    keycloakCalls.incrementAndGet();
+                    return firstCreation.asMono();
+                }))
+                .then(() -> {
+                    StepVerifier.create(index.createReserving(user("ana.r", "otra@vallegrande.edu.pe", " 45871236 "), () -> {
+                                keycloakCalls.incrementAndGet();
+                                return Mono.just("kc-x");
+                            }))
+                            .expectErrorMessage("Ya existe un usuario con el número de documento 45871236")
+                            .verify();
+                    firstCreation.tryEmitError(new RuntimeException("Keycloak no disponible"));
+                })
+                .expectErrorMessage("Keycloak no disponible")
+                .verify();
+
+        StepVerifier.create(index.createReserving(user("ana", "ANA@vallegrande.edu.pe", "45871236"), () -> Mono.just("kc-1")))
+                .expectNext("kc-1")
+                .verifyComplete();
+        assertThat(keycloakCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("UT-UQ002: La recarga desde Keycloak y los eventos definen los dueños de cada clave")
+    void testRebuildAndEvents_TrackOwners() {
+        when(keycloakService.getAllUsersWithAttributes()).thenReturn(Flux.just(dto("kc-1", "luis", "luis@vallegrande.edu.pe", "40000001")));
+        assertThat(index.isLoaded()).isFalse();
+        index.rebuild();
+        assertThat(index.isLoaded()).isTrue();
+
+        StepVerifier.create(index.createReserving(user("Luis", "nuevo@vallegrande.edu.pe", "40000009"), () -> Mono.just("kc-2")))
+                .expectErrorMessage("Ya existe un usuario con el username luis")
+                .verify();
+
+        index.onUserChange(new UserChangeEvent(UserChangeEvent.Type.CREATED, "kc-2", null,
+                dto("kc-2", "maria", "Maria@vallegrande.edu.pe", "40000002")));
+        StepVerifier.create(index.createReserving(user("maria2", "maria@vallegrande.edu.pe", "40000003"), () -> Mono.just("kc-3")))
+                .expectErrorMessage("Ya existe un usuario con el email maria@vallegrande.edu.pe")
+                .verify();
+
+        index.onUserChange(new UserChangeEvent(UserChangeEvent.Type.UPDATED, "kc-1", null,
+                dto("kc-1", "luis.q", "luis@vallegrande.edu.pe", "40000001")));
+        index.onUserChange(new UserChangeEvent(UserChangeEvent.Type.DELETED, "kc-2", null, null));
+        StepVerifier.create(index.createReserving(user("luis", "maria@vallegrande.edu.pe", "40000002"), () -> Mono.just("kc-4")))
+                .expectNext("kc-4")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("UT-UQ003: La disponibilidad considera ocupadas las claves con dueño y las reservadas por un alta en curso")
+    void testIsTaken_IncludesReservations() {
+        index.onUserChange(new UserChangeEvent(UserChangeEvent.Type.CREATED, "kc-1", null,
+                dto("kc-1", "rosa", "rosa@vallegrande.edu.pe", "40000001")));
+        Sinks.One<String> creation = Sinks.one();
+        StepVerifier.create(index.createReserving(user("pedro", "pedro@vallegrande.edu.pe", "40000002"), creation::asMono))
+                .then(() -> {
+                    assertThat(index.isUsernameTaken(" Rosa ")).isTrue();
+                    assertThat(index.isEmailTaken("PEDRO@vallegrande.edu.pe")).isTrue();
+                    assertThat(index.isUsernameTaken("rosa.m")).isFalse();
+                    creation.tryEmitValue("kc-2");
+                })
+                .expectNext("kc-2")
+                .verifyComplete();
+
+        assertThat(index.isEmailTaken("pedro@vallegrande.edu.pe")).isFalse();
+    }
+
+    private static User user(String username, String email, String documentNumber) {
+        return User.builder().username(username).email(email).documentNumber(documentNumber).build();
+    }
+
+    private static KeycloakUserDto dto(String keycloakId, String username, String email, String documentNumber) {
+        return KeycloakUserDto.builder()
+                .keycloakId(keycloakId)
+                .username(username)
+                .email(email)
+                .documentNumber(documentNumber)
+                .build();
+    }
+}
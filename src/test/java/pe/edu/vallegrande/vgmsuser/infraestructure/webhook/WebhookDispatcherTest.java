@@ -0,0 +1,194 @@
+package pe.edu.vallegrande.vgmsuser.infraestructure.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+import pe.edu.vallegrande.vgmsuser.domain.model.dto.KeycloakUserDto;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.event.UserChangeEvent;
+import pe.edu.vallegrande.vgmsuser.infraestructure.stream.UserChangeNotice;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas Unitarias del despachador de webhooks contra un servidor HTTP local
+ */
+@DisplayName("WebhookDispatcher - Pruebas Unitarias")
+class WebhookDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private DisposableServer server;
+
+    @TempDir
+    Path spoolDir;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.post("/hook", (request, response) -> request.receive().aggregate().asString()
+                        .flatMap(body -> {
+                            if (failuresLeft.getAndDecrement() > 0) {
+                                return response.status(503).send().then();
+                            }
+                            received.add(readTree(body));
+                            return response.status(204).send().then();
+                        })))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    @DisplayName("UT-WH001: Reduce los cambios de un usuario al último, agrupa en lotes y reintenta ante 503")
+    void testFlush_CoalescesBatchesAndRetries() {
+        WebhookDispatcher dispatcher = dispatcher(2);
+        failuresLeft.set(1);
+
+        dispatcher.onUserChange(event(UserChangeEvent.Type.CREATED, "kc-1", UserStatus.A));
+        dispatcher.onUserChange(event(UserChangeEvent.Type.DEACTIVATED, "kc-1", UserStatus.I));
+        dispatcher.onUserChange(event(UserChangeEvent.Type.CREATED, "kc-2", UserStatus.A));
+        dispatcher.onUserChange(event(UserChangeEvent.Type.PASSWORD_CHANGED, "kc-2", UserStatus.A));
+        dispatcher.onUserChange(event(UserChangeEvent.Type.CREATED, "kc-3", UserStatus.A));
+        dispatcher.flush();
+
+        awaitUntil(() -> received.size() == 2 && dispatcher.getSpooledCount() == 0);
+        List<String> ids = received.stream()
+                .flatMap(batch -> batch.get("events").findValuesAsText("id").stream())
+                .toList();
+        assertThat(ids).containsExactlyInAnyOrder("kc-1", "kc-2", "kc-3");
+        assertThat(received).extracting(batch -> batch.get("events").size()).containsExactlyInAnyOrder(2, 1);
+        JsonNode kc1 = received.stream()
+                .flatMap(batch -> batch.get("events").findParents("id").stream())
+                .filter(event -> event.get("id").asText().equals("kc-1"))
+                .findFirst().orElseThrow();
+        assertThat(kc1.get("type").asText()).isEqualTo("DEACTIVATED");
+        assertThat(kc1.get("hasAccess").asBoolean()).isFalse();
+        dispatcher.destroy();
+    }
+
+    @Test
+    @DisplayName("UT-WH002: Conserva en el spool lo que no se pudo entregar y lo reenvía al arrancar otra instancia")
+    void testSpool_RedeliversAfterRestart() {
+        WebhookDispatcher first = dispatcher(2);
+        failuresLeft.set(Integer.MAX_VALUE);
+
+        first.onUserChange(event(UserChangeEvent.Type.UPDATED, "kc-9", UserStatus.A));
+        first.flush();
+        first.onUserChange(event(UserChangeEvent.Type.UPDATED, "kc-10", UserStatus.A));
+        awaitUntil(() -> failuresLeft.get() < Integer.MAX_VALUE - 1);
+        first.destroy();
+        awaitUntil(() -> first.getSpooledCount() == 2);
+        assertThat(received).isEmpty();
+
+        failuresLeft.set(0);
+        WebhookDispatcher second = dispatcher(2);
+        awaitUntil(() -> received.size() == 2 && second.getSpooledCount() == 0);
+        second.destroy();
+    }
+
+    @Test
+    @DisplayName("UT-WH003: Con el spool lleno se descartan los lotes más viejos y se cuentan")
+    void testSpool_DropsOldestOverMaxFiles() {
+        WebhookDispatcher dispatcher = dispatcher(1, 2);
+        failuresLeft.set(Integer.MAX_VALUE);
+
+        dispatcher.onUserChange(event(UserChangeEvent.Type.UPDATED, "kc-1", UserStatus.A));
+        dispatcher.onUserChange(event(UserChangeEvent.Type.UPDATED, "kc-2", UserStatus.A));
+        dispatcher.onUserChange(event(UserChangeEvent.Type.UPDATED, "kc-3", UserStatus.A));
+        dispatcher.flush();
+
+        assertThat(dispatcher.getSpooledCount()).isEqualTo(2);
+        assertThat(dispatcher.getSpoolDroppedCount()).isEqualTo(1);
+        dispatcher.destroy();
+    }
+
+    @Test
+    @DisplayName("UT-WH004: Al reenviar descarta los lotes vencidos y no envía los de una URL que ya no está configurada")
+    void testRedeliver_SkipsExpiredAndUnconfigured() throws Exception {
+        long now = System.currentTimeMillis();
+        String hook = "http://localhost:" + server.port() + "/hook";
+        spoolFile(now - Duration.ofDays(8).toMillis(), 1, hook, "kc-viejo");
+        spoolFile(now - 1000, 2, "http://localhost:" + server.port() + "/hook-retirado", "kc-retirado");
+        spoolFile(now - 500, 3, hook, "kc-vigente");
+
+        WebhookDispatcher dispatcher = dispatcher(2, 100);
+        awaitUntil(() -> received.size() == 1 && dispatcher.getSpooledCount() == 1);
+
+        assertThat(received.get(0).get("events").findValuesAsText("id")).containsExactly("kc-vigente");
+        assertThat(dispatcher.getSpoolDroppedCount()).isEqualTo(1);
+        assertThat(spoolDir.resolve(String.format("%013d-%06d.json", now - 1000, 2))).exists();
+        dispatcher.destroy();
+    }
+
+    private WebhookDispatcher dispatcher(int maxBatchSize) {
+        return dispatcher(maxBatchSize, 100);
+    }
+
+    private WebhookDispatcher dispatcher(int maxBatchSize, int spoolMaxFiles) {
+        return new WebhookDispatcher(objectMapper, WebClient.builder(),
+                List.of("http://localhost:" + server.port() + "/hook"),
+                Duration.ofHours(1), maxBatchSize, 2, Duration.ofMillis(20), Duration.ofHours(1), spoolDir,
+                spoolMaxFiles, Duration.ofDays(7));
+    }
+
+    private void spoolFile(long spooledAt, int sequence, String url, String keycloakId) throws Exception {
+        UserChangeNotice notice = UserChangeNotice.from(1, event(UserChangeEvent.Type.UPDATED, keycloakId, UserStatus.A));
+        Files.write(spoolDir.resolve(String.format("%013d-%06d.json", spooledAt, sequence)),
+                objectMapper.writeValueAsBytes(new WebhookDelivery(url, List.of(notice))));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private UserChangeEvent event(UserChangeEvent.Type type, String keycloakId, UserStatus status) {
+        KeycloakUserDto user = KeycloakUserDto.builder()
+                .keycloakId(keycloakId)
+                .institutionId("INST001")
+                .roles(Set.of("teacher"))
+                .status(status)
+                .enabled(status == UserStatus.A)
+                .build();
+        return new UserChangeEvent(type, keycloakId, null, user);
+    }
+}
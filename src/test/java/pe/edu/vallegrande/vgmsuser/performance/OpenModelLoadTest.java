@@ -0,0 +1,135 @@
+package pe.edu.vallegrande.vgmsuser.performance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import pe.edu.vallegrande.vgmsuser.support.keycloak.FakeKeycloakServer;
+import pe.edu.vallegrande.vgmsuser.support.keycloak.LatencyModel;
+import pe.edu.vallegrande.vgmsuser.support.load.LatencySlo;
+import pe.edu.vallegrande.vgmsuser.support.load.LoadReport;
+import pe.edu.vallegrande.vgmsuser.support.load.LoadScenario;
+import pe.edu.vallegrande.vgmsuser.support.load.OpenLoadGenerator;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pruebas de carga en modelo abierto contra la aplicación completa (WebFlux + KeycloakServiceImpl real)
+ * con un Keycloak falso de latencia log-normal. Los reportes quedan en target/load-reports.
+ * Se ejecutan con failsafe: mvn verify -Dit.test=OpenModelLoadTest
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("performance")
+@Slf4j
+class OpenModelLoadTest {
+
+    private static final int USERS = 60;
+    private static final Path REPORTS = Path.of("target", "load-reports");
+    /**
+     * Escala las tasas de llegada (-Dload.scale=0.5) para máquinas con menos núcleos que el entorno de referencia
+     */
+    private static final double SCALE = Double.parseDouble(System.getProperty("load.scale", "1.0"));
+
+    private static final FakeKeycloakServer KEYCLOAK = new FakeKeycloakServer("performance-realm")
+            .withSeed(42)
+            .withDefaultLatency(LatencyModel.logNormal(Duration.ofMillis(2), Duration.ofMillis(25))
+                    .withSpikes(0.001, Duration.ofMillis(250)))
+            .start();
+
+    @LocalServerPort
+    private int port;
+
+    private WebClient client;
+
+    @DynamicPropertySource
+    static void keycloakProperties(DynamicPropertyRegistry registry) {
+        KEYCLOAK.registerProperties(registry);
+    }
+
+    @AfterAll
+    static void stopKeycloak() {
+        KEYCLOAK.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        if (KEYCLOAK.userCount() == 0) {
+            for (int i = 0; i < USERS; i++) {
+                UserRepresentation user = new UserRepresentation();
+                user.setUsername("load.user" + i);
+                user.setEmail("load.user" + i + "@vallegrande.edu.pe");
+                user.setFirstName("Load");
+                user.setLastName("User" + i);
+                user.setAttributes(Map.of(
+                        "institutionId", List.of("INST-LOAD-" + (i % 3)),
+                        "status", List.of("A"),
+                        "documentType", List.of("DNI"),
+                        "documentNumber", List.of(String.format("7%07d", i))));
+                KEYCLOAK.addUser(user, i % 20 == 0 ? "director" : "teacher");
+            }
+        }
+        ConnectionProvider pool = ConnectionProvider.builder("open-model-load")
+                .maxConnections(500)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool)))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Carga abierta - Lookup de usuario por email entre microservicios")
+    void testUserRoleByEmail() throws Exception {
+        LoadReport report = OpenLoadGenerator.run(LoadScenario.builder()
+                .name("user-role-by-email")
+                .ratePerSecond(50 * SCALE)
+                .warmup(Duration.ofSeconds(5))
+                .duration(Duration.ofSeconds(20))
+                .request(i -> client.get()
+                        .uri("/api/v1/user-role/{email}", "load.user" + (i % USERS) + "@vallegrande.edu.pe")
+                        .retrieve()
+                        .toBodilessEntity())
+                .slo(LatencySlo.builder().p50Millis(50.0).p99Millis(500.0).p999Millis(1_500.0).maxErrorRate(0.001).build())
+                .build());
+
+        report.writeTo(REPORTS);
+        report.assertSlo();
+    }
+
+    @Test
+    @DisplayName("Carga abierta - Listado de personal del director (recorrido completo de Keycloak)")
+    void testDirectorStaff() throws Exception {
+        LoadReport report = OpenLoadGenerator.run(LoadScenario.builder()
+                .name("director-staff")
+                .ratePerSecond(5 * SCALE)
+                .warmup(Duration.ofSeconds(5))
+                .duration(Duration.ofSeconds(20))
+                .request(i -> client.get()
+                        .uri("/api/v1/users/director/staff")
+                        .header("X-User-Id", "director-load")
+                        .header("X-User-Roles", "DIRECTOR")
+                        .header("X-Institution-Id", "INST-LOAD-" + (i % 3))
+                        .retrieve()
+                        .toBodilessEntity())
+                .slo(LatencySlo.builder().p50Millis(2_000.0).p99Millis(5_000.0).maxErrorRate(0.001).build())
+                .build());
+
+        report.writeTo(REPORTS);
+        report.assertSlo();
+    }
+}
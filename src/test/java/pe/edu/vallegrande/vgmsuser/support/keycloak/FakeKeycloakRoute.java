@@ -0,0 +1,22 @@
+package pe.edu.vallegrande.vgmsuser.support.keycloak;
+
+/**
+ * Endpoints del API de administración que expone el Keycloak falso.
+ * Cada uno tiene su propia latencia, tasa de error y contador de llamadas
+ */
+public enum FakeKeycloakRoute {
+    TOKEN,
+    USER_SEARCH,
+    USER_COUNT,
+    USER_GET,
+    USER_CREATE,
+    USER_UPDATE,
+    USER_DELETE,
+    RESET_PASSWORD,
+    ROLE_MAPPINGS_GET,
+    ROLE_MAPPINGS_ADD,
+    ROLE_MAPPINGS_REMOVE,
+    ROLES_LIST,
+    ROLE_GET,
+    ROLE_MEMBERS
+}
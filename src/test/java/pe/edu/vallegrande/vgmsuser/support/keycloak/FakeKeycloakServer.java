@@ -0,0 +1,622 @@
+package pe.edu.vallegrande.vgmsuser.support.keycloak;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.reactivestreams.Publisher;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.Role;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keycloak falso en proceso que expone, por HTTP, el subconjunto del API de administración que usa
+ * KeycloakServiceImpl: token, usuarios, credenciales, roles y role-mappings, con estado en memoria.
+ * Cada endpoint tiene latencia y tasa de error configurables, así las pruebas de carga ejercitan el
+ * cliente RESTEasy real, el pool de conexiones y la renovación del token sin depender de la red.
+ */
+@Slf4j
+public class FakeKeycloakServer implements AutoCloseable {
+
+    /**
+     * Keycloak limita las búsquedas sin max a 100 resultados
+     */
+    public static final int DEFAULT_MAX_RESULTS = 100;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final String realm;
+    private final Map<FakeKeycloakRoute, LatencyModel> latencies = new ConcurrentHashMap<>();
+    private final Map<FakeKeycloakRoute, Double> errorRates = new ConcurrentHashMap<>();
+    private final Map<FakeKeycloakRoute, LongAdder> calls = new EnumMap<>(FakeKeycloakRoute.class);
+    private final Map<FakeKeycloakRoute, LongAdder> injectedErrors = new EnumMap<>(FakeKeycloakRoute.class);
+
+    private final Map<String, UserRepresentation> users = new ConcurrentHashMap<>();
+    private final Map<String, RoleRepresentation> roles = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> roleMappings = new ConcurrentHashMap<>();
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+
+    private volatile LatencyModel defaultLatency = LatencyModel.NONE;
+    private volatile Duration tokenLifespan = Duration.ofMinutes(5);
+    private volatile Random random = new Random();
+    private LoopResources loops;
+    private DisposableServer server;
+
+    public FakeKeycloakServer(String realm) {
+        this.realm = realm;
+        for (FakeKeycloakRoute route : FakeKeycloakRoute.values()) {
+            calls.put(route, new LongAdder());
+            injectedErrors.put(route, new LongAdder());
+        }
+        for (Role role : Role.values()) {
+            addRole(role.name());
+        }
+    }
+
+    // ---------------------------------------------------------------- configuración
+
+    public FakeKeycloakServer withDefaultLatency(LatencyModel latency) {
+        this.defaultLatency = latency;
+        return this;
+    }
+
+    public FakeKeycloakServer withLatency(FakeKeycloakRoute route, LatencyModel latency) {
+        latencies.put(route, latency);
+        return this;
+    }
+
+    public FakeKeycloakServer withErrorRate(FakeKeycloakRoute route, double errorRate) {
+        errorRates.put(route, errorRate);
+        return this;
+    }
+
+    public FakeKeycloakServer withTokenLifespan(Duration lifespan) {
+        this.tokenLifespan = lifespan;
+        return this;
+    }
+
+    /**
+     * Fija la semilla de latencias y errores para que una corrida sea reproducible
+     */
+    public FakeKeycloakServer withSeed(long seed) {
+        this.random = new Random(seed);
+        return this;
+    }
+
+    // ---------------------------------------------------------------- ciclo de vida
+
+    public synchronized FakeKeycloakServer start() {
+        if (server != null) {
+            return this;
+        }
+        String admin = "/admin/realms/{realm}";
+        // Event loops propios: compartir los globales con la aplicación bajo prueba acoplaría ambos lados
+        loops = LoopResources.create("fake-keycloak", 2, true);
+        server = HttpServer.create()
+                .runOn(loops)
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .post("/realms/{tokenRealm}/protocol/openid-connect/token", handle(FakeKeycloakRoute.TOKEN, false, this::token))
+                        .get(admin + "/users/count", handle(FakeKeycloakRoute.USER_COUNT, true, this::countUsers))
+                        .get(admin + "/users", handle(FakeKeycloakRoute.USER_SEARCH, true, this::searchUsers))
+                        .post(admin + "/users", handle(FakeKeycloakRoute.USER_CREATE, true, this::createUser))
+                        .put(admin + "/users/{id}/reset-password", handle(FakeKeycloakRoute.RESET_PASSWORD, true, this::resetPassword))
+                        .get(admin + "/users/{id}/role-mappings/realm", handle(FakeKeycloakRoute.ROLE_MAPPINGS_GET, true, this::getRoleMappings))
+                        .post(admin + "/users/{id}/role-mappings/realm", handle(FakeKeycloakRoute.ROLE_MAPPINGS_ADD, true, this::addRoleMappings))
+                        .delete(admin + "/users/{id}/role-mappings/realm", handle(FakeKeycloakRoute.ROLE_MAPPINGS_REMOVE, true, this::removeRoleMappings))
+                        .get(admin + "/users/{id}", handle(FakeKeycloakRoute.USER_GET, true, this::getUser))
+                        .put(admin + "/users/{id}", handle(FakeKeycloakRoute.USER_UPDATE, true, this::updateUser))
+                        .delete(admin + "/users/{id}", handle(FakeKeycloakRoute.USER_DELETE, true, this::deleteUser))
+                        .get(admin + "/roles", handle(FakeKeycloakRoute.ROLES_LIST, true, this::listRoles))
+                        .get(admin + "/roles/{role}/users", handle(FakeKeycloakRoute.ROLE_MEMBERS, true, this::roleMembers))
+                        .get(admin + "/roles/{role}", handle(FakeKeycloakRoute.ROLE_GET, true, this::getRole)))
+                .bindNow();
+        log.info("Fake Keycloak started at {} (realm {})", baseUrl(), realm);
+        return this;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.disposeNow();
+            loops.disposeLater().block();
+            server = null;
+        }
+    }
+
+    public String baseUrl() {
+        if (server == null) {
+            throw new IllegalStateException("Fake Keycloak is not started");
+        }
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    public String getRealm() {
+        return realm;
+    }
+
+    /**
+     * Cliente de administración real apuntando a este servidor
+     */
+    public Keycloak adminClient() {
+        return KeycloakBuilder.builder()
+                .serverUrl(baseUrl())
+                .realm("master")
+                .clientId("admin-cli")
+                .username("admin")
+                .password("admin")
+                .build();
+    }
+
+    /**
+     * Propiedades keycloak.* para un @DynamicPropertySource de Spring
+     */
+    public void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("keycloak.server-url", this::baseUrl);
+        registry.add("keycloak.realm-name", () -> realm);
+        registry.add("keycloak.realm-master", () -> "master");
+        registry.add("keycloak.admin-cli", () -> "admin-cli");
+        registry.add("keycloak.user-console", () -> "admin");
+        registry.add("keycloak.password-console", () -> "admin");
+        registry.add("keycloak.client-secret", () -> "");
+    }
+
+    // ---------------------------------------------------------------- estado y estadísticas
+
+    public void addRole(String name) {
+        RoleRepresentation role = new RoleRepresentation(name, null, false);
+        role.setId(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString());
+        roles.put(name, role);
+    }
+
+    /**
+     * Inserta un usuario directamente (sin pasar por HTTP ni contar llamadas) y devuelve su id
+     */
+    public String addUser(UserRepresentation user, String... realmRoles) {
+        UserRepresentation stored = copy(user);
+        stored.setId(stored.getId() != null ? stored.getId() : UUID.randomUUID().toString());
+        stored.setUsername(lower(stored.getUsername()));
+        stored.setEmail(lower(stored.getEmail()));
+        stored.setEnabled(stored.isEnabled() == null || stored.isEnabled());
+        stored.setCreatedTimestamp(stored.getCreatedTimestamp() != null ? stored.getCreatedTimestamp() : System.currentTimeMillis());
+        users.put(stored.getId(), stored);
+        roleMappings.put(stored.getId(), ConcurrentHashMap.newKeySet());
+        roleMappings.get(stored.getId()).addAll(Arrays.asList(realmRoles));
+        return stored.getId();
+    }
+
+    public Optional<UserRepresentation> findUser(String id) {
+        return Optional.ofNullable(users.get(id)).map(FakeKeycloakServer::copy);
+    }
+
+    public Set<String> realmRolesOf(String id) {
+        return Set.copyOf(roleMappings.getOrDefault(id, Set.of()));
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    public long callCount(FakeKeycloakRoute route) {
+        return calls.get(route).sum();
+    }
+
+    public long injectedErrorCount(FakeKeycloakRoute route) {
+        return injectedErrors.get(route).sum();
+    }
+
+    public Map<FakeKeycloakRoute, Long> callCounts() {
+        Map<FakeKeycloakRoute, Long> snapshot = new EnumMap<>(FakeKeycloakRoute.class);
+        calls.forEach((route, counter) -> snapshot.put(route, counter.sum()));
+        return snapshot;
+    }
+
+    public void resetCounters() {
+        calls.values().forEach(LongAdder::reset);
+        injectedErrors.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Borra usuarios, asignaciones, tokens y contadores; conserva roles, latencias y tasas de error
+     */
+    public void reset() {
+        users.clear();
+        roleMappings.clear();
+        tokens.clear();
+        resetCounters();
+    }
+
+    // ---------------------------------------------------------------- despacho
+
+    private BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> handle(
+            FakeKeycloakRoute route, boolean requiresToken, BiFunction<HttpServerRequest, String, Reply> handler) {
+        return (request, response) -> {
+            calls.get(route).increment();
+            Duration latency = latencies.getOrDefault(route, defaultLatency).next(random);
+            boolean injectFailure = random.nextDouble() < errorRates.getOrDefault(route, 0.0);
+
+            Mono<String> body = request.receive().aggregate().asString(StandardCharsets.UTF_8).defaultIfEmpty("");
+            if (!latency.isZero() && !latency.isNegative()) {
+                body = body.delayElement(latency);
+            }
+            return body
+                    .map(content -> {
+                        if (injectFailure) {
+                            injectedErrors.get(route).increment();
+                            return Reply.error(503, "Injected failure for " + route);
+                        }
+                        if (requiresToken && !authorized(request)) {
+                            return Reply.error(401, "HTTP 401 Unauthorized");
+                        }
+                        if (!requiresToken || realm.equals(request.param("realm"))) {
+                            return invoke(handler, request, content);
+                        }
+                        return Reply.error(404, "Realm not found.");
+                    })
+                    .flatMap(reply -> write(response, reply));
+        };
+    }
+
+    private Reply invoke(BiFunction<HttpServerRequest, String, Reply> handler, HttpServerRequest request, String content) {
+        try {
+            return handler.apply(request, content);
+        } catch (FakeKeycloakException e) {
+            return Reply.error(e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Fake Keycloak rejected {} {}: {}", request.method(), request.uri(), e.getMessage());
+            return Reply.error(400, e.getMessage());
+        }
+    }
+
+    private Mono<Void> write(HttpServerResponse response, Reply reply) {
+        response.status(reply.status());
+        if (reply.location() != null) {
+            response.header("Location", reply.location());
+        }
+        if (reply.body() == null) {
+            return response.send().then();
+        }
+        response.header("Content-Type", "application/json");
+        return response.sendString(Mono.just(json(reply.body())), StandardCharsets.UTF_8).then();
+    }
+
+    private boolean authorized(HttpServerRequest request) {
+        String authorization = request.requestHeaders().get("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        Long expiresAt = tokens.get(authorization.substring("Bearer ".length()));
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    // ---------------------------------------------------------------- handlers
+
+    private Reply token(HttpServerRequest request, String body) {
+        Map<String, List<String>> form = new QueryStringDecoder(body, StandardCharsets.UTF_8, false).parameters();
+        String grantType = first(form, "grant_type");
+        if (!"password".equals(grantType) && !"refresh_token".equals(grantType) && !"client_credentials".equals(grantType)) {
+            throw new FakeKeycloakException(400, "unsupported_grant_type");
+        }
+        String accessToken = "fake-at-" + UUID.randomUUID();
+        tokens.put(accessToken, System.currentTimeMillis() + tokenLifespan.toMillis());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("access_token", accessToken);
+        response.put("expires_in", tokenLifespan.toSeconds());
+        response.put("refresh_expires_in", 1800);
+        response.put("refresh_token", "fake-rt-" + UUID.randomUUID());
+        response.put("token_type", "Bearer");
+        response.put("not-before-policy", 0);
+        response.put("scope", "profile email");
+        return Reply.ok(response);
+    }
+
+    private Reply countUsers(HttpServerRequest request, String body) {
+        return Reply.ok(users.size());
+    }
+
+    private Reply searchUsers(HttpServerRequest request, String body) {
+        Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+        boolean exact = "true".equalsIgnoreCase(first(params, "exact"));
+
+        Predicate<UserRepresentation> filter = user -> true;
+        filter = filter.and(fieldMatches(first(params, "username"), UserRepresentation::getUsername, exact));
+        filter = filter.and(fieldMatches(first(params, "email"), UserRepresentation::getEmail, exact));
+        filter = filter.and(fieldMatches(first(params, "firstName"), UserRepresentation::getFirstName, exact));
+        filter = filter.and(fieldMatches(first(params, "lastName"), UserRepresentation::getLastName, exact));
+
+        String search = first(params, "search");
+        if (search != null && !search.isBlank() && !"*".equals(search)) {
+            String needle = search.replace("*", "").toLowerCase();
+            filter = filter.and(user -> Stream.of(user.getUsername(), user.getEmail(), user.getFirstName(), user.getLastName())
+                    .anyMatch(value -> value != null && value.toLowerCase().contains(needle)));
+        }
+
+        String q = first(params, "q");
+        if (q != null && !q.isBlank()) {
+            for (String term : q.trim().split("\\s+")) {
+                int separator = term.indexOf(':');
+                if (separator <= 0) {
+                    throw new FakeKeycloakException(400, "Invalid query: " + q);
+                }
+                String key = term.substring(0, separator);
+                String value = term.substring(separator + 1);
+                filter = filter.and(user -> user.getAttributes() != null
+                        && user.getAttributes().getOrDefault(key, List.of()).contains(value));
+            }
+        }
+
+        String enabled = first(params, "enabled");
+        if (enabled != null) {
+            boolean expected = Boolean.parseBoolean(enabled);
+            filter = filter.and(user -> expected == Boolean.TRUE.equals(user.isEnabled()));
+        }
+
+        return Reply.ok(page(users.values().stream().filter(filter), params));
+    }
+
+    private Reply createUser(HttpServerRequest request, String body) {
+        UserRepresentation user = read(body, UserRepresentation.class);
+        if (user.getUsername() == null || user.getUsername().isBlank()) {
+            throw new FakeKeycloakException(400, "User name is missing");
+        }
+        String username = lower(user.getUsername());
+        String email = lower(user.getEmail());
+        // Mismo chequeo que Keycloak: username y email únicos sin distinguir mayúsculas
+        synchronized (users) {
+            for (UserRepresentation existing : users.values()) {
+                if (username.equals(existing.getUsername())) {
+                    throw new FakeKeycloakException(409, "User exists with same username");
+                }
+                if (email != null && email.equals(existing.getEmail())) {
+                    throw new FakeKeycloakException(409, "User exists with same email");
+                }
+            }
+            user.setId(UUID.randomUUID().toString());
+            user.setCredentials(null);
+            user.setRealmRoles(null);
+            user.setCreatedTimestamp(null);
+            addUser(user);
+        }
+        return new Reply(201, null, baseUrl() + "/admin/realms/" + realm + "/users/" + user.getId());
+    }
+
+    private Reply getUser(HttpServerRequest request, String body) {
+        return Reply.ok(requireUser(request.param("id")));
+    }
+
+    private Reply updateUser(HttpServerRequest request, String body) {
+        String id = request.param("id");
+        UserRepresentation changes = read(body, UserRepresentation.class);
+        UserRepresentation updated = users.computeIfPresent(id, (key, existing) -> {
+            UserRepresentation merged = copy(existing);
+            if (changes.getUsername() != null) {
+                merged.setUsername(lower(changes.getUsername()));
+            }
+            if (changes.getEmail() != null) {
+                merged.setEmail(lower(changes.getEmail()));
+            }
+            if (changes.getFirstName() != null) {
+                merged.setFirstName(changes.getFirstName());
+            }
+            if (changes.getLastName() != null) {
+                merged.setLastName(changes.getLastName());
+            }
+            if (changes.isEnabled() != null) {
+                merged.setEnabled(changes.isEnabled());
+            }
+            if (changes.isEmailVerified() != null) {
+                merged.setEmailVerified(changes.isEmailVerified());
+            }
+            if (changes.getAttributes() != null) {
+                merged.setAttributes(new HashMap<>(changes.getAttributes()));
+            }
+            return merged;
+        });
+        if (updated == null) {
+            throw new FakeKeycloakException(404, "User not found");
+        }
+        return Reply.noContent();
+    }
+
+    private Reply deleteUser(HttpServerRequest request, String body) {
+        String id = request.param("id");
+        if (users.remove(id) == null) {
+            throw new FakeKeycloakException(404, "User not found");
+        }
+        roleMappings.remove(id);
+        return Reply.noContent();
+    }
+
+    private Reply resetPassword(HttpServerRequest request, String body) {
+        requireUser(request.param("id"));
+        CredentialRepresentation credential = read(body, CredentialRepresentation.class);
+        if (credential.getValue() == null || credential.getValue().isBlank()) {
+            throw new FakeKeycloakException(400, "Password cannot be empty");
+        }
+        return Reply.noContent();
+    }
+
+    private Reply getRoleMappings(HttpServerRequest request, String body) {
+        String id = request.param("id");
+        requireUser(id);
+        return Reply.ok(roleMappings.getOrDefault(id, Set.of()).stream()
+                .map(roles::get)
+                .sorted(Comparator.comparing(RoleRepresentation::getName))
+                .toList());
+    }
+
+    private Reply addRoleMappings(HttpServerRequest request, String body) {
+        String id = request.param("id");
+        requireUser(id);
+        Set<String> names = roleNames(body);
+        roleMappings.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).addAll(names);
+        return Reply.noContent();
+    }
+
+    private Reply removeRoleMappings(HttpServerRequest request, String body) {
+        String id = request.param("id");
+        requireUser(id);
+        Set<String> names = roleNames(body);
+        roleMappings.getOrDefault(id, Set.of()).removeAll(names);
+        return Reply.noContent();
+    }
+
+    private Reply listRoles(HttpServerRequest request, String body) {
+        return Reply.ok(roles.values().stream()
+                .sorted(Comparator.comparing(RoleRepresentation::getName))
+                .toList());
+    }
+
+    private Reply getRole(HttpServerRequest request, String body) {
+        return Reply.ok(requireRole(request.param("role")));
+    }
+
+    private Reply roleMembers(HttpServerRequest request, String body) {
+        String role = requireRole(request.param("role")).getName();
+        Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+        return Reply.ok(page(users.values().stream()
+                .filter(user -> roleMappings.getOrDefault(user.getId(), Set.of()).contains(role)), params));
+    }
+
+    // ---------------------------------------------------------------- utilidades
+
+    private UserRepresentation requireUser(String id) {
+        UserRepresentation user = users.get(id);
+        if (user == null) {
+            throw new FakeKeycloakException(404, "User not found");
+        }
+        return user;
+    }
+
+    private RoleRepresentation requireRole(String name) {
+        RoleRepresentation role = name != null ? roles.get(name) : null;
+        if (role == null) {
+            throw new FakeKeycloakException(404, "Could not find role");
+        }
+        return role;
+    }
+
+    private Set<String> roleNames(String body) {
+        RoleRepresentation[] requested = read(body, RoleRepresentation[].class);
+        Set<String> names = Arrays.stream(requested).map(RoleRepresentation::getName).collect(Collectors.toSet());
+        names.forEach(this::requireRole);
+        return names;
+    }
+
+    private static List<UserRepresentation> page(Stream<UserRepresentation> users, Map<String, List<String>> params) {
+        int first = parseInt(first(params, "first"), 0);
+        int max = parseInt(first(params, "max"), DEFAULT_MAX_RESULTS);
+        return users.sorted(Comparator.comparing(UserRepresentation::getUsername))
+                .skip(Math.max(0, first))
+                .limit(max < 0 ? Long.MAX_VALUE : max)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static Predicate<UserRepresentation> fieldMatches(
+            String expected, java.util.function.Function<UserRepresentation, String> field, boolean exact) {
+        if (expected == null || expected.isEmpty()) {
+            return user -> true;
+        }
+        String needle = expected.toLowerCase();
+        return user -> {
+            String value = field.apply(user);
+            if (value == null) {
+                return false;
+            }
+            return exact ? value.equalsIgnoreCase(needle) : value.toLowerCase().contains(needle);
+        };
+    }
+
+    private static String first(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase() : null;
+    }
+
+    private static UserRepresentation copy(UserRepresentation user) {
+        return read(json(user), UserRepresentation.class);
+    }
+
+    private static <T> T read(String body, Class<T> type) {
+        try {
+            return MAPPER.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new FakeKeycloakException(400, "Invalid JSON body: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String json(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Reply(int status, Object body, String location) {
+        static Reply ok(Object body) {
+            return new Reply(200, body, null);
+        }
+
+        static Reply noContent() {
+            return new Reply(204, null, null);
+        }
+
+        static Reply error(int status, String message) {
+            return new Reply(status, Map.of("error", message), null);
+        }
+    }
+
+    private static final class FakeKeycloakException extends RuntimeException {
+        private final int status;
+
+        private FakeKeycloakException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package pe.edu.vallegrande.vgmsuser.support.keycloak;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+import pe.edu.vallegrande.vgmsuser.application.impl.KeycloakServiceImpl;
+import pe.edu.vallegrande.vgmsuser.domain.model.User;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.DocumentType;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.PasswordStatus;
+import pe.edu.vallegrande.vgmsuser.domain.model.enums.UserStatus;
+import pe.edu.vallegrande.vgmsuser.infraestructure.util.KeycloakProvider;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas del Keycloak falso usando el cliente de administración real (RESTEasy + token)
+ */
+@DisplayName("FakeKeycloakServer - Pruebas Unitarias")
+class FakeKeycloakServerTest {
+
+    private FakeKeycloakServer server;
+    private Keycloak keycloak;
+    private KeycloakServiceImpl keycloakService;
+
+    @BeforeEach
+    void setUp() {
+        server = new FakeKeycloakServer("auth-school").withSeed(7).start();
+        keycloak = server.adminClient();
+        keycloakService = new KeycloakServiceImpl(new KeycloakProvider(keycloak, server.getRealm()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        keycloak.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("UT-KC001: Crea un usuario con atributos y roles y lo recupera por id, username y email")
+    void testCreateAndReadUser_ThroughAdminClient() {
+        User user = User.builder()
+                .username("juan.perez")
+                .email("Juan.Perez@vallegrande.edu.pe")
+                .firstname("Juan")
+                .lastname("Pérez")
+                .password("12345678")
+                .documentType(DocumentType.DNI)
+                .documentNumber("12345678")
+                .institutionId("INST001")
+                .roles(Set.of("secretary"))
+                .build();
+
+        String keycloakId = keycloakService.createUser(user).block();
+
+        StepVerifier.create(keycloakService.getUserByKeycloakId(keycloakId))
+                .assertNext(dto -> {
+                    assertThat(dto.getUsername()).isEqualTo("juan.perez");
+                    assertThat(dto.getEmail()).isEqualTo("juan.perez@vallegrande.edu.pe");
+                    assertThat(dto.getDocumentType()).isEqualTo(DocumentType.DNI);
+                    assertThat(dto.getStatus()).isEqualTo(UserStatus.A);
+                    assertThat(dto.getPasswordStatus()).isEqualTo(PasswordStatus.TEMPORARY);
+                    assertThat(dto.getInstitutionId()).isEqualTo("INST001");
+                    assertThat(dto.getRoles()).containsExactly("secretary");
+                })
+                .verifyComplete();
+
+        StepVerifier.create(keycloakService.getUserByUsername("juan.perez"))
+                .assertNext(dto -> assertThat(dto.getKeycloakId()).isEqualTo(keycloakId))
+                .verifyComplete();
+        StepVerifier.create(keycloakService.getUserByEmail("juan.perez@vallegrande.edu.pe"))
+                .assertNext(dto -> assertThat(dto.getKeycloakId()).isEqualTo(keycloakId))
+                .verifyComplete();
+        StepVerifier.create(keycloakService.createUser(user))
+                .assertNext(response -> assertThat(response).startsWith("El usuario ya existe"))
+                .verifyComplete();
+
+        assertThat(server.callCount(FakeKeycloakRoute.TOKEN)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("UT-KC002: Cuenta las llamadas por endpoint y expone el N+1 de getAllUsersWithAttributes")
+    void testCallCounts_ExposeNPlusOne() {
+        for (int i = 0; i < 5; i++) {
+            UserRepresentation representation = new UserRepresentation();
+            representation.setUsername("docente" + i);
+            representation.setAttributes(Map.of("institutionId", List.of("INST001")));
+            server.addUser(representation, "teacher");
+        }
+
+        StepVerifier.create(keycloakService.getAllUsersWithAttributes())
+                .expectNextCount(5)
+                .verifyComplete();
+
+        assertThat(server.callCount(FakeKeycloakRoute.USER_SEARCH)).isEqualTo(1);
+        assertThat(server.callCount(FakeKeycloakRoute.USER_GET)).isEqualTo(5);
+        assertThat(server.callCount(FakeKeycloakRoute.ROLE_MAPPINGS_GET)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("UT-KC004: La búsqueda por institución pagina en Keycloak y solo carga los roles de las coincidencias")
+    void testSearchByAttribute_PushesInstitutionFilterDown() {
+        for (int i = 0; i < 20; i++) {
+            UserRepresentation representation = new UserRepresentation();
+            representation.setUsername("usuario" + i);
+            representation.setAttributes(Map.of("institutionId", List.of(i < 5 ? "INST001" : "INST002")));
+            server.addUser(representation, "teacher");
+        }
+        ReflectionTestUtils.setField(keycloakService, "searchPageSize", 2);
+
+        StepVerifier.create(keycloakService.searchUsersByAttribute("institutionId", "INST001"))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        assertThat(server.callCount(FakeKeycloakRoute.USER_SEARCH)).isEqualTo(3);
+        assertThat(server.callCount(FakeKeycloakRoute.USER_GET)).isZero();
+        assertThat(server.callCount(FakeKeycloakRoute.ROLE_MAPPINGS_GET)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("UT-KC005: Los listados por rol parten de los miembros del rol en vez de recorrer todo el realm")
+    void testGetUsersByRole_StartsFromRoleMembers() {
+        for (int i = 0; i < 30; i++) {
+            UserRepresentation representation = new UserRepresentation();
+            representation.setUsername("usuario" + i);
+            representation.setAttributes(Map.of("institutionId", List.of("INST" + i)));
+            server.addUser(representation, i < 8 ? "director" : "teacher");
+        }
+
+        StepVerifier.create(keycloakService.getUsersByRole("director"))
+                .recordWith(ArrayList::new)
+                .expectNextCount(8)
+                .consumeRecordedWith(directors -> assertThat(directors)
+                        .allSatisfy(dto -> {
+                            assertThat(dto.getRoles()).containsExactly("director");
+                            assertThat(dto.getInstitutionId()).startsWith("INST");
+                        }))
+                .verifyComplete();
+        StepVerifier.create(keycloakService.getUsersByRole("no-existe"))
+                .verifyComplete();
+
+        assertThat(server.callCount(FakeKeycloakRoute.ROLE_MEMBERS)).isEqualTo(2);
+        assertThat(server.callCount(FakeKeycloakRoute.USER_SEARCH)).isZero();
+        assertThat(server.callCount(FakeKeycloakRoute.USER_GET)).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("UT-KC003: Aplica la latencia y la tasa de error configuradas por endpoint")
+    void testLatencyAndErrorInjection() {
+        UserRepresentation representation = new UserRepresentation();
+        representation.setUsername("auxiliar");
+        String keycloakId = server.addUser(representation, "auxiliary");
+        server.withLatency(FakeKeycloakRoute.USER_SEARCH, LatencyModel.fixed(Duration.ofMillis(80)))
+                .withErrorRate(FakeKeycloakRoute.USER_GET, 1.0);
+
+        long start = System.nanoTime();
+        StepVerifier.create(keycloakService.searchUserByUsername("auxiliar"))
+                .assertNext(users -> assertThat(users).hasSize(1))
+                .verifyComplete();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(80));
+
+        StepVerifier.create(keycloakService.getUserByKeycloakId(keycloakId))
+                .expectErrorMatches(error -> error.getMessage().contains("503"))
+                .verify();
+        assertThat(server.injectedErrorCount(FakeKeycloakRoute.USER_GET)).isEqualTo(1);
+    }
+}
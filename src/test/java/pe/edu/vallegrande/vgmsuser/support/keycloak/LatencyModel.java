@@ -0,0 +1,42 @@
+package pe.edu.vallegrande.vgmsuser.support.keycloak;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Distribución de latencia inyectada por el Keycloak falso en cada endpoint
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+    LatencyModel NONE = random -> Duration.ZERO;
+
+    Duration next(Random random);
+
+    static LatencyModel fixed(Duration latency) {
+        return random -> latency;
+    }
+
+    static LatencyModel uniform(Duration min, Duration max) {
+        long minMicros = min.toNanos() / 1_000;
+        long spanMicros = Math.max(1, max.toNanos() / 1_000 - minMicros);
+        return random -> Duration.ofNanos((minMicros + (long) (random.nextDouble() * spanMicros)) * 1_000);
+    }
+
+    /**
+     * Log-normal definida por su mediana y su p99: cola larga típica de un Keycloak con base de datos detrás
+     */
+    static LatencyModel logNormal(Duration median, Duration p99) {
+        double mu = Math.log(median.toNanos());
+        double sigma = Math.max(0, (Math.log(p99.toNanos()) - mu) / 2.326);
+        return random -> Duration.ofNanos((long) Math.exp(mu + sigma * random.nextGaussian()));
+    }
+
+    /**
+     * Con probabilidad spikeRate usa la latencia de pico (pausas de GC, locks en la base de datos)
+     */
+    default LatencyModel withSpikes(double spikeRate, Duration spike) {
+        LatencyModel base = this;
+        return random -> random.nextDouble() < spikeRate ? spike : base.next(random);
+    }
+}
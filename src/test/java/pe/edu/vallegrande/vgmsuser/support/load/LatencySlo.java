@@ -0,0 +1,18 @@
+package pe.edu.vallegrande.vgmsuser.support.load;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Objetivos de latencia (corregida por omisión coordinada) y tasa de error de un escenario.
+ * Un percentil en null no se evalúa
+ */
+@Value
+@Builder
+public class LatencySlo {
+    Double p50Millis;
+    Double p99Millis;
+    Double p999Millis;
+    @Builder.Default
+    double maxErrorRate = 0.0;
+}
@@ -0,0 +1,32 @@
+package pe.edu.vallegrande.vgmsuser.support.load;
+
+import lombok.Builder;
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Percentiles de un histograma, en milisegundos
+ */
+@Value
+@Builder
+public class LatencySummary {
+    long count;
+    double meanMillis;
+    double p50Millis;
+    double p90Millis;
+    double p99Millis;
+    double p999Millis;
+    double maxMillis;
+
+    static LatencySummary of(Histogram histogramMicros) {
+        return LatencySummary.builder()
+                .count(histogramMicros.getTotalCount())
+                .meanMillis(histogramMicros.getMean() / 1_000.0)
+                .p50Millis(histogramMicros.getValueAtPercentile(50.0) / 1_000.0)
+                .p90Millis(histogramMicros.getValueAtPercentile(90.0) / 1_000.0)
+                .p99Millis(histogramMicros.getValueAtPercentile(99.0) / 1_000.0)
+                .p999Millis(histogramMicros.getValueAtPercentile(99.9) / 1_000.0)
+                .maxMillis(histogramMicros.getMaxValue() / 1_000.0)
+                .build();
+    }
+}
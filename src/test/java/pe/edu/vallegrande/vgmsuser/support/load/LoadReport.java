@@ -0,0 +1,97 @@
+package pe.edu.vallegrande.vgmsuser.support.load;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Builder;
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de un escenario. "corrected" mide desde el instante previsto de llegada (corrige la
+ * omisión coordinada); "uncorrected" desde el envío real, como lo reportaría un bucle cerrado
+ */
+@Value
+@Builder
+public class LoadReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    String scenario;
+    double targetRatePerSecond;
+    double achievedRatePerSecond;
+    long durationMillis;
+    long requests;
+    long errors;
+    long dropped;
+    long timedOut;
+    LatencySummary corrected;
+    LatencySummary uncorrected;
+    LatencySlo slo;
+
+    @JsonIgnore
+    Histogram correctedHistogram;
+    @JsonIgnore
+    Histogram uncorrectedHistogram;
+
+    public double getErrorRate() {
+        return requests == 0 ? 0.0 : (double) (errors + dropped + timedOut) / requests;
+    }
+
+    /**
+     * Incumplimientos del SLO; vacía si el escenario pasa
+     */
+    public List<String> getViolations() {
+        List<String> violations = new ArrayList<>();
+        if (slo == null) {
+            return violations;
+        }
+        check(violations, "p50", slo.getP50Millis(), corrected.getP50Millis());
+        check(violations, "p99", slo.getP99Millis(), corrected.getP99Millis());
+        check(violations, "p99.9", slo.getP999Millis(), corrected.getP999Millis());
+        if (dropped > 0) {
+            // Una llegada descartada significa que el generador dejó de aplicar la tasa objetivo
+            violations.add(String.format("%d requests dropped at maxInFlight", dropped));
+        }
+        if (getErrorRate() > slo.getMaxErrorRate()) {
+            violations.add(String.format("error rate %.4f > %.4f", getErrorRate(), slo.getMaxErrorRate()));
+        }
+        return violations;
+    }
+
+    public void assertSlo() {
+        List<String> violations = getViolations();
+        if (!violations.isEmpty()) {
+            throw new AssertionError("Scenario '" + scenario + "' violated its SLO: " + String.join(", ", violations));
+        }
+    }
+
+    /**
+     * Escribe {scenario}.json y la distribución completa {scenario}-corrected.hgrm / -uncorrected.hgrm
+     */
+    public void writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        MAPPER.writeValue(directory.resolve(scenario + ".json").toFile(), this);
+        writeDistribution(directory.resolve(scenario + "-corrected.hgrm"), correctedHistogram);
+        writeDistribution(directory.resolve(scenario + "-uncorrected.hgrm"), uncorrectedHistogram);
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+
+    private static void check(List<String> violations, String percentile, Double limitMillis, double actualMillis) {
+        if (limitMillis != null && actualMillis > limitMillis) {
+            violations.add(String.format("%s %.2fms > %.2fms", percentile, actualMillis, limitMillis));
+        }
+    }
+}
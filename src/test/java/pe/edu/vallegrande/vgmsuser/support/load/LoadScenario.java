@@ -0,0 +1,41 @@
+package pe.edu.vallegrande.vgmsuser.support.load;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.LongFunction;
+
+/**
+ * Escenario de carga en modelo abierto: las peticiones llegan a una tasa fija,
+ * sin esperar a que terminen las anteriores
+ */
+@Value
+@Builder
+public class LoadScenario {
+    @NonNull
+    String name;
+    double ratePerSecond;
+    @NonNull
+    Duration duration;
+    @Builder.Default
+    Duration warmup = Duration.ZERO;
+    /**
+     * Tiempo máximo para esperar las peticiones en vuelo al terminar
+     */
+    @Builder.Default
+    Duration drainTimeout = Duration.ofSeconds(10);
+    /**
+     * Límite de seguridad: por encima de este número de peticiones en vuelo las llegadas se descartan (y cuentan como error)
+     */
+    @Builder.Default
+    int maxInFlight = 10_000;
+    /**
+     * Petición número i; se suscribe en el instante previsto de llegada
+     */
+    @NonNull
+    LongFunction<Mono<?>> request;
+    LatencySlo slo;
+}
@@ -0,0 +1,149 @@
+package pe.edu.vallegrande.vgmsuser.support.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga en modelo abierto. La petición i tiene un instante previsto
+ * start + i / rate y se lanza en ese instante aunque las anteriores no hayan terminado;
+ * si el generador se atrasa, lanza las pendientes de inmediato. La latencia corregida se
+ * mide desde el instante previsto, así una saturación del servicio se refleja en la cola
+ * en lugar de frenar las llegadas (omisión coordinada). Las llegadas descartadas por maxInFlight y
+ * las que siguen en vuelo al vencer drainTimeout nunca respondieron: se registran en la latencia
+ * corregida con lo que llevaban esperando al terminar, una cota inferior de su latencia real
+ */
+@Slf4j
+public final class OpenLoadGenerator {
+
+    private OpenLoadGenerator() {
+    }
+
+    public static LoadReport run(LoadScenario scenario) {
+        if (scenario.getRatePerSecond() <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive");
+        }
+        long intervalNanos = Math.max(1, (long) (1_000_000_000L / scenario.getRatePerSecond()));
+        long warmupRequests = scenario.getWarmup().toNanos() / intervalNanos;
+        long measuredRequests = scenario.getDuration().toNanos() / intervalNanos;
+
+        Recorder corrected = new Recorder(3);
+        Recorder uncorrected = new Recorder(3);
+        LongAdder errors = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        AtomicInteger inFlight = new AtomicInteger();
+        List<Long> droppedIntended = new ArrayList<>();
+        Map<Long, Long> pendingIntended = new ConcurrentHashMap<>();
+
+        log.info("Load scenario '{}': {} req/s for {} (+{} warmup)",
+                scenario.getName(), scenario.getRatePerSecond(), scenario.getDuration(), scenario.getWarmup());
+
+        long start = System.nanoTime();
+        long measureStart = start + warmupRequests * intervalNanos;
+        long lastSent = measureStart;
+        for (long i = 0; i < warmupRequests + measuredRequests; i++) {
+            long intended = start + i * intervalNanos;
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            boolean measured = i >= warmupRequests;
+
+            if (inFlight.get() >= scenario.getMaxInFlight()) {
+                if (measured) {
+                    dropped.increment();
+                    droppedIntended.add(intended);
+                }
+                continue;
+            }
+            inFlight.incrementAndGet();
+            long sent = System.nanoTime();
+            lastSent = sent;
+            long request = i;
+            if (measured) {
+                pendingIntended.put(request, intended);
+            }
+
+            Mono<?> call;
+            try {
+                call = scenario.getRequest().apply(i);
+            } catch (RuntimeException e) {
+                call = Mono.error(e);
+            }
+            call.then().subscribe(
+                    null,
+                    error -> {
+                        // Si ya se contó como timeout al terminar, no se registra dos veces
+                        if (measured && pendingIntended.remove(request) != null) {
+                            record(corrected, uncorrected, intended, sent);
+                            errors.increment();
+                        }
+                        inFlight.decrementAndGet();
+                    },
+                    () -> {
+                        if (measured && pendingIntended.remove(request) != null) {
+                            record(corrected, uncorrected, intended, sent);
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        long drainDeadline = System.nanoTime() + scenario.getDrainTimeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        long end = System.nanoTime();
+        long timedOut = 0;
+        for (Long request : new ArrayList<>(pendingIntended.keySet())) {
+            Long intended = pendingIntended.remove(request);
+            if (intended != null) {
+                corrected.recordValue(Math.max(1, (end - intended) / 1_000));
+                timedOut++;
+            }
+        }
+        for (long intended : droppedIntended) {
+            corrected.recordValue(Math.max(1, (end - intended) / 1_000));
+        }
+        long elapsedNanos = Math.max(1, lastSent - measureStart);
+
+        Histogram correctedHistogram = corrected.getIntervalHistogram();
+        Histogram uncorrectedHistogram = uncorrected.getIntervalHistogram();
+        LoadReport report = LoadReport.builder()
+                .scenario(scenario.getName())
+                .targetRatePerSecond(scenario.getRatePerSecond())
+                .achievedRatePerSecond(Math.max(0, measuredRequests - 1) * 1_000_000_000.0 / elapsedNanos)
+                .durationMillis(scenario.getDuration().toMillis())
+                .requests(measuredRequests)
+                .errors(errors.sum())
+                .dropped(dropped.sum())
+                .timedOut(timedOut)
+                .corrected(LatencySummary.of(correctedHistogram))
+                .uncorrected(LatencySummary.of(uncorrectedHistogram))
+                .slo(scenario.getSlo())
+                .correctedHistogram(correctedHistogram)
+                .uncorrectedHistogram(uncorrectedHistogram)
+                .build();
+
+        log.info("Load scenario '{}' finished: {} requests, {} errors, {} dropped, {} timed out, " +
+                        "p50 {}ms p99 {}ms p99.9 {}ms (uncorrected p99 {}ms)",
+                report.getScenario(), report.getRequests(), report.getErrors(), report.getDropped(), report.getTimedOut(),
+                report.getCorrected().getP50Millis(), report.getCorrected().getP99Millis(),
+                report.getCorrected().getP999Millis(), report.getUncorrected().getP99Millis());
+        return report;
+    }
+
+    private static void record(Recorder corrected, Recorder uncorrected, long intended, long sent) {
+        long end = System.nanoTime();
+        corrected.recordValue(Math.max(1, (end - intended) / 1_000));
+        uncorrected.recordValue(Math.max(1, (end - sent) / 1_000));
+    }
+}
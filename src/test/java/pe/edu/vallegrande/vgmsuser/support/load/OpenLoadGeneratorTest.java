@@ -0,0 +1,92 @@
+package pe.edu.vallegrande.vgmsuser.support.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas Unitarias del generador de carga en modelo abierto
+ */
+@DisplayName("OpenLoadGenerator - Pruebas Unitarias")
+class OpenLoadGeneratorTest {
+
+    @Test
+    @DisplayName("UT-LG001: Una pausa del servicio se refleja en la latencia corregida y no en la medida desde el envío")
+    void testCoordinatedOmissionCorrection() {
+        LoadReport report = OpenLoadGenerator.run(LoadScenario.builder()
+                .name("stall")
+                .ratePerSecond(200)
+                .duration(Duration.ofSeconds(1))
+                .request(i -> {
+                    if (i == 50) {
+                        sleep(300);
+                    }
+                    return Mono.empty();
+                })
+                .build());
+
+        assertThat(report.getRequests()).isEqualTo(200);
+        assertThat(report.getErrors()).isZero();
+        assertThat(report.getCorrected().getP99Millis()).isGreaterThan(100);
+        assertThat(report.getUncorrected().getP90Millis()).isLessThan(50);
+    }
+
+    @Test
+    @DisplayName("UT-LG002: Evalúa el SLO de errores y escribe el reporte JSON y los histogramas")
+    void testSloAndReport(@TempDir Path reports) throws Exception {
+        LoadReport report = OpenLoadGenerator.run(LoadScenario.builder()
+                .name("errors")
+                .ratePerSecond(500)
+                .duration(Duration.ofMillis(500))
+                .warmup(Duration.ofMillis(100))
+                .request(i -> i % 10 == 0 ? Mono.error(new RuntimeException("boom")) : Mono.just(i))
+                .slo(LatencySlo.builder().p99Millis(1_000.0).maxErrorRate(0.05).build())
+                .build());
+
+        assertThat(report.getRequests()).isEqualTo(250);
+        assertThat(report.getErrors()).isEqualTo(25);
+        assertThat(report.getViolations()).singleElement().asString().startsWith("error rate");
+        assertThatThrownBy(report::assertSlo).isInstanceOf(AssertionError.class);
+
+        report.writeTo(reports);
+        JsonNode json = new ObjectMapper().readTree(reports.resolve("errors.json").toFile());
+        assertThat(json.get("requests").asLong()).isEqualTo(250);
+        assertThat(json.get("corrected").get("p99Millis").asDouble()).isPositive();
+        assertThat(reports.resolve("errors-corrected.hgrm")).exists();
+    }
+
+    @Test
+    @DisplayName("UT-LG003: Las llegadas descartadas por maxInFlight cuentan en la latencia corregida e incumplen el SLO")
+    void testDroppedRequestsAreRecorded() {
+        LoadReport report = OpenLoadGenerator.run(LoadScenario.builder()
+                .name("saturated")
+                .ratePerSecond(200)
+                .duration(Duration.ofSeconds(1))
+                .maxInFlight(1)
+                .request(i -> Mono.delay(Duration.ofMillis(50)))
+                .slo(LatencySlo.builder().maxErrorRate(1.0).build())
+                .build());
+
+        assertThat(report.getDropped()).isGreaterThan(100);
+        assertThat(report.getCorrectedHistogram().getTotalCount()).isEqualTo(report.getRequests());
+        assertThat(report.getCorrected().getP50Millis()).isGreaterThan(100);
+        assertThat(report.getViolations()).anyMatch(violation -> violation.contains("dropped"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}